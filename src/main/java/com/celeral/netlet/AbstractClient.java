@@ -19,14 +19,20 @@ import java.io.IOException;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.celeral.netlet.Listener.ClientListener;
 import com.celeral.netlet.NetletThrowable.NetletRuntimeException;
+import com.celeral.netlet.util.ByteRingBuffer;
 import com.celeral.netlet.util.CircularBuffer;
+import com.celeral.netlet.util.ElasticBuffer;
+import com.celeral.netlet.util.Releasable;
 import com.celeral.netlet.util.Slice;
 
 /**
@@ -38,6 +44,7 @@ import com.celeral.netlet.util.Slice;
 public abstract class AbstractClient implements ClientListener
 {
   private static final int THROWABLES_COLLECTION_SIZE = 4;
+  private static final int WRITE_BATCH_SIZE = 64;
   public static final int MAX_SENDBUFFER_SIZE;
 
   protected final CircularBuffer<NetletThrowable> throwables;
@@ -47,6 +54,25 @@ public abstract class AbstractClient implements ClientListener
   protected final ByteBuffer writeBuffer;
   protected boolean write;
   protected SelectionKey key;
+  /**
+   * Slices looked at by {@link #write()} before it decides how many of them to remove from the send buffer.
+   */
+  private final Slice[] batch = new Slice[WRITE_BATCH_SIZE];
+  /**
+   * Ring into which {@link #send(byte[], int, int)} copies the messages no longer than copyThreshold; null
+   * unless the client is constructed with one.
+   */
+  private final ByteRingBuffer sendRing;
+  private final int copyThreshold;
+  /**
+   * Marker queued in the send buffer for the bytes last copied into the ring, null once a slice is queued
+   * after it. Accessed only by the thread sending the data.
+   */
+  private RingSlice ringSlice;
+  /**
+   * Set by {@link #requestResumeRead()} for the event loop to resume the read operation once it's done writing.
+   */
+  private volatile boolean readRequested;
 
   public boolean isConnected()
   {
@@ -70,6 +96,55 @@ public abstract class AbstractClient implements ClientListener
 
   public AbstractClient(ByteBuffer writeBuffer, int sendBufferSize)
   {
+    this(writeBuffer, sendBufferSize, null, 0);
+  }
+
+  /**
+   * Create a client which copies the small messages passed to {@link #send(byte[], int, int)} into the given
+   * ring instead of queueing a slice referring to them. The event loop writes the bytes in the ring straight
+   * to the socket without copying them into the write buffer. The messages which are longer than the
+   * threshold or do not fit in the ring are queued as slices, in order with the copied ones.
+   *
+   * @param writeBuffer buffer into which the data of the queued slices is copied before writing it
+   * @param sendBufferSize initial number of slices which can be queued
+   * @param sendRing ring into which the small messages are copied, null to queue all the messages as slices
+   * @param copyThreshold length up to which the messages are copied into the ring
+   * @since 2.0.0
+   */
+  public AbstractClient(ByteBuffer writeBuffer, int sendBufferSize, ByteRingBuffer sendRing, int copyThreshold)
+  {
+    this(writeBuffer, new CircularBuffer<Slice>(roundSendBufferSize(sendBufferSize), 10), sendRing, copyThreshold);
+  }
+
+  /**
+   * Create a client which queues the slices to be sent in the given buffer. With an {@link ElasticBuffer}, the
+   * send buffer grows by chunks during a burst and gives the memory back once the burst is written, instead of
+   * being replaced by ever larger circular buffers which are never shrunk.
+   *
+   * @param writeBuffer buffer into which the data of the queued slices is copied before writing it
+   * @param sendBuffer buffer in which the slices are queued
+   * @since 2.0.0
+   */
+  public AbstractClient(ByteBuffer writeBuffer, CircularBuffer<Slice> sendBuffer)
+  {
+    this(writeBuffer, sendBuffer, null, 0);
+  }
+
+  /**
+   * Create a client with the given send buffer which copies the small messages into the given ring.
+   *
+   * @param writeBuffer buffer into which the data of the queued slices is copied before writing it
+   * @param sendBuffer buffer in which the slices are queued
+   * @param sendRing ring into which the small messages are copied, null to queue all the messages as slices
+   * @param copyThreshold length up to which the messages are copied into the ring
+   * @see #AbstractClient(ByteBuffer, int, ByteRingBuffer, int)
+   * @see #AbstractClient(ByteBuffer, CircularBuffer)
+   * @since 2.0.0
+   */
+  public AbstractClient(ByteBuffer writeBuffer, CircularBuffer<Slice> sendBuffer, ByteRingBuffer sendRing, int copyThreshold)
+  {
+    this.sendRing = sendRing;
+    this.copyThreshold = copyThreshold;
     int i = 1;
     int n = 1;
     do {
@@ -81,15 +156,21 @@ public abstract class AbstractClient implements ClientListener
 
     this.throwables = new CircularBuffer<NetletThrowable>(THROWABLES_COLLECTION_SIZE);
     this.writeBuffer = writeBuffer;
+    sendBuffer4Polls = sendBuffer4Offers = sendBuffer;
+    /* an elastic buffer keeps only a chunk's worth of memory around, so do the free slices */
+    freeBuffer = new CircularBuffer<Slice>(sendBuffer instanceof ElasticBuffer ? ((ElasticBuffer<Slice>)sendBuffer).getChunkSize() : sendBuffer.capacity(), 10);
+    this.write = true;
+  }
+
+  private static int roundSendBufferSize(int sendBufferSize)
+  {
     if (sendBufferSize == 0) {
       sendBufferSize = 1024;
     }
     else if (sendBufferSize % 1024 > 0) {
       sendBufferSize += 1024 - (sendBufferSize % 1024);
     }
-    sendBuffer4Polls = sendBuffer4Offers = new CircularBuffer<Slice>(sendBufferSize, 10);
-    freeBuffer = new CircularBuffer<Slice>(sendBufferSize, 10);
-    this.write = true;
+    return sendBufferSize;
   }
 
   @Override
@@ -114,8 +195,9 @@ public abstract class AbstractClient implements ClientListener
   public final void read() throws IOException
   {
     SocketChannel channel = (SocketChannel)key.channel();
+    final ByteBuffer[] buffers = buffers();
     int read;
-    if ((read = channel.read(buffer())) > 0) {
+    if ((read = buffers == null ? channel.read(buffer()) : (int)channel.read(buffers)) > 0) {
       this.read(read);
     }
     else if (read == -1) {
@@ -178,6 +260,19 @@ public abstract class AbstractClient implements ClientListener
     }
   }
 
+  /**
+   * Resume the read operation on the socket from a thread other than the event loop. Changing the interest of the
+   * key races with the event loop changing it, so the event loop is woken up to write, and resumes the read itself
+   * once it's done writing.
+   *
+   * @since 2.0.0
+   */
+  public void requestResumeRead()
+  {
+    readRequested = true;
+    requestWrite();
+  }
+
   @Override
   public final void write() throws IOException
   {
@@ -186,21 +281,7 @@ public abstract class AbstractClient implements ClientListener
      */
     int remaining, size;
     if ((size = sendBuffer4Polls.size()) > 0 && (remaining = writeBuffer.remaining()) > 0) {
-      do {
-        Slice f = sendBuffer4Polls.peekUnsafe();
-        if (remaining < f.length) {
-          writeBuffer.put(f.buffer, f.offset, remaining);
-          f.offset += remaining;
-          f.length -= remaining;
-          break;
-        }
-        else {
-          writeBuffer.put(f.buffer, f.offset, f.length);
-          remaining -= f.length;
-          freeBuffer.offer(sendBuffer4Polls.pollUnsafe());
-        }
-      }
-      while (--size > 0);
+      size = fill(size, remaining);
     }
 
     /*
@@ -209,50 +290,60 @@ public abstract class AbstractClient implements ClientListener
     ((Buffer)writeBuffer).flip();
 
     SocketChannel channel = (SocketChannel)key.channel();
-    while ((remaining = writeBuffer.remaining()) > 0) {
-      remaining -= channel.write(writeBuffer);
-      if (remaining > 0) {
-        /*
-         * switch back to the fill mode.
-         */
-        writeBuffer.compact();
-        return;
-      }
-      else if (size > 0) {
-        /*
-         * switch back to the write mode.
-         */
-        ((Buffer)writeBuffer).clear();
-
-        remaining = writeBuffer.capacity();
-        do {
-          Slice f = sendBuffer4Polls.peekUnsafe();
-          if (remaining < f.length) {
-            writeBuffer.put(f.buffer, f.offset, remaining);
-            f.offset += remaining;
-            f.length -= remaining;
-            break;
-          }
-          else {
-            writeBuffer.put(f.buffer, f.offset, f.length);
-            remaining -= f.length;
-            freeBuffer.offer(sendBuffer4Polls.pollUnsafe());
-          }
+    do {
+      while ((remaining = writeBuffer.remaining()) > 0) {
+        remaining -= channel.write(writeBuffer);
+        if (remaining > 0) {
+          /*
+           * switch back to the fill mode.
+           */
+          writeBuffer.compact();
+          return;
         }
-        while (--size > 0);
+        else if (size > 0) {
+          /*
+           * switch back to the write mode.
+           */
+          ((Buffer)writeBuffer).clear();
+
+          size = fill(size, writeBuffer.capacity());
+
+          /*
+           * switch to the read mode.
+           */
+          ((Buffer)writeBuffer).flip();
+        }
+      }
 
-        /*
-         * switch to the read mode.
-         */
-        ((Buffer)writeBuffer).flip();
+      if (size == 0 || !(sendBuffer4Polls.peekUnsafe() instanceof RingSlice)) {
+        break;
+      }
+
+      /*
+       * the write buffer is empty, so the bytes in the ring can go to the socket without being copied.
+       */
+      ((Buffer)writeBuffer).clear();
+      if (!writeRing(channel, (RingSlice)sendBuffer4Polls.peekUnsafe())) {
+        return;
       }
+      sendBuffer4Polls.discard(1);
+      if (--size > 0) {
+        size = fill(size, writeBuffer.capacity());
+      }
+      ((Buffer)writeBuffer).flip();
     }
+    while (true);
 
     /*
      * switch back to fill mode.
      */
     ((Buffer)writeBuffer).clear();
     synchronized (bufferOfBuffers) {
+      /* checked while holding the lock, so the request which finds the write already requested is not missed */
+      if (readRequested) {
+        readRequested = false;
+        resumeRead();
+      }
       if (sendBuffer4Polls.isEmpty()) {
         if (sendBuffer4Offers == sendBuffer4Polls) {
           key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
@@ -275,26 +366,15 @@ public abstract class AbstractClient implements ClientListener
 
   public boolean send(byte[] array, int offset, int len)
   {
-    Slice f;
-    if (freeBuffer.isEmpty()) {
-      f = new Slice(array, offset, len);
-    }
-    else {
-      f = freeBuffer.pollUnsafe();
-      f.buffer = array;
-      f.offset = offset;
-      f.length = len;
+    if (sendRing != null && len <= copyThreshold && copy(array, offset, len)) {
+      requestWrite();
+      return true;
     }
 
+    ringSlice = null;
+    Slice f = newSlice(array, offset, len);
     if (sendBuffer4Offers.offer(f)) {
-      synchronized (bufferOfBuffers) {
-        if (!write) {
-          key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
-          write = true;
-          key.selector().wakeup();
-        }
-      }
-
+      requestWrite();
       return true;
     }
 
@@ -302,7 +382,7 @@ public abstract class AbstractClient implements ClientListener
       NetletThrowable.Util.throwRuntime(throwables.pollUnsafe());
     }
 
-    if (sendBuffer4Offers.capacity() != MAX_SENDBUFFER_SIZE) {
+    if (canGrow()) {
       synchronized (bufferOfBuffers) {
         if (sendBuffer4Offers != sendBuffer4Polls) {
           bufferOfBuffers.add(sendBuffer4Offers);
@@ -323,6 +403,244 @@ public abstract class AbstractClient implements ClientListener
     return false;
   }
 
+  /**
+   * Copy the message into the ring and make sure that a marker in the send buffer covers it.
+   *
+   * @return true if the message is copied, false if there is no room for it in the ring or for a marker.
+   */
+  private boolean copy(byte[] array, int offset, int len)
+  {
+    /* the marker may be needed even when the ring has room, since the event loop may be done with the last one */
+    if (!reserveSendCapacity(1) || !sendRing.offer(array, offset, len)) {
+      return false;
+    }
+
+    final long head = sendRing.head();
+    if (ringSlice == null || !ringSlice.extend(head)) {
+      ringSlice = new RingSlice(head);
+      sendBuffer4Offers.add(ringSlice);
+    }
+
+    return true;
+  }
+
+  /**
+   * Write the bytes covered by the marker straight from the ring to the socket.
+   *
+   * @return true if all the bytes are written and the marker is done with, false if the socket is full.
+   */
+  private boolean writeRing(SocketChannel channel, RingSlice marker) throws IOException
+  {
+    do {
+      final long limit = marker.limit;
+      while (sendRing.tail() < limit) {
+        if (sendRing.writeTo(channel, limit) == 0) {
+          return false;
+        }
+      }
+
+      if (marker.close(limit)) {
+        return true;
+      }
+    }
+    while (true);
+  }
+
+  /**
+   * Copy the slices queued for sending into the write buffer in fill mode. The slices which fit entirely are
+   * removed from the send buffer a batch at a time, publishing its consumer index once per batch, and the
+   * first one which does not fit is copied partially and left in place. A marker for the bytes in the ring is
+   * left in place as well, since its bytes are written without copying once the write buffer is empty.
+   *
+   * @param size number of the slices known to be in the send buffer
+   * @param remaining room left in the write buffer
+   * @return number of the slices left in the send buffer out of size
+   */
+  private int fill(int size, int remaining)
+  {
+    do {
+      final int count = sendBuffer4Polls.peek(batch, 0, Math.min(size, WRITE_BATCH_SIZE));
+      int i = 0;
+      while (i < count) {
+        Slice f = batch[i];
+        if (f instanceof RingSlice) {
+          break;
+        }
+
+        if (remaining < f.length) {
+          writeBuffer.put(f.buffer, f.offset, remaining);
+          f.offset += remaining;
+          f.length -= remaining;
+          break;
+        }
+
+        writeBuffer.put(f.buffer, f.offset, f.length);
+        remaining -= f.length;
+        i++;
+      }
+
+      sendBuffer4Polls.discard(i);
+      for (int j = 0; j < i; j++) {
+        recycle(batch[j]);
+      }
+      Arrays.fill(batch, 0, count, null);
+
+      size -= i;
+      if (i < count) {
+        break;
+      }
+    }
+    while (size > 0);
+
+    return size;
+  }
+
+  /**
+   * Dispose the slice whose data is copied into the write buffer.
+   */
+  private void recycle(Slice f)
+  {
+    if (f instanceof Releasable) {
+      ((Releasable)f).release();
+    }
+    else {
+      freeBuffer.offer(f);
+    }
+  }
+
+  private Slice newSlice(byte[] array, int offset, int len)
+  {
+    Slice f;
+    if (freeBuffer.isEmpty()) {
+      f = new Slice(array, offset, len);
+    }
+    else {
+      f = freeBuffer.pollUnsafe();
+      f.buffer = array;
+      f.offset = offset;
+      f.length = len;
+    }
+    return f;
+  }
+
+  /**
+   * Make sure that the send buffer has room for the given number of slices, growing it if necessary.
+   *
+   * The room is guaranteed only to the thread which sends the data, so a sequence of {@link #enqueue} calls
+   * following a successful reservation is either queued completely or not at all.
+   *
+   * @param slices number of slices which will be enqueued.
+   * @return true if the room is available, false if the send buffer is full and can not grow any further.
+   * @since 2.0.0
+   */
+  protected boolean reserveSendCapacity(int slices)
+  {
+    if (sendBuffer4Offers.remainingCapacity() >= slices) {
+      return true;
+    }
+
+    if (!throwables.isEmpty()) {
+      NetletThrowable.Util.throwRuntime(throwables.pollUnsafe());
+    }
+
+    int capacity = sendBuffer4Offers.capacity();
+    if (!canGrow() || slices > MAX_SENDBUFFER_SIZE) {
+      return false;
+    }
+
+    do {
+      capacity <<= 1;
+    }
+    while (capacity < slices);
+
+    synchronized (bufferOfBuffers) {
+      if (sendBuffer4Offers != sendBuffer4Polls) {
+        bufferOfBuffers.add(sendBuffer4Offers);
+      }
+
+      sendBuffer4Offers = new CircularBuffer<Slice>(capacity);
+    }
+
+    return true;
+  }
+
+  /**
+   * The send buffer is replaced by a larger one when it is full unless it is already of the maximum size or it
+   * is an elastic buffer which grows on its own up to its capacity.
+   */
+  private boolean canGrow()
+  {
+    return sendBuffer4Offers.capacity() < MAX_SENDBUFFER_SIZE && !(sendBuffer4Offers instanceof ElasticBuffer);
+  }
+
+  /**
+   * Queue the data for sending without notifying the event loop. The room for the data needs to be reserved
+   * using {@link #reserveSendCapacity(int)} and the event loop needs to be notified using {@link #requestWrite()}
+   * once all the data is queued.
+   *
+   * @param array array containing the data
+   * @param offset offset of the data in the array
+   * @param len length of the data
+   * @since 2.0.0
+   */
+  protected final void enqueue(byte[] array, int offset, int len)
+  {
+    ringSlice = null;
+    if (!sendBuffer4Offers.offer(newSlice(array, offset, len))) {
+      throw new IllegalStateException("No room reserved in the send buffer!");
+    }
+  }
+
+  /**
+   * Queue the slice for sending without notifying the event loop. Same as {@link #enqueue(byte[], int, int)}
+   * except that the slice which implements {@link Releasable} is queued as is and released once its data is
+   * copied into the write buffer, or once the client is unregistered. The other slices are left alone as the
+   * client tracks its progress in a slice of its own referring to the same data.
+   *
+   * @param slice slice to be sent
+   * @since 2.0.0
+   */
+  protected final void enqueue(Slice slice)
+  {
+    ringSlice = null;
+    if (!sendBuffer4Offers.offer(slice instanceof Releasable ? slice : newSlice(slice.buffer, slice.offset, slice.length))) {
+      throw new IllegalStateException("No room reserved in the send buffer!");
+    }
+  }
+
+  /**
+   * Express the interest in writing the queued data to the socket.
+   *
+   * @since 2.0.0
+   */
+  protected final void requestWrite()
+  {
+    final Selector selector = requestWriteWithoutWakeup();
+    if (selector != null) {
+      selector.wakeup();
+    }
+  }
+
+  /**
+   * Express the interest in writing the queued data to the socket, leaving it to the caller to wake up the
+   * selector. This lets the caller wake up the selector only once after queueing the data on many clients.
+   *
+   * @return the selector which needs to be woken up, null if the interest was already expressed.
+   * @since 2.0.0
+   */
+  protected final Selector requestWriteWithoutWakeup()
+  {
+    synchronized (bufferOfBuffers) {
+      if (!write) {
+        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        write = true;
+        return key.selector();
+      }
+    }
+
+    return null;
+  }
+
   @Override
   public void handleException(Exception cce, EventLoop el)
   {
@@ -332,12 +650,31 @@ public abstract class AbstractClient implements ClientListener
 
   public abstract ByteBuffer buffer();
 
+  /**
+   * Buffers into which the data is read from the socket with a scattering read. When null is returned,
+   * which is the default, the data is read into {@link #buffer()} instead.
+   *
+   * @return the buffers to be filled in the given order or null.
+   * @since 2.0.0
+   */
+  protected ByteBuffer[] buffers()
+  {
+    return null;
+  }
+
   public abstract void read(int len);
 
   @Override
   public void unregistered(SelectionKey key)
   {
     synchronized (bufferOfBuffers) {
+      /* the queued data is never going to be written, so give the pooled slices back */
+      discard(sendBuffer4Polls);
+      for (CircularBuffer<Slice> buffer = bufferOfBuffers.poll(); buffer != null; buffer = bufferOfBuffers.poll()) {
+        discard(buffer);
+      }
+      discard(sendBuffer4Offers);
+
       final CircularBuffer<Slice> SEND_BUFFER = sendBuffer4Offers;
       sendBuffer4Offers = new CircularBuffer<Slice>(0)
       {
@@ -353,6 +690,12 @@ public abstract class AbstractClient implements ClientListener
           throw new NetletRuntimeException(new UnsupportedOperationException("Client does not own the socket any longer!"), null);
         }
 
+        @Override
+        public int remainingCapacity()
+        {
+          throw new NetletRuntimeException(new UnsupportedOperationException("Client does not own the socket any longer!"), null);
+        }
+
         @Override
         public int size()
         {
@@ -371,10 +714,65 @@ public abstract class AbstractClient implements ClientListener
           return SEND_BUFFER.peekUnsafe();
         }
 
+        @Override
+        public int peek(Slice[] array, int offset, int max)
+        {
+          return SEND_BUFFER.peek(array, offset, max);
+        }
+
+        @Override
+        public void discard(int count)
+        {
+          SEND_BUFFER.discard(count);
+        }
+
       };
     }
   }
 
+  private void discard(CircularBuffer<Slice> buffer)
+  {
+    for (int size = buffer.size(); size > 0; size--) {
+      final Slice f = buffer.pollUnsafe();
+      if (!(f instanceof RingSlice)) {
+        recycle(f);
+      }
+    }
+  }
+
+  /**
+   * Stands in the send buffer for a run of bytes copied into the ring, ending at the index limit of the ring.
+   *
+   * The sending thread extends the run as it copies more bytes into the ring, as long as the event loop has not
+   * closed the marker after writing all the bytes up to its limit; either of them succeeds, so the bytes copied
+   * are always covered either by this marker or by the one queued after it.
+   */
+  private static final class RingSlice extends Slice
+  {
+    private static final long CLOSED = -1;
+    private static final AtomicLongFieldUpdater<RingSlice> LIMIT = AtomicLongFieldUpdater.newUpdater(RingSlice.class, "limit");
+    volatile long limit;
+
+    RingSlice(long limit)
+    {
+      super(null, 0, 0);
+      this.limit = limit;
+    }
+
+    boolean extend(long limit)
+    {
+      final long current = this.limit;
+      return current != CLOSED && LIMIT.compareAndSet(this, current, limit);
+    }
+
+    boolean close(long limit)
+    {
+      return LIMIT.compareAndSet(this, limit, CLOSED);
+    }
+
+    private static final long serialVersionUID = 202610191400L;
+  }
+
   private static final Logger logger = LogManager.getLogger(AbstractClient.class);
 
   /* implemented here since it requires access to logger. */
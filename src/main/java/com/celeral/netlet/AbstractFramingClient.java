@@ -0,0 +1,522 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celeral.utils.Throwables;
+
+import com.celeral.netlet.framing.FrameDecoder;
+import com.celeral.netlet.framing.FrameEncoder;
+import com.celeral.netlet.framing.ScatteringFrameDecoder;
+import com.celeral.netlet.util.Slice;
+
+/**
+ * <p>Abstract client which splits the incoming stream into frames using a {@link FrameDecoder} and
+ * frames the outgoing messages using a {@link FrameEncoder}.</p>
+ *
+ * Each frame is delivered with {@link #onMessage(byte[], int, int)} directly out of the read buffer.
+ * The read buffer is never reused once a frame has been delivered from it, so the frames stay valid
+ * after the call returns. Clients which implement {@link ScatteringMessagesProcessor} receive the rest of the
+ * payload of a partially read frame directly in the buffer they supply.
+ *
+ * @since 2.0.0
+ */
+public abstract class AbstractFramingClient extends AbstractClient implements MessagesProcessor
+{
+  protected final FrameDecoder decoder;
+  protected final FrameEncoder encoder;
+  protected byte[] buffer;
+  protected ByteBuffer byteBuffer;
+  /**
+   * Number of bytes occupied by the frame being delivered; 0 outside of {@link #onMessage}.
+   */
+  protected int size;
+  protected int writeOffset, readOffset;
+  private final Slice frame = new Slice(null, 0, 0);
+  private final int[] offsets;
+  private final int[] lengths;
+  private final ScatteringMessagesProcessor scatterer;
+  private final ByteBuffer[] scatterBuffers;
+  /**
+   * Destination of the payload being read with the scattering reads; null when reading into the read buffer.
+   */
+  private ByteBuffer payload;
+  private int payloadLength, payloadRemaining, payloadLimit;
+
+  public AbstractFramingClient(FrameDecoder decoder, FrameEncoder encoder)
+  {
+    this(decoder, encoder, new byte[64 * 1024], 0, 1024);
+  }
+
+  public AbstractFramingClient(FrameDecoder decoder, FrameEncoder encoder, int readBufferSize, int sendBufferSize)
+  {
+    this(decoder, encoder, new byte[readBufferSize], 0, sendBufferSize);
+  }
+
+  public AbstractFramingClient(FrameDecoder decoder, FrameEncoder encoder, byte[] readbuffer, int position, int sendBufferSize)
+  {
+    super(sendBufferSize);
+    this.decoder = decoder;
+    this.encoder = encoder;
+    buffer = readbuffer;
+    byteBuffer = ByteBuffer.wrap(readbuffer);
+    /* casting as a workaround for covarients in java9 */
+    ((Buffer)byteBuffer).position(position);
+    writeOffset = position;
+    readOffset = position;
+    if (encoder.getMaxHeaderSize() > 0) {
+      headerBuffer = new byte[HEADER_ARRAY_SIZE + encoder.getMaxHeaderSize()];
+    }
+    if (this instanceof BatchMessagesProcessor) {
+      offsets = new int[MAX_BATCH_SIZE];
+      lengths = new int[MAX_BATCH_SIZE];
+    }
+    else {
+      offsets = lengths = null;
+    }
+    if (this instanceof ScatteringMessagesProcessor) {
+      if (!(decoder instanceof ScatteringFrameDecoder)) {
+        throw new IllegalArgumentException("Scattering reads need a ScatteringFrameDecoder instead of " + decoder);
+      }
+      scatterer = (ScatteringMessagesProcessor)this;
+      scatterBuffers = new ByteBuffer[2];
+    }
+    else {
+      scatterer = null;
+      scatterBuffers = null;
+    }
+  }
+
+  @Override
+  public ByteBuffer buffer()
+  {
+    return byteBuffer;
+  }
+
+  @Override
+  protected ByteBuffer[] buffers()
+  {
+    if (payload == null) {
+      return null;
+    }
+
+    scatterBuffers[0] = payload;
+    scatterBuffers[1] = byteBuffer;
+    return scatterBuffers;
+  }
+
+  @Override
+  public void beginMessages()
+  {
+  }
+
+  @Override
+  public void endMessages()
+  {
+  }
+
+  /**
+   * Upon reading the data from the socket into the byteBuffer, this method is called.
+   * read is pronounced "RED", past tense of "read", and not to be confused with the opposite of the "write" method
+   *
+   * @param len - length of the data in number of bytes read into the byteBuffer during the most recent read; when
+   *            the payload of a frame is being scattered, it includes the bytes read into the payload destination.
+   */
+  @Override
+  public void read(int len)
+  {
+    beginMessages();
+    if (payload != null) {
+      final int remaining = payload.remaining();
+      len -= payloadRemaining - remaining;
+      payloadRemaining = remaining;
+      if (remaining == 0) {
+        final ByteBuffer destination = payload;
+        payload = null;
+        /* casting as a workaround for covarients in java9 */
+        ((Buffer)destination).limit(payloadLimit);
+        scatterer.onPayload(destination, payloadLength);
+      }
+    }
+
+    writeOffset += len;
+    if (offsets == null) {
+      int frameSize;
+      while ((frameSize = decoder.decode(buffer, readOffset, writeOffset, frame)) > 0) {
+        size = frameSize;
+        onMessage(buffer, frame.offset, frame.length);
+        readOffset += size;
+        size = 0;
+      }
+      compactOrScatter(frameSize);
+    }
+    else {
+      final BatchMessagesProcessor processor = (BatchMessagesProcessor)this;
+      int frameSize;
+      do {
+        int count = 0;
+        int offset = readOffset;
+        while ((frameSize = decoder.decode(buffer, offset, writeOffset, frame)) > 0) {
+          offsets[count] = frame.offset;
+          lengths[count] = frame.length;
+          offset += frameSize;
+          if (++count == MAX_BATCH_SIZE) {
+            break;
+          }
+        }
+
+        if (count > 0) {
+          size = offset - readOffset;
+          processor.onMessages(buffer, offsets, lengths, count);
+          readOffset += size;
+          size = 0;
+        }
+      }
+      while (frameSize > 0);
+      compactOrScatter(frameSize);
+    }
+    endMessages();
+  }
+
+  private void compactOrScatter(int frameSize)
+  {
+    if (scatterer != null && payload == null && scatter()) {
+      compact(0);
+    }
+    else {
+      compact(frameSize);
+    }
+  }
+
+  /**
+   * Arrange for the rest of the payload of the partial frame to be read into the destination supplied by the
+   * {@link ScatteringMessagesProcessor}. The part of the payload which is already read is copied into the
+   * destination and the frame is removed from the read buffer.
+   *
+   * @return true if the payload is going to be scattered, false if the frame is to be read into the read buffer.
+   */
+  private boolean scatter()
+  {
+    if (((ScatteringFrameDecoder)decoder).decodeHeader(buffer, readOffset, writeOffset, frame) < 0) {
+      return false;
+    }
+
+    final ByteBuffer destination = scatterer.getPayloadBuffer(frame.length);
+    if (destination == null) {
+      return false;
+    }
+
+    final int available = writeOffset - frame.offset;
+    payloadLimit = destination.limit();
+    ((Buffer)destination).limit(destination.position() + frame.length);
+    destination.put(buffer, frame.offset, available);
+    payload = destination;
+    payloadLength = frame.length;
+    payloadRemaining = frame.length - available;
+    readOffset = writeOffset;
+    return true;
+  }
+
+  /**
+   * Make room for the partial frame at the end of the buffer if the buffer is full.
+   *
+   * @param frameSize the negated minimum size of the partial frame as returned by the decoder.
+   */
+  private void compact(int frameSize)
+  {
+    if (writeOffset == buffer.length) {
+      /*
+       * we need more data than we have room for, move the partial frame to a new array which is large enough
+       * to hold it. The old array is not reused since the frames delivered from it may still be referenced.
+       */
+      int newsize = buffer.length;
+      while (newsize < -frameSize) {
+        newsize <<= 1;
+      }
+      byte[] newArray = new byte[newsize];
+      System.arraycopy(buffer, readOffset, newArray, 0, writeOffset - readOffset);
+      buffer = newArray;
+      writeOffset -= readOffset;
+      readOffset = 0;
+      byteBuffer = ByteBuffer.wrap(newArray);
+      ((Buffer)byteBuffer).position(writeOffset);
+    }
+  }
+
+  public boolean write(byte[] message)
+  {
+    return write(message, 0, message.length);
+  }
+
+  public boolean write(byte[] message1, byte[] message2)
+  {
+    if (!reserveSendCapacity(slicesPerFrame() + 1)) {
+      logger.debug("sendBuffer for Offers = {}, socket = {}", sendBuffer4Offers, key.channel());
+      return false;
+    }
+
+    reserveHeaderCapacity(1);
+    enqueueHeader(encoder.writeHeader(message1.length + message2.length, headerBuffer, headerOffset));
+    enqueue(message1, 0, message1.length);
+    enqueue(message2, 0, message2.length);
+    enqueueTrailer();
+    requestWrite();
+    return true;
+  }
+
+  public boolean write(byte[] message, int offset, int size)
+  {
+    if (!reserveSendCapacity(slicesPerFrame())) {
+      return false;
+    }
+
+    reserveHeaderCapacity(1);
+    enqueueHeader(encoder.writeHeader(size, headerBuffer, headerOffset));
+    enqueue(message, offset, size);
+    enqueueTrailer();
+    requestWrite();
+    return true;
+  }
+
+  /**
+   * Write the slice as a frame without copying its data. If the slice implements
+   * {@link com.celeral.netlet.util.Releasable}, it's released once its data is copied into the write buffer.
+   * Otherwise the slice itself is left untouched, but its data must not change until it's written.
+   *
+   * @param message slice to be written
+   * @return true if the slice was queued, false if the send buffer is full in which case the caller remains
+   * responsible for the slice.
+   * @since 2.0.0
+   */
+  public boolean write(Slice message)
+  {
+    if (!reserveSendCapacity(slicesPerFrame())) {
+      return false;
+    }
+
+    reserveHeaderCapacity(1);
+    enqueueHeader(encoder.writeHeader(message.length, headerBuffer, headerOffset));
+    enqueue(message);
+    enqueueTrailer();
+    requestWrite();
+    return true;
+  }
+
+  /**
+   * Write the slice which already holds a complete frame, i.e. the header, the payload and the trailer as the
+   * encoder of this client writes them, without copying it. The slice is released the same way as the ones
+   * written using {@link #write(Slice)}.
+   *
+   * @param frame slice containing the frame
+   * @return true if the slice was queued, false if the send buffer is full in which case the caller remains
+   * responsible for the slice.
+   * @since 2.0.0
+   */
+  public boolean writeFrame(Slice frame)
+  {
+    if (!reserveSendCapacity(1)) {
+      return false;
+    }
+
+    enqueue(frame);
+    requestWrite();
+    return true;
+  }
+
+  /**
+   * Write all the messages as separate frames. Either all the messages are queued for sending or none of them are.
+   *
+   * @param messages messages to be written
+   * @return true if the messages were queued, false if the send buffer does not have room for all of them.
+   * @since 2.0.0
+   */
+  public boolean write(byte[][] messages)
+  {
+    return write(messages, 0, messages.length);
+  }
+
+  /**
+   * Write the given range of messages as separate frames. Either all the messages in the range are queued for
+   * sending or none of them are.
+   *
+   * @param messages array containing the messages to be written
+   * @param offset index of the first message to be written
+   * @param count number of messages to be written
+   * @return true if the messages were queued, false if the send buffer does not have room for all of them.
+   * @since 2.0.0
+   */
+  public boolean write(byte[][] messages, int offset, int count)
+  {
+    if (!reserveSendCapacity(count * slicesPerFrame())) {
+      return false;
+    }
+
+    reserveHeaderCapacity(count);
+    final int[] ends = headerEnds(count);
+    int end = headerOffset;
+    for (int i = 0; i < count; i++) {
+      ends[i] = end = encoder.writeHeader(messages[offset + i].length, headerBuffer, end);
+    }
+
+    for (int i = 0; i < count; i++) {
+      final byte[] message = messages[offset + i];
+      enqueueHeader(ends[i]);
+      enqueue(message, 0, message.length);
+      enqueueTrailer();
+    }
+    requestWrite();
+    return true;
+  }
+
+  /**
+   * Write all the messages as separate frames in the iteration order. Either all the messages are queued for
+   * sending or none of them are.
+   *
+   * @param messages messages to be written
+   * @return true if the messages were queued, false if the send buffer does not have room for all of them.
+   * @since 2.0.0
+   */
+  public boolean write(Collection<byte[]> messages)
+  {
+    final int count = messages.size();
+    if (!reserveSendCapacity(count * slicesPerFrame())) {
+      return false;
+    }
+
+    reserveHeaderCapacity(count);
+    final int[] ends = headerEnds(count);
+    int i = 0;
+    int end = headerOffset;
+    for (byte[] message : messages) {
+      ends[i++] = end = encoder.writeHeader(message.length, headerBuffer, end);
+    }
+
+    i = 0;
+    for (byte[] message : messages) {
+      enqueueHeader(ends[i++]);
+      enqueue(message, 0, message.length);
+      enqueueTrailer();
+    }
+    requestWrite();
+    return true;
+  }
+
+  private int headerOffset;
+  private static final int HEADER_ARRAY_SIZE = 4096 - 5;
+  private static final int MAX_BATCH_SIZE = 1024;
+  private byte[] headerBuffer;
+  private int[] headerEnds = new int[0];
+
+  private int slicesPerFrame()
+  {
+    int slices = 1;
+    if (encoder.getMaxHeaderSize() > 0) {
+      slices++;
+    }
+    if (encoder.getTrailer() != null) {
+      slices++;
+    }
+    return slices;
+  }
+
+  /**
+   * Make sure that the header buffer has room for the headers of the given number of frames.
+   * The queued headers refer to the header buffer, so a new one is allocated instead of reusing the full one.
+   */
+  private void reserveHeaderCapacity(int frames)
+  {
+    final int maxHeaderSize = encoder.getMaxHeaderSize();
+    if (maxHeaderSize > 0) {
+      final int bytes = frames * maxHeaderSize;
+      if (headerOffset + bytes > headerBuffer.length) {
+        headerBuffer = new byte[Math.max(HEADER_ARRAY_SIZE + maxHeaderSize, bytes)];
+        headerOffset = 0;
+      }
+    }
+  }
+
+  private int[] headerEnds(int frames)
+  {
+    if (headerEnds.length < frames) {
+      headerEnds = new int[frames];
+    }
+    return headerEnds;
+  }
+
+  /**
+   * Queue the header which was written in the header buffer at the current offset.
+   *
+   * @param end position in the header buffer right after the header.
+   */
+  private void enqueueHeader(int end)
+  {
+    if (end > headerOffset) {
+      enqueue(headerBuffer, headerOffset, end - headerOffset);
+      headerOffset = end;
+    }
+  }
+
+  private void enqueueTrailer()
+  {
+    final byte[] trailer = encoder.getTrailer();
+    if (trailer != null) {
+      enqueue(trailer, 0, trailer.length);
+    }
+  }
+
+  /**
+   * Discard remaining data currently in the read buffer.
+   *<br><br>
+   * This method can be called from within an {@link #onMessage} call to discard the remaining data currently in the read
+   * buffer and not process the remaining messages using the {@link #onMessage} call.
+   *<br><br>
+   * A scenario in which this can be used is where multiple clients are chained together to process the messages. Each
+   * client once it processes the messages it is responsible for transfers control to the next client in the chain to process
+   * the rest of the data. The remaining data is copied over to the next client. This method can then be called to discard
+   * the remaining data from this client so that it is not processed again in this client.
+   *<br><br>
+   * For the clients which implement {@link BatchMessagesProcessor}, this method can be called from within the
+   * {@link BatchMessagesProcessor#onMessages} call to discard the data following the frames in the current batch.
+   */
+  protected void discardReadBuffer() {
+    readOffset = writeOffset - size;
+    decoder.reset();
+  }
+
+  @Override
+  public void handleException(Exception cce, EventLoop el)
+  {
+    if (key != null && key.attachment() == this) {
+      if (cce instanceof IOException) {
+        if (isConnected()) {
+          el.disconnect(this);
+        }
+      }
+      else {
+        throw Throwables.wrapIfChecked(cce);
+      }
+    }
+  }
+
+  private static final Logger logger = LogManager.getLogger(AbstractFramingClient.class);
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet;
+
+/**
+ * Processor which receives all the frames located in the read buffer with a single call instead of one
+ * {@link #onMessage(byte[], int, int)} call per frame.
+ *
+ * When a {@link AbstractFramingClient} implements this interface, it scans all the complete frames in the
+ * read buffer first and then delivers them using {@link #onMessages(byte[], int[], int[], int)}. The
+ * {@link #onMessage(byte[], int, int)} method is not called for such clients.
+ *
+ * @since 2.0.0
+ */
+public interface BatchMessagesProcessor extends MessagesProcessor
+{
+  /**
+   * Process the frames which were located in the buffer.
+   *
+   * The arrays are reused across the calls, so they should not be retained beyond this call. The buffer
+   * itself is not reused, so the frames stay valid after the call returns.
+   *
+   * @param buffer  the array containing the frames.
+   * @param offsets offsets of the payloads of the frames in the buffer.
+   * @param lengths lengths of the payloads of the frames.
+   * @param count   number of frames in this batch; only the first count elements of the arrays are valid.
+   */
+  void onMessages(byte[] buffer, int[] offsets, int[] lengths, int count);
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet;
+
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celeral.netlet.framing.FrameEncoder;
+import com.celeral.netlet.util.CircularBuffer;
+import com.celeral.netlet.util.ReferenceCountedSlice;
+import com.celeral.netlet.util.Releasable;
+import com.celeral.netlet.util.Slice;
+
+/**
+ * Sends the same message to many clients without copying it.
+ *
+ * The message is queued on each member as a view of the one {@link ReferenceCountedSlice} which is released by
+ * each member once the message is copied into its write buffer. When a {@link FrameEncoder} is given, the header
+ * is encoded once per message and shared among the members too. The interest in writing is expressed on all the
+ * members first and then each selector involved is woken up only once, instead of once per member.
+ *
+ * A member which has more than the allowed number of messages pending is lagging. Depending on the
+ * {@link LagPolicy}, it is either removed from the group or skipped until it catches up with the messages
+ * which are pending. Either way {@link #lagging(AbstractClient, boolean)} is called.
+ *
+ * The clients' send queues allow a single producer, so the messages should not be sent to the members by
+ * any other thread while they are being broadcast. Broadcasts to the same group are serialized.
+ *
+ * @since 2.0.0
+ */
+public class BroadcastGroup
+{
+  public enum LagPolicy
+  {
+    /**
+     * Remove the lagging member from the group.
+     */
+    DROP,
+    /**
+     * Skip the messages for the lagging member until all its pending messages are sent.
+     */
+    MARK
+  }
+
+  private static final Member[] EMPTY = new Member[0];
+
+  private final FrameEncoder encoder;
+  private final int maxPending;
+  private final LagPolicy policy;
+  private final ArrayList<Selector> selectors = new ArrayList<>();
+  private volatile Member[] members = EMPTY;
+
+  public BroadcastGroup(int maxPending, LagPolicy policy)
+  {
+    this(null, maxPending, policy);
+  }
+
+  /**
+   * @param encoder    encoder used to frame the messages for the members, null if the messages are sent as is.
+   * @param maxPending maximum number of messages which can be pending on a member before it's lagging.
+   * @param policy     what to do with the lagging members.
+   */
+  public BroadcastGroup(FrameEncoder encoder, int maxPending, LagPolicy policy)
+  {
+    if (maxPending <= 0) {
+      throw new IllegalArgumentException("Maximum number of pending messages needs to be positive: " + maxPending);
+    }
+    this.encoder = encoder;
+    this.maxPending = maxPending;
+    this.policy = policy;
+  }
+
+  public synchronized boolean add(AbstractClient client)
+  {
+    if (indexOf(client) >= 0) {
+      return false;
+    }
+
+    Member[] newMembers = Arrays.copyOf(members, members.length + 1);
+    newMembers[members.length] = new Member(client, maxPending);
+    members = newMembers;
+    return true;
+  }
+
+  public synchronized boolean remove(AbstractClient client)
+  {
+    final int index = indexOf(client);
+    if (index < 0) {
+      return false;
+    }
+
+    final Member[] newMembers = new Member[members.length - 1];
+    System.arraycopy(members, 0, newMembers, 0, index);
+    System.arraycopy(members, index + 1, newMembers, index, newMembers.length - index);
+    members = newMembers;
+    return true;
+  }
+
+  public int size()
+  {
+    return members.length;
+  }
+
+  /**
+   * @param client member of the group
+   * @return true if the client is a member marked as lagging.
+   */
+  public boolean isLagging(AbstractClient client)
+  {
+    for (Member member : members) {
+      if (member.client == client) {
+        return member.lagging;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param client member of the group
+   * @return number of messages queued on the member which are yet to be sent, -1 if the client is not a member.
+   */
+  public int getPending(AbstractClient client)
+  {
+    for (Member member : members) {
+      if (member.client == client) {
+        return member.pending.get();
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Queue the message on all the members of the group.
+   *
+   * The reference to the message held by the caller is handed over to the group, so the caller should not
+   * release it after the call.
+   *
+   * @param message message to be sent
+   * @return number of members the message was queued on.
+   */
+  public synchronized int broadcast(ReferenceCountedSlice message)
+  {
+    final Slice header;
+    final byte[] trailer;
+    int slices = 1;
+    if (encoder == null) {
+      header = null;
+      trailer = null;
+    }
+    else {
+      byte[] array = new byte[encoder.getMaxHeaderSize()];
+      int length = encoder.writeHeader(message.length, array, 0);
+      header = length > 0 ? new Slice(array, 0, length) : null;
+      trailer = encoder.getTrailer();
+      slices += (header == null ? 0 : 1) + (trailer == null ? 0 : 1);
+    }
+
+    int count = 0;
+    try {
+      for (Member member : members) {
+        if (member.lagging) {
+          if (member.pending.get() > 0) {
+            continue;
+          }
+          member.lagging = false;
+        }
+
+        final AbstractClient client = member.client;
+        try {
+          if (member.pending.get() >= maxPending || !client.reserveSendCapacity(slices)) {
+            lag(member);
+            continue;
+          }
+
+          if (header != null) {
+            client.enqueue(header.buffer, header.offset, header.length);
+          }
+          member.pending.incrementAndGet();
+          client.enqueue(member.view(message.retain()));
+          if (trailer != null) {
+            client.enqueue(trailer, 0, trailer.length);
+          }
+
+          final Selector selector = client.requestWriteWithoutWakeup();
+          if (selector != null && !contains(selector)) {
+            selectors.add(selector);
+          }
+          count++;
+        }
+        catch (RuntimeException ex) {
+          logger.debug("Removing {} from {} since it can not be sent to", client, this, ex);
+          remove(client);
+        }
+      }
+    }
+    finally {
+      message.release();
+      for (int i = selectors.size(); i-- > 0;) {
+        selectors.remove(i).wakeup();
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Called when a member is found lagging.
+   *
+   * @param client  the lagging member.
+   * @param dropped true if the member was removed from the group, false if it was marked as lagging.
+   */
+  protected void lagging(AbstractClient client, boolean dropped)
+  {
+    logger.debug("{} {} from {}", dropped ? "Dropped" : "Marked lagging", client, this);
+  }
+
+  private void lag(Member member)
+  {
+    if (policy == LagPolicy.DROP) {
+      remove(member.client);
+      lagging(member.client, true);
+    }
+    else {
+      member.lagging = true;
+      lagging(member.client, false);
+    }
+  }
+
+  private boolean contains(Selector selector)
+  {
+    for (int i = selectors.size(); i-- > 0;) {
+      if (selectors.get(i) == selector) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int indexOf(AbstractClient client)
+  {
+    final Member[] members = this.members;
+    for (int i = members.length; i-- > 0;) {
+      if (members[i].client == client) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static class Member
+  {
+    final AbstractClient client;
+    /**
+     * Number of messages queued on the client which are not yet copied into its write buffer.
+     */
+    final AtomicInteger pending = new AtomicInteger();
+    /**
+     * Views released by the event loop of the client which can be reused for the following messages.
+     */
+    final CircularBuffer<View> views;
+    volatile boolean lagging;
+
+    Member(AbstractClient client, int maxPending)
+    {
+      this.client = client;
+      views = new CircularBuffer<>(maxPending);
+    }
+
+    View view(ReferenceCountedSlice message)
+    {
+      View view = views.isEmpty() ? new View(this) : views.pollUnsafe();
+      view.message = message;
+      view.buffer = message.buffer;
+      view.offset = message.offset;
+      view.length = message.length;
+      return view;
+    }
+
+  }
+
+  /**
+   * The message as queued on a member; the offset and the length are advanced by the client as it's written.
+   */
+  private static class View extends Slice implements Releasable
+  {
+    private final Member member;
+    private ReferenceCountedSlice message;
+
+    View(Member member)
+    {
+      super(null, 0, 0);
+      this.member = member;
+    }
+
+    @Override
+    public void release()
+    {
+      final ReferenceCountedSlice message = this.message;
+      this.message = null;
+      buffer = null;
+      member.pending.decrementAndGet();
+      member.views.offer(this);
+      message.release();
+    }
+
+    private static final long serialVersionUID = 202610191201L;
+  }
+
+  private static final Logger logger = LogManager.getLogger(BroadcastGroup.class);
+}
@@ -28,6 +28,7 @@ import java.nio.channels.spi.AbstractSelectableChannel;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -35,6 +36,8 @@ import org.apache.logging.log4j.Logger;
 import com.celeral.netlet.Listener.ClientListener;
 import com.celeral.netlet.Listener.ServerListener;
 import com.celeral.netlet.util.CircularBuffer;
+import com.celeral.netlet.util.CircularBuffers;
+import com.celeral.netlet.util.UnsafeBlockingQueue;
 
 /**
  * <p>
@@ -87,7 +90,18 @@ public class DefaultEventLoop implements Runnable, EventLoop
 
   public final String id;
   protected final Selector selector;
+  /**
+   * Tasks queued by the sub classes while holding its lock. They run after those queued on {@link #submitted}.
+   */
   protected final CircularBuffer<Runnable> tasks;
+  /**
+   * Tasks queued using {@link #submit(Runnable)}; the queue takes multiple producers without locking.
+   */
+  protected final UnsafeBlockingQueue<Runnable> submitted;
+  /**
+   * Runs the tasks drained from {@link #submitted} and {@link #tasks} in a batch.
+   */
+  protected final Consumer<Runnable> taskRunner = this::runTask;
   protected boolean alive;
   private int refCount;
   private Thread eventThread;
@@ -100,6 +114,7 @@ public class DefaultEventLoop implements Runnable, EventLoop
   DefaultEventLoop(String id, int taskBufferSize) throws IOException
   {
     this.tasks = new CircularBuffer<Runnable>(taskBufferSize, 5);
+    this.submitted = CircularBuffers.newBuffer(taskBufferSize, 5, true, false);
     this.id = id;
     selector = Selector.open();
   }
@@ -280,21 +295,8 @@ public class DefaultEventLoop implements Runnable, EventLoop
       try {
         do {
           if (!iterator.hasNext()) {
-            int size = tasks.size();
-            if (size > 0) {
-              do {
-                Runnable task = tasks.pollUnsafe();
-                if (logger.isDebugEnabled()) {
-                  logger.debug("Starting Task {}", task);
-                  long nanoTime = System.nanoTime();
-                  task.run();
-                  logger.debug("Finished Task {} after {}", task, System.nanoTime() - nanoTime);
-                }
-                else {
-                  task.run();
-                }
-              }
-              while (--size > 0);
+            int size;
+            if (runTasks() > 0) {
               size = selector.selectNow();
             }
             else {
@@ -396,22 +398,46 @@ public class DefaultEventLoop implements Runnable, EventLoop
   {
     Thread currentThread = Thread.currentThread();
     logger.debug("Submitted Task {}.{}.{}", currentThread, r, eventThread);
-    if (tasks.isEmpty() && eventThread == currentThread) {
-      if (logger.isDebugEnabled()) {
-        logger.debug("Starting Task {}", r);
-        long nanoTime = System.nanoTime();
-        r.run();
-        logger.debug("Finished Task {} after {}", r, System.nanoTime() - nanoTime);
-      }
-      else {
-        r.run();
-      }
+    if (submitted.isEmpty() && tasks.isEmpty() && eventThread == currentThread) {
+      runTask(r);
     }
     else {
-      synchronized (tasks) {
-        tasks.add(r);
-        selector.wakeup();
-      }
+      submitted.add(r);
+      selector.wakeup();
+    }
+  }
+
+  /**
+   * Run the tasks queued so far.
+   *
+   * @return the number of tasks run.
+   */
+  protected final int runTasks()
+  {
+    int count = 0;
+    int size = submitted.size();
+    if (size > 0) {
+      count = submitted.drain(taskRunner, size);
+    }
+
+    size = tasks.size();
+    if (size > 0) {
+      count += tasks.drain(taskRunner, size);
+    }
+
+    return count;
+  }
+
+  protected final void runTask(Runnable task)
+  {
+    if (logger.isDebugEnabled()) {
+      logger.debug("Starting Task {}", task);
+      long nanoTime = System.nanoTime();
+      task.run();
+      logger.debug("Finished Task {} after {}", task, System.nanoTime() - nanoTime);
+    }
+    else {
+      task.run();
     }
   }
 
@@ -709,7 +735,7 @@ public class DefaultEventLoop implements Runnable, EventLoop
   @Override
   public String toString()
   {
-    return "{id=" + id + ", " + tasks + '}';
+    return "{id=" + id + ", " + submitted + ", " + tasks + '}';
   }
 
   private static final Logger logger = LogManager.getLogger(DefaultEventLoop.class);
@@ -170,23 +170,8 @@ public class OptimizedEventLoop extends DefaultEventLoop
   private void runEventLoop(SelectedSelectionKeySet keys)
   {
     while (alive) {
-      int size = tasks.size();
       try {
-        if (size > 0) {
-          do {
-            Runnable task = tasks.pollUnsafe();
-            if (logger.isDebugEnabled()) {
-              logger.debug("Starting Task {}", task);
-              long nanoTime = System.nanoTime();
-              task.run();
-              logger.debug("Finished Task {} after {}", task, System.nanoTime() - nanoTime);
-            }
-            else {
-              task.run();
-            }
-          }
-          while (--size > 0);
-
+        if (runTasks() > 0) {
           if (selector.selectNow() == 0) {
             continue;
           }
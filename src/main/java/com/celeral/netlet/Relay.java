@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.celeral.utils.Throwables;
+
+import com.celeral.netlet.Listener.ClientListener;
+
+/**
+ * Relays the bytes between two connections in both the directions without copying them.
+ *
+ * The bytes read from one connection are written to the other connection out of the same buffer they were read
+ * into. While the bytes read from a connection can not be written to the other connection in their entirety, the
+ * reads on the former are suspended, so a slow reader on either side applies the back pressure to the writer on
+ * the other side. When one side closes its output, the output of the other side is shut down once all the bytes
+ * read before have been written. When both the sides are closed, both the connections are closed.
+ *
+ * Typically {@link #getInbound()} is returned from {@link Listener.ServerListener#getClientConnection} and
+ * {@link #getOutbound()} is connected to the destination using {@link EventLoop#connect}. Both the connections
+ * need to be registered with the same event loop as no synchronization is done between them.
+ *
+ * @since 2.0.0
+ */
+public class Relay
+{
+  private final Endpoint inbound;
+  private final Endpoint outbound;
+  private boolean closed;
+
+  public Relay()
+  {
+    this(64 * 1024);
+  }
+
+  public Relay(int bufferSize)
+  {
+    this(ByteBuffer.allocateDirect(bufferSize), ByteBuffer.allocateDirect(bufferSize));
+  }
+
+  /**
+   * Create a relay using the given buffers, which may be borrowed from a pool by the caller.
+   *
+   * @param inboundBuffer  buffer for the bytes flowing from the inbound connection to the outbound connection.
+   * @param outboundBuffer buffer for the bytes flowing from the outbound connection to the inbound connection.
+   */
+  public Relay(ByteBuffer inboundBuffer, ByteBuffer outboundBuffer)
+  {
+    inbound = new Endpoint(inboundBuffer, "inbound");
+    outbound = new Endpoint(outboundBuffer, "outbound");
+    inbound.peer = outbound;
+    outbound.peer = inbound;
+  }
+
+  public ClientListener getInbound()
+  {
+    return inbound;
+  }
+
+  public ClientListener getOutbound()
+  {
+    return outbound;
+  }
+
+  /**
+   * Close both the connections.
+   */
+  protected void close()
+  {
+    closed = true;
+    inbound.close();
+    outbound.close();
+  }
+
+  /**
+   * One of the two connections linked by the relay.
+   */
+  private class Endpoint implements ClientListener
+  {
+    /**
+     * The bytes read from this endpoint which are yet to be written to the peer; it is always in the drain mode.
+     */
+    private final ByteBuffer buffer;
+    private final String name;
+    private Endpoint peer;
+    private SelectionKey key;
+    private boolean connected;
+    private boolean eof;
+    private boolean outputShutdown;
+
+    Endpoint(ByteBuffer buffer, String name)
+    {
+      this.buffer = buffer;
+      this.name = name;
+      /* casting as a workaround for covarients in java9 */
+      ((Buffer)buffer).limit(0);
+    }
+
+    @Override
+    public void registered(SelectionKey key)
+    {
+      if (peer.key != null && peer.key.selector() != key.selector()) {
+        throw new IllegalStateException("Both the ends of " + Relay.this + " need to be on the same event loop!");
+      }
+      this.key = key;
+      if (closed) {
+        close();
+      }
+      else if (connected) {
+        transfer();
+      }
+    }
+
+    @Override
+    public void unregistered(SelectionKey key)
+    {
+    }
+
+    @Override
+    public void connected()
+    {
+      connected = true;
+      if (key != null) {
+        transfer();
+      }
+    }
+
+    @Override
+    public void disconnected()
+    {
+      connected = false;
+    }
+
+    @Override
+    public void read() throws IOException
+    {
+      /*
+       * the reads are suspended while there are pending bytes, but the key may have been selected before the
+       * suspension within the same round of selection.
+       */
+      if (buffer.hasRemaining()) {
+        return;
+      }
+
+      ((Buffer)buffer).clear();
+      final int read = ((SocketChannel)key.channel()).read(buffer);
+      ((Buffer)buffer).flip();
+      if (read < 0) {
+        eof = true;
+        interest(SelectionKey.OP_READ, false);
+      }
+      peer.transfer();
+    }
+
+    @Override
+    public void write() throws IOException
+    {
+      transfer();
+    }
+
+    /**
+     * Write the bytes read from the peer to this endpoint.
+     */
+    void transfer()
+    {
+      if (key == null || !connected || !key.isValid()) {
+        peer.interest(SelectionKey.OP_READ, false);
+        return;
+      }
+
+      final ByteBuffer source = peer.buffer;
+      if (source.hasRemaining()) {
+        try {
+          ((SocketChannel)key.channel()).write(source);
+        }
+        catch (IOException ex) {
+          handleException(ex, null);
+          return;
+        }
+
+        if (source.hasRemaining()) {
+          interest(SelectionKey.OP_WRITE, true);
+          peer.interest(SelectionKey.OP_READ, false);
+          return;
+        }
+      }
+
+      interest(SelectionKey.OP_WRITE, false);
+      if (!peer.eof) {
+        peer.interest(SelectionKey.OP_READ, true);
+      }
+      else if (!outputShutdown) {
+        outputShutdown = true;
+        try {
+          ((SocketChannel)key.channel()).shutdownOutput();
+        }
+        catch (IOException ex) {
+          handleException(ex, null);
+          return;
+        }
+
+        if (peer.outputShutdown) {
+          Relay.this.close();
+        }
+      }
+    }
+
+    void interest(int ops, boolean on)
+    {
+      if (key != null && key.isValid()) {
+        final int interestOps = key.interestOps();
+        if (on) {
+          if ((interestOps & ops) != ops) {
+            key.interestOps(interestOps | ops);
+          }
+        }
+        else if ((interestOps & ops) != 0) {
+          key.interestOps(interestOps & ~ops);
+        }
+      }
+    }
+
+    void close()
+    {
+      if (key != null && key.isValid()) {
+        try {
+          key.channel().close();
+        }
+        catch (IOException ex) {
+          logger.warn("exception while closing {}", this, ex);
+        }
+        finally {
+          key.attach(Listener.NOOP_CLIENT_LISTENER);
+          disconnected();
+        }
+      }
+    }
+
+    @Override
+    public void handleException(Exception exception, EventLoop eventloop)
+    {
+      if (exception instanceof IOException) {
+        logger.debug("closing {} due to exception on {}", Relay.this, name, exception);
+        Relay.this.close();
+      }
+      else {
+        throw Throwables.wrapIfChecked(exception);
+      }
+    }
+
+    @Override
+    public String toString()
+    {
+      return name + " of " + Relay.this;
+    }
+
+  }
+
+  private static final Logger logger = LogManager.getLogger(Relay.class);
+}
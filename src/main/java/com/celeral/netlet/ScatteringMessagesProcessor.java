@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Processor which receives the payloads of the large frames in the buffers it supplies instead of the read buffer.
+ *
+ * When a {@link AbstractFramingClient} implements this interface and the header of a frame whose payload is not
+ * yet fully received is decoded, the client asks for a destination for the payload using
+ * {@link #getPayloadBuffer(int)}. The part of the payload already received is copied into the destination and the
+ * rest of it is read from the socket straight into the destination with a scattering read. Once the payload is
+ * complete, it's delivered using {@link #onPayload(ByteBuffer, int)} instead of {@link #onMessage(byte[], int, int)}.
+ *
+ * The frames which are received in their entirety with a single read are delivered using
+ * {@link #onMessage(byte[], int, int)} as usual. The decoder of the client needs to be a
+ * {@link com.celeral.netlet.framing.ScatteringFrameDecoder}.
+ *
+ * @since 2.0.0
+ */
+public interface ScatteringMessagesProcessor extends MessagesProcessor
+{
+  /**
+   * Supply the destination for the payload of the frame.
+   *
+   * @param length the length of the payload.
+   * @return a buffer with at least length bytes remaining, or null to receive the frame in the read buffer.
+   */
+  ByteBuffer getPayloadBuffer(int length);
+
+  /**
+   * Process the payload which was read into the buffer returned by {@link #getPayloadBuffer(int)}.
+   *
+   * The payload occupies the length bytes preceding the position of the buffer. The limit of the buffer is
+   * left where it was when the buffer was supplied.
+   *
+   * @param buffer the buffer returned by {@link #getPayloadBuffer(int)}.
+   * @param length the length of the payload.
+   */
+  void onPayload(ByteBuffer buffer, int length);
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.celeral.netlet.util.PooledSlice;
+import com.celeral.netlet.util.Releasable;
+import com.celeral.netlet.util.Slice;
+import com.celeral.netlet.util.SlicePool;
+import com.celeral.utils.Throwables;
+
+/**
+ * Authenticated encryption of the messages of a session with AES-GCM.
+ *
+ * Unlike {@link CipherStatefulStreamCodec}, which is meant for the handshake, nothing is negotiated per message.
+ * The session keys are derived once, in {@link #initSession(byte[], boolean)}, and a {@link Cipher} instance
+ * per direction is reinitialized for every message with a nonce built from a counter. The counter is sent in
+ * the clear with each message so that the messages can still be decrypted when they are handed to different
+ * threads, and the messages with the counters already seen are rejected as replays.
+ *
+ * The encrypted message is laid out as the unencrypted type byte, the 8 byte counter and the ciphertext
+ * followed by the 16 byte authentication tag. The type byte is authenticated along with the message. Both
+ * the encrypted and the decrypted messages are written into the slices borrowed from a {@link SlicePool};
+ * the ones this codec decrypts are released once the underlying codec has deserialized them.
+ *
+ * Same as the other codecs, this one is not thread safe, so wrap it with
+ * {@link StatefulStreamCodec.Synchronized} if it's shared.
+ *
+ * @param <T> type of the objects serialized by this codec
+ *
+ * @since 2.0.0
+ */
+public class AeadStatefulStreamCodec<T> implements StatefulStreamCodec<T>
+{
+  public static final String AES_GCM_NO_PADDING = "AES/GCM/NoPadding";
+  public static final String HMAC_SHA256 = "HmacSHA256";
+  public static final int KEY_SIZE = 16;
+  public static final int NONCE_SIZE = 12;
+  public static final int TAG_SIZE = 16;
+  /**
+   * Number of the most recent counters remembered to reject replays; must be a power of 2.
+   */
+  public static final int REPLAY_WINDOW = 1024;
+
+  private static final int COUNTER_SIZE = 8;
+  private static final int HEADER_SIZE = 1 + COUNTER_SIZE;
+  private static final String INITIATOR_LABEL = "netlet initiator";
+  private static final String RESPONDER_LABEL = "netlet responder";
+
+  private final StatefulStreamCodec<T> codec;
+  private final SlicePool pool;
+
+  private Cipher encryption;
+  private SecretKey encryptionKey;
+  private final byte[] encryptionNonce = new byte[NONCE_SIZE];
+  private long sent;
+
+  private Cipher decryption;
+  private SecretKey decryptionKey;
+  private final byte[] decryptionNonce = new byte[NONCE_SIZE];
+  private final ReplayWindow received = new ReplayWindow();
+
+  public AeadStatefulStreamCodec(StatefulStreamCodec<T> codec)
+  {
+    this(codec, SlicePool.getDefault());
+  }
+
+  public AeadStatefulStreamCodec(StatefulStreamCodec<T> codec, SlicePool pool)
+  {
+    this.codec = codec;
+    this.pool = pool;
+  }
+
+  /**
+   * Derive the keys of both the directions from the secret shared by the peers, e.g. the one exchanged during
+   * the handshake, and start a new session with them. The peers agree on the direction of the keys by one of
+   * them being the initiator and the other one not. Since the counters start over with every session, the
+   * secret must not be reused across the sessions.
+   *
+   * @param secret secret shared by both the peers
+   * @param initiator true if this end initiated the session, false otherwise
+   */
+  public final void initSession(byte[] secret, boolean initiator)
+  {
+    SecretKey initiatorKey = deriveKey(secret, INITIATOR_LABEL);
+    SecretKey responderKey = deriveKey(secret, RESPONDER_LABEL);
+    if (initiator) {
+      initSession(initiatorKey, responderKey);
+    }
+    else {
+      initSession(responderKey, initiatorKey);
+    }
+  }
+
+  /**
+   * Start a new session with the given keys. The key used for encryption must not be used by the peer for its
+   * own encryption, as the counters of both the directions start at the same value.
+   *
+   * @param encryptionKey key to encrypt the outgoing messages with, null to leave them unencrypted
+   * @param decryptionKey key to decrypt the incoming messages with, null to leave them undecrypted
+   */
+  public final void initSession(SecretKey encryptionKey, SecretKey decryptionKey)
+  {
+    this.encryption = encryptionKey == null ? null : getCipher();
+    this.encryptionKey = encryptionKey;
+    this.sent = 0;
+
+    this.decryption = decryptionKey == null ? null : getCipher();
+    this.decryptionKey = decryptionKey;
+    this.received.reset();
+  }
+
+  /**
+   * Derive an AES key from the secret using HMAC-SHA256 keyed with it over the label.
+   *
+   * @param secret the secret the key is derived from
+   * @param label distinguishes the keys derived from the same secret
+   * @return AES key
+   */
+  public static SecretKey deriveKey(byte[] secret, String label)
+  {
+    try {
+      Mac mac = Mac.getInstance(HMAC_SHA256);
+      mac.init(new SecretKeySpec(secret, HMAC_SHA256));
+      byte[] bytes = mac.doFinal(label.getBytes(StandardCharsets.UTF_8));
+      return new SecretKeySpec(bytes, 0, KEY_SIZE, "AES");
+    }
+    catch (NoSuchAlgorithmException | InvalidKeyException ex) {
+      throw Throwables.throwFormatted(ex, RuntimeException.class, "Unable to derive the key {}", label);
+    }
+  }
+
+  private static Cipher getCipher()
+  {
+    try {
+      return Cipher.getInstance(AES_GCM_NO_PADDING);
+    }
+    catch (NoSuchAlgorithmException | NoSuchPaddingException ex) {
+      throw Throwables.throwFormatted(ex, RuntimeException.class, "Unable to create an instance of {}", AES_GCM_NO_PADDING);
+    }
+  }
+
+  @Override
+  public DataStatePair toDataStatePair(T o)
+  {
+    DataStatePair pair = codec.toDataStatePair(o);
+    try {
+      /* the state is written ahead of the data, so it's encrypted first to keep the counters in their order */
+      if (pair.state != null) {
+        pair.state = seal(pair.state);
+      }
+      pair.data = seal(pair.data);
+      return pair;
+    }
+    catch (GeneralSecurityException ex) {
+      pair.release();
+      throw new RuntimeException(ex);
+    }
+  }
+
+  @Override
+  public Object fromDataStatePair(DataStatePair pair)
+  {
+    Slice state = null;
+    Slice data = null;
+    try {
+      if (pair.state != null) {
+        pair.state = state = open(pair.state);
+      }
+      pair.data = data = open(pair.data);
+      return codec.fromDataStatePair(pair);
+    }
+    catch (GeneralSecurityException ex) {
+      throw Throwables.throwSneaky(ex);
+    }
+    finally {
+      if (decryption != null) {
+        release(state);
+        release(data);
+      }
+    }
+  }
+
+  private static void release(Slice slice)
+  {
+    if (slice instanceof Releasable) {
+      ((Releasable)slice).release();
+    }
+  }
+
+  /**
+   * Encrypt the message into a pooled slice and release the message if it's releasable.
+   */
+  private Slice seal(Slice slice) throws GeneralSecurityException
+  {
+    if (encryption == null) {
+      return slice;
+    }
+
+    if (sent == Long.MAX_VALUE) {
+      throw new IllegalStateException("Exhausted the nonces of the session, start a new one!");
+    }
+    final long counter = ++sent;
+
+    final int length = slice.length - 1;
+    final PooledSlice sealed = pool.allocate(HEADER_SIZE + length + TAG_SIZE);
+    try {
+      final byte[] buffer = sealed.buffer;
+      buffer[0] = slice.buffer[slice.offset];
+      writeCounter(counter, buffer, 1);
+      writeCounter(counter, encryptionNonce, NONCE_SIZE - COUNTER_SIZE);
+
+      encryption.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_SIZE * 8, encryptionNonce));
+      encryption.updateAAD(buffer, 0, 1);
+      sealed.length = HEADER_SIZE + encryption.doFinal(slice.buffer, slice.offset + 1, length, buffer, HEADER_SIZE);
+    }
+    catch (GeneralSecurityException | RuntimeException ex) {
+      sealed.release();
+      throw ex;
+    }
+
+    release(slice);
+    return sealed;
+  }
+
+  /**
+   * Decrypt the message into a pooled slice, leaving the message as it is.
+   */
+  private Slice open(Slice slice) throws GeneralSecurityException
+  {
+    if (decryption == null) {
+      return slice;
+    }
+
+    if (slice.length < HEADER_SIZE + TAG_SIZE) {
+      throw new AEADBadTagException("Message of " + slice.length + " bytes is too short to be authenticated");
+    }
+
+    final long counter = readCounter(slice.buffer, slice.offset + 1);
+    writeCounter(counter, decryptionNonce, NONCE_SIZE - COUNTER_SIZE);
+
+    final PooledSlice opened = pool.allocate(slice.length - HEADER_SIZE - TAG_SIZE + 1);
+    try {
+      opened.buffer[0] = slice.buffer[slice.offset];
+      decryption.init(Cipher.DECRYPT_MODE, decryptionKey, new GCMParameterSpec(TAG_SIZE * 8, decryptionNonce));
+      decryption.updateAAD(slice.buffer, slice.offset, 1);
+      opened.length = 1 + decryption.doFinal(slice.buffer, slice.offset + HEADER_SIZE, slice.length - HEADER_SIZE, opened.buffer, 1);
+
+      /* only the authenticated counters are trusted to move the window */
+      if (!received.accept(counter)) {
+        throw Throwables.throwFormatted(SecurityException.class, "Rejected the replayed message {}!", counter);
+      }
+    }
+    catch (GeneralSecurityException | RuntimeException ex) {
+      opened.release();
+      throw ex;
+    }
+
+    return opened;
+  }
+
+  private static void writeCounter(long counter, byte[] buffer, int offset)
+  {
+    for (int i = offset + COUNTER_SIZE; i-- > offset;) {
+      buffer[i] = (byte)counter;
+      counter >>>= 8;
+    }
+  }
+
+  private static long readCounter(byte[] buffer, int offset)
+  {
+    long counter = 0;
+    for (int i = offset; i < offset + COUNTER_SIZE; i++) {
+      counter = counter << 8 | buffer[i] & 0xff;
+    }
+    return counter;
+  }
+
+  @Override
+  public void resetState()
+  {
+    codec.resetState();
+  }
+
+  /**
+   * Remembers which of the last {@link #REPLAY_WINDOW} counters were received, so that the messages decrypted
+   * out of order are accepted once each and the older ones are not accepted at all.
+   */
+  static class ReplayWindow
+  {
+    private final long[] bits = new long[REPLAY_WINDOW / Long.SIZE];
+    private long highest;
+
+    void reset()
+    {
+      Arrays.fill(bits, 0);
+      highest = 0;
+    }
+
+    boolean accept(long counter)
+    {
+      if (counter > highest) {
+        if (counter - highest >= REPLAY_WINDOW) {
+          Arrays.fill(bits, 0);
+        }
+        else {
+          for (long skipped = highest + 1; skipped < counter; skipped++) {
+            bits[index(skipped)] &= ~mask(skipped);
+          }
+        }
+        bits[index(counter)] |= mask(counter);
+        highest = counter;
+        return true;
+      }
+
+      if (counter <= 0 || highest - counter >= REPLAY_WINDOW || (bits[index(counter)] & mask(counter)) != 0) {
+        return false;
+      }
+
+      bits[index(counter)] |= mask(counter);
+      return true;
+    }
+
+    private static int index(long counter)
+    {
+      return (int)(counter & (REPLAY_WINDOW - 1)) >>> 6;
+    }
+
+    private static long mask(long counter)
+    {
+      return 1L << counter;
+    }
+
+  }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+
+import com.celeral.netlet.util.Releasable;
+import com.celeral.netlet.util.Slice;
+
+/**
+ * Queue of the frames of an object streamed in chunks by {@link DefaultStatefulStreamCodec#toChunks}, which are
+ * offered as they are read from the connection and taken by {@link DefaultStatefulStreamCodec#fromChunks} as it
+ * deserializes the object on another thread.
+ *
+ * The frames are accepted as long as they arrive but once the bytes queued reach the capacity, the reader is asked
+ * to stop reading; it's asked to resume once the deserializer has taken half of them. So the memory needed to
+ * deserialize the object does not depend on its size as long as the reader stops when asked to.
+ *
+ * @since 2.0.0
+ */
+public class ChunkQueue
+{
+  private final ArrayDeque<Slice> frames = new ArrayDeque<>();
+  private final int capacity;
+  private final Runnable suspend;
+  private final Runnable resume;
+  private int queued;
+  private boolean suspended;
+  private boolean finished;
+  private IOException aborted;
+
+  /**
+   * @param capacity number of the bytes queued after which the reader is suspended
+   * @param suspend asks the reader to stop reading, called on the thread which offers the frames
+   * @param resume asks the reader to resume reading, called on the thread which takes the frames
+   */
+  public ChunkQueue(int capacity, Runnable suspend, Runnable resume)
+  {
+    this.capacity = capacity;
+    this.suspend = suspend;
+    this.resume = resume;
+  }
+
+  /**
+   * Queue the frame of the object, i.e. a chunk of its data or a state preceding the chunks which depend on it.
+   *
+   * @param frame frame read from the connection
+   * @return true if the frame is the last chunk of the object, false otherwise
+   */
+  public synchronized boolean offer(Slice frame)
+  {
+    if (finished) {
+      throw new IllegalStateException("Offered " + frame + " after the last chunk!");
+    }
+
+    /* the last chunk is either the one without the partial flag or the empty one which aborts the object */
+    final byte type = frame.buffer[frame.offset];
+    finished = StatefulStreamCodec.MessageType.valueOf(type) == StatefulStreamCodec.MessageType.DATA
+               && ((type & StatefulStreamCodec.MessageType.PARTIAL) == 0 || frame.length == 1);
+
+    frames.add(frame);
+    queued += frame.length;
+    if (!suspended && queued >= capacity) {
+      suspended = true;
+      suspend.run();
+    }
+    notifyAll();
+    return finished;
+  }
+
+  /**
+   * Make the deserializer fail instead of waiting for the rest of the chunks, e.g. when the connection is closed.
+   *
+   * @param reason why the chunks are not coming
+   */
+  public synchronized void abort(String reason)
+  {
+    if (aborted == null) {
+      aborted = new IOException(reason);
+    }
+    notifyAll();
+  }
+
+  /**
+   * Take the next frame, waiting for it to arrive.
+   *
+   * @return the frame
+   * @throws IOException if the queue was aborted or the thread was interrupted while waiting
+   */
+  synchronized Slice take() throws IOException
+  {
+    while (frames.isEmpty()) {
+      if (aborted != null) {
+        throw aborted;
+      }
+
+      try {
+        wait();
+      }
+      catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the chunk");
+      }
+    }
+
+    final Slice frame = frames.poll();
+    queued -= frame.length;
+    if (suspended && queued <= capacity / 2) {
+      suspended = false;
+      resume.run();
+    }
+    return frame;
+  }
+
+  /**
+   * Release the frames which will not be taken.
+   */
+  synchronized void clear()
+  {
+    for (Slice frame : frames) {
+      if (frame instanceof Releasable) {
+        ((Releasable)frame).release();
+      }
+    }
+    frames.clear();
+    queued = 0;
+    if (suspended) {
+      suspended = false;
+      resume.run();
+    }
+  }
+
+}
@@ -37,6 +37,7 @@ import javax.crypto.spec.SecretKeySpec;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.celeral.netlet.util.Releasable;
 import com.celeral.netlet.util.Slice;
 import com.celeral.netlet.util.VarInt;
 import com.celeral.utils.Throwables;
@@ -158,9 +159,9 @@ public class CipherStatefulStreamCodec<T> implements StatefulStreamCodec<T>
     try {
       DataStatePair pair = codec.toDataStatePair(o);
 //      CipherStatefulStreamCodec.logPair("clr", pair);
-      pair.data = CipherStatefulStreamCodec.doFinal(Cipher.ENCRYPT_MODE, encryption, pair.data);
+      pair.data = encrypt(pair.data);
       if (pair.state != null) {
-        pair.state = CipherStatefulStreamCodec.doFinal(Cipher.ENCRYPT_MODE, encryption, pair.state);
+        pair.state = encrypt(pair.state);
       }
 //      CipherStatefulStreamCodec.logPair("enc", pair);
       return pair;
@@ -170,6 +171,24 @@ public class CipherStatefulStreamCodec<T> implements StatefulStreamCodec<T>
     }
   }
 
+  /**
+   * Encrypt the slice into a new one. The encrypted slice replaces the array of the slice it's given, so the
+   * slices whose arrays belong to someone else are copied and released instead.
+   */
+  private Slice encrypt(Slice slice) throws IllegalBlockSizeException, BadPaddingException, ShortBufferException
+  {
+    if (encryption == null || !(slice instanceof Releasable)) {
+      return CipherStatefulStreamCodec.doFinal(Cipher.ENCRYPT_MODE, encryption, slice);
+    }
+
+    try {
+      return CipherStatefulStreamCodec.doFinal(Cipher.ENCRYPT_MODE, encryption, new Slice(slice.buffer, slice.offset, slice.length));
+    }
+    finally {
+      ((Releasable)slice).release();
+    }
+  }
+
   private static void logPair(String annotation, DataStatePair pair)
   {
     logger.info("{} pair = {}, data = {}-{}, state = {}-{}",
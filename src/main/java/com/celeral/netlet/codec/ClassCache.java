@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide cache of the classes loaded by their names, shared by all the codecs so that the classes named
+ * in the state received by every new connection are not looked up again and again.
+ *
+ * The classes are cached separately for each class loader which loads them. Neither the class loaders nor the
+ * classes are held strongly, so caching them does not prevent them from being unloaded.
+ *
+ * @since 2.0.0
+ */
+public final class ClassCache
+{
+  private static final Map<ClassLoader, ConcurrentHashMap<String, WeakReference<Class<?>>>> loaders = new WeakHashMap<>();
+  /**
+   * Classes of the bootstrap class loader, which is represented by null and never goes away.
+   */
+  private static final ConcurrentHashMap<String, WeakReference<Class<?>>> bootstrap = new ConcurrentHashMap<>();
+  /**
+   * The loader most recently looked up, which is almost always the one looked up next.
+   */
+  private static volatile Scope last;
+
+  private ClassCache()
+  {
+  }
+
+  /**
+   * Get the class with the given name, loading it the same way as {@link Class#forName(String, boolean, ClassLoader)}
+   * without initializing it, the first time it's asked for with the given loader.
+   *
+   * @param name fully qualified name of the class
+   * @param loader loader of the class, null for the bootstrap class loader
+   * @return the class
+   * @throws ClassNotFoundException if the class cannot be located by the loader; not cached
+   */
+  public static Class<?> forName(String name, ClassLoader loader) throws ClassNotFoundException
+  {
+    final ConcurrentHashMap<String, WeakReference<Class<?>>> classes = getClasses(loader);
+
+    final WeakReference<Class<?>> reference = classes.get(name);
+    if (reference != null) {
+      final Class<?> type = reference.get();
+      if (type != null) {
+        return type;
+      }
+    }
+
+    final Class<?> type = Class.forName(name, false, loader);
+    classes.put(name, new WeakReference<>(type));
+    return type;
+  }
+
+  private static ConcurrentHashMap<String, WeakReference<Class<?>>> getClasses(ClassLoader loader)
+  {
+    if (loader == null) {
+      return bootstrap;
+    }
+
+    final Scope scope = last;
+    if (scope != null && scope.loader.get() == loader) {
+      return scope.classes;
+    }
+
+    ConcurrentHashMap<String, WeakReference<Class<?>>> classes;
+    synchronized (loaders) {
+      classes = loaders.get(loader);
+      if (classes == null) {
+        loaders.put(loader, classes = new ConcurrentHashMap<>());
+      }
+    }
+
+    last = new Scope(loader, classes);
+    return classes;
+  }
+
+  /**
+   * Forget all the cached classes.
+   */
+  public static void clear()
+  {
+    synchronized (loaders) {
+      loaders.clear();
+    }
+    bootstrap.clear();
+    last = null;
+  }
+
+  private static class Scope
+  {
+    final WeakReference<ClassLoader> loader;
+    final ConcurrentHashMap<String, WeakReference<Class<?>>> classes;
+
+    Scope(ClassLoader loader, ConcurrentHashMap<String, WeakReference<Class<?>>> classes)
+    {
+      this.loader = new WeakReference<>(loader);
+      this.classes = classes;
+    }
+
+  }
+
+}
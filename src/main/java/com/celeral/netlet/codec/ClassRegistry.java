@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Classes which the peers agree to register up front, in the same order, so that their registrations do not need
+ * to be sent along with the objects the first time they are used on each connection and again after every reset.
+ *
+ * The peers register the same registry with {@link DefaultStatefulStreamCodec#register(ClassRegistry)} and
+ * exchange its fingerprint in place of the registrations to make sure they agree on the ids of the classes.
+ *
+ * @since 2.0.0
+ */
+public final class ClassRegistry
+{
+  private final List<Class<?>> classes;
+  private final byte[] digest;
+
+  public ClassRegistry(Class<?>... classes)
+  {
+    this(Arrays.asList(classes));
+  }
+
+  public ClassRegistry(List<Class<?>> classes)
+  {
+    this.classes = Collections.unmodifiableList(new ArrayList<>(classes));
+
+    MessageDigest sha = newDigest();
+    for (Class<?> type : this.classes) {
+      sha.update(type.getName().getBytes(StandardCharsets.UTF_8));
+      sha.update((byte)0);
+    }
+    this.digest = sha.digest();
+  }
+
+  /**
+   * @return the classes in the order they are registered.
+   */
+  public List<Class<?>> getClasses()
+  {
+    return classes;
+  }
+
+  /**
+   * Get the fingerprint of the registry registered by a codec starting at the given registration id.
+   *
+   * @param firstId the id the codec registers the first class of the registry with
+   * @return the fingerprint which is the same for the same classes registered starting at the same id
+   */
+  public long getFingerprint(int firstId)
+  {
+    MessageDigest sha = newDigest();
+    sha.update(digest);
+    sha.update(new byte[]{(byte)(firstId >>> 24), (byte)(firstId >>> 16), (byte)(firstId >>> 8), (byte)firstId});
+    byte[] bytes = sha.digest();
+
+    long fingerprint = 0;
+    for (int i = 0; i < 8; i++) {
+      fingerprint = fingerprint << 8 | bytes[i] & 0xff;
+    }
+    return fingerprint;
+  }
+
+  private static MessageDigest newDigest()
+  {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ClassRegistry{" + "classes=" + classes + '}';
+  }
+
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.celeral.netlet.util.PooledSlice;
+import com.celeral.netlet.util.Releasable;
+import com.celeral.netlet.util.Slice;
+import com.celeral.netlet.util.SlicePool;
+import com.celeral.netlet.util.VarInt;
+
+/**
+ * Compresses the messages serialized by another codec with DEFLATE.
+ *
+ * Only the messages whose payload is at least as long as the threshold are compressed, and only if they shrink.
+ * The compressed messages are marked with {@link MessageType#COMPRESSED} in their type byte, which is followed by
+ * the length of the uncompressed payload and the raw DEFLATE stream. The other messages are passed through as
+ * they are, so the peer can decompress them without knowing the threshold.
+ *
+ * The compression ratio of the small and repetitive messages improves considerably with a preset dictionary,
+ * e.g. the one created by {@link #newDictionary(Iterable, int)} from the sample traffic. Both the ends must use
+ * the same dictionary.
+ *
+ * The {@link Deflater} and the {@link Inflater} are created once and reset for every message, and the messages
+ * are compressed and decompressed into the slices borrowed from a {@link SlicePool}. To combine it with
+ * encryption, compress first, i.e. wrap this codec with the encrypting one, as the encrypted messages do not
+ * compress. Both {@link CipherStatefulStreamCodec} and {@link AeadStatefulStreamCodec} leave the type byte as
+ * it is.
+ *
+ * Same as the other codecs, this one is not thread safe, so wrap it with
+ * {@link StatefulStreamCodec.Synchronized} if it's shared.
+ *
+ * @param <T> type of the objects serialized by this codec
+ *
+ * @since 2.0.0
+ */
+public class CompressingStatefulStreamCodec<T> implements StatefulStreamCodec<T>
+{
+  public static final int DEFAULT_THRESHOLD = 512;
+  /**
+   * The largest dictionary which DEFLATE can refer to.
+   */
+  public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+  /**
+   * The default length of the largest message which is decompressed.
+   */
+  public static final int DEFAULT_MAX_MESSAGE_SIZE = 16 << 20;
+
+  private final StatefulStreamCodec<T> codec;
+  private final SlicePool pool;
+  private final int threshold;
+  private final byte[] dictionary;
+  private final Deflater deflater;
+  private final Inflater inflater;
+  private final VarInt.MutableInt offset = new VarInt.MutableInt();
+  private int maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
+
+  public CompressingStatefulStreamCodec(StatefulStreamCodec<T> codec)
+  {
+    this(codec, DEFAULT_THRESHOLD, Deflater.DEFAULT_COMPRESSION, null, SlicePool.getDefault());
+  }
+
+  /**
+   * @param codec codec which serializes the objects
+   * @param threshold the least length of the payload worth compressing
+   * @param level compression level of the {@link Deflater}
+   * @param dictionary preset dictionary shared with the peer, null if none
+   * @param pool pool of the slices into which the messages are compressed and decompressed
+   */
+  public CompressingStatefulStreamCodec(StatefulStreamCodec<T> codec, int threshold, int level, byte[] dictionary, SlicePool pool)
+  {
+    this.codec = codec;
+    this.threshold = threshold;
+    this.dictionary = dictionary;
+    this.pool = pool;
+    this.deflater = new Deflater(level, true);
+    this.inflater = new Inflater(true);
+  }
+
+  public int getMaxMessageSize()
+  {
+    return maxMessageSize;
+  }
+
+  /**
+   * Set the length of the largest message the peer is allowed to send compressed. The length of the uncompressed
+   * message comes from the peer, so the messages claiming to be longer are rejected before anything is allocated.
+   *
+   * @param maxMessageSize the largest length of the uncompressed payload
+   */
+  public void setMaxMessageSize(int maxMessageSize)
+  {
+    if (maxMessageSize <= 0) {
+      throw new IllegalArgumentException("Max message size needs to be positive instead of " + maxMessageSize);
+    }
+    this.maxMessageSize = maxMessageSize;
+  }
+
+  /**
+   * Create a preset dictionary from the sample messages. DEFLATE finds the closer matches cheaper, so the
+   * samples are laid out in the order they are given, with the last ones at the end of the dictionary. The
+   * identical samples are included only once, and the ones which do not fit are dropped from the front.
+   *
+   * @param samples messages serialized by the codec which is going to be wrapped, the most typical ones last
+   * @param size the maximum size of the dictionary, at most {@link #MAX_DICTIONARY_SIZE}
+   * @return the dictionary
+   */
+  public static byte[] newDictionary(Iterable<Slice> samples, int size)
+  {
+    ArrayList<Slice> unique = new ArrayList<>();
+    HashSet<Slice> seen = new HashSet<>();
+    for (Slice sample : samples) {
+      /* leave the type byte out as it's not compressed */
+      Slice payload = new Slice(sample.buffer, sample.offset + 1, sample.length - 1);
+      if (seen.add(payload)) {
+        unique.add(payload);
+      }
+    }
+
+    size = Math.min(size, MAX_DICTIONARY_SIZE);
+    int length = 0;
+    int first = unique.size();
+    while (first > 0 && length + unique.get(first - 1).length <= size) {
+      length += unique.get(--first).length;
+    }
+
+    byte[] dictionary = new byte[length];
+    length = 0;
+    for (Slice payload : unique.subList(first, unique.size())) {
+      System.arraycopy(payload.buffer, payload.offset, dictionary, length, payload.length);
+      length += payload.length;
+    }
+    return dictionary;
+  }
+
+  @Override
+  public DataStatePair toDataStatePair(T o)
+  {
+    DataStatePair pair = codec.toDataStatePair(o);
+    if (pair.state != null) {
+      pair.state = compress(pair.state);
+    }
+    pair.data = compress(pair.data);
+    return pair;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalArgumentException if a compressed message is malformed, claims to be longer than
+   * {@link #getMaxMessageSize()} or does not decompress to the length it claims; the cause is the
+   * {@link DataFormatException} describing the problem.
+   */
+  @Override
+  public Object fromDataStatePair(DataStatePair pair)
+  {
+    /* only the slices decompressed here are released, the others belong to the caller */
+    Slice state = null;
+    Slice data = null;
+    try {
+      if (pair.state != null) {
+        Slice decompressed = decompress(pair.state);
+        if (decompressed != pair.state) {
+          pair.state = state = decompressed;
+        }
+      }
+      Slice decompressed = decompress(pair.data);
+      if (decompressed != pair.data) {
+        pair.data = data = decompressed;
+      }
+      return codec.fromDataStatePair(pair);
+    }
+    catch (DataFormatException ex) {
+      throw new IllegalArgumentException("Malformed compressed message!", ex);
+    }
+    finally {
+      if (state != null) {
+        ((Releasable)state).release();
+      }
+      if (data != null) {
+        ((Releasable)data).release();
+      }
+    }
+  }
+
+  /**
+   * Compress the message into a pooled slice if it's long enough and shrinks, and release the message if so.
+   */
+  private Slice compress(Slice slice)
+  {
+    final int length = slice.length - 1;
+    if (length < threshold || length == 0) {
+      return slice;
+    }
+
+    /* anything longer than the message as it is does not pay off */
+    final PooledSlice compressed = pool.allocate(slice.length);
+    final byte[] buffer = compressed.buffer;
+    buffer[0] = (byte)(slice.buffer[slice.offset] | MessageType.COMPRESSED);
+    final int start = VarInt.write(length, buffer, 1);
+
+    deflater.reset();
+    if (dictionary != null) {
+      deflater.setDictionary(dictionary);
+    }
+    deflater.setInput(slice.buffer, slice.offset + 1, length);
+    deflater.finish();
+    final int size = deflater.deflate(buffer, start, slice.length - start);
+    if (!deflater.finished()) {
+      compressed.release();
+      return slice;
+    }
+
+    compressed.length = start + size;
+    if (slice instanceof Releasable) {
+      ((Releasable)slice).release();
+    }
+    return compressed;
+  }
+
+  /**
+   * Decompress the message into a pooled slice if it's compressed, leaving the message as it is.
+   */
+  private Slice decompress(Slice slice) throws DataFormatException
+  {
+    final byte type = slice.buffer[slice.offset];
+    if ((type & MessageType.COMPRESSED) == 0) {
+      return slice;
+    }
+
+    final int limit = slice.offset + slice.length;
+    final int length = VarInt.read(slice.buffer, slice.offset + 1, limit, offset);
+    if (offset.integer <= 0 || length < 0) {
+      throw new DataFormatException("Invalid length of the compressed message!");
+    }
+    if (length > maxMessageSize) {
+      throw new DataFormatException("Compressed message of " + length + " bytes is longer than " + maxMessageSize + " bytes!");
+    }
+
+    /* an extra byte lets the inflater reach the end of the stream and reveals the messages which are longer */
+    final PooledSlice decompressed = pool.allocate(length + 2);
+    try {
+      decompressed.buffer[0] = (byte)(type & ~MessageType.COMPRESSED);
+
+      inflater.reset();
+      if (dictionary != null) {
+        inflater.setDictionary(dictionary);
+      }
+      inflater.setInput(slice.buffer, offset.integer, limit - offset.integer);
+      if (inflater.inflate(decompressed.buffer, 1, length + 1) != length || !inflater.finished()
+          || inflater.getRemaining() != 0) {
+        throw new DataFormatException("Compressed message does not decompress to " + length + " bytes!");
+      }
+      decompressed.length = length + 1;
+    }
+    catch (DataFormatException | RuntimeException ex) {
+      decompressed.release();
+      throw ex;
+    }
+
+    return decompressed;
+  }
+
+  @Override
+  public void resetState()
+  {
+    codec.resetState();
+  }
+
+}
@@ -19,13 +19,23 @@
 package com.celeral.netlet.codec;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import com.celeral.utils.Throwables;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.util.DefaultClassResolver;
@@ -34,7 +44,11 @@ import com.esotericsoftware.kryo.util.MapReferenceResolver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.celeral.netlet.framing.FrameEncoder;
+import com.celeral.netlet.util.PooledSlice;
+import com.celeral.netlet.util.Releasable;
 import com.celeral.netlet.util.Slice;
+import com.celeral.netlet.util.SlicePool;
 
 /**
  * Default implementation of the StreamCodec.
@@ -53,6 +67,9 @@ public class DefaultStatefulStreamCodec<T> extends Kryo implements StatefulStrea
   private final Output data;
   private final Output state;
   private final Input input;
+  private final Output frame;
+  private SlicePool slicePool;
+  private int frameSizeHint = 256;
 
   @SuppressWarnings("OverridableMethodCallInConstructor")
   public DefaultStatefulStreamCodec()
@@ -61,6 +78,7 @@ public class DefaultStatefulStreamCodec<T> extends Kryo implements StatefulStrea
     data = new Output(4096, Integer.MAX_VALUE);
     state = new Output(4096, Integer.MAX_VALUE);
     input = new Input();
+    frame = new Output();
 
     register(Class.class);
     register(ClassIdPair.class);
@@ -75,16 +93,7 @@ public class DefaultStatefulStreamCodec<T> extends Kryo implements StatefulStrea
   {
     if (dspair.state != null) {
       try {
-        input.setBuffer(dspair.state.buffer, dspair.state.offset, dspair.state.length);
-
-        /* read the first byte which is just MessageType.STATE.value */
-        if (input.readByte() != MessageType.STATE.value) {
-          logger.warn("Rewinding buffer as the magic value at the head of the state buffer is missing: {}", dspair.state);
-          input.rewind();
-        }
-
-        while (input.position() < input.limit()) {
-          ClassIdPair pair = (ClassIdPair)readClassAndObject(input);
+        for (ClassIdPair pair : readState(dspair.state)) {
           classResolver.registerExplicit(pair);
         }
       }
@@ -96,20 +105,67 @@ public class DefaultStatefulStreamCodec<T> extends Kryo implements StatefulStrea
       }
     }
 
-    input.setBuffer(dspair.data.buffer, dspair.data.offset, dspair.data.length);
+    try {
+      return readData(dspair.data);
+    }
+    catch (Exception ex) {
+      throw writeDebuggingData(dspair, ex);
+    }
+  }
+
+  /**
+   * Deserialize the class registrations without registering them.
+   *
+   * @param state slice containing the serialized registrations
+   * @return the registrations
+   */
+  List<ClassIdPair> readState(Slice state)
+  {
+    input.setBuffer(state.buffer, state.offset, state.length);
+    final ArrayList<ClassIdPair> classIdPairs = new ArrayList<>();
+
+    /* read the first byte which is just MessageType.STATE.value */
+    final byte type = input.readByte();
+    if (type == (MessageType.STATE.value | MessageType.PARTIAL)) {
+      while (input.position() < input.limit()) {
+        final int id = input.readVarInt(false);
+        classIdPairs.add(new ClassIdPair(id, input.readString()));
+      }
+      return classIdPairs;
+    }
 
-    /* read the first byte which is just MessageType.DATA.value */
-    if (input.readByte() != MessageType.DATA.value) {
-      logger.warn("Rewinding buffer as the magic value at the head of the data buffer is missing: {}", dspair.data);
+    if (type != MessageType.STATE.value) {
+      logger.warn("Rewinding buffer as the magic value at the head of the state buffer is missing: {}", state);
       input.rewind();
     }
 
-    try {
-      return readClassAndObject(input);
+    while (input.position() < input.limit()) {
+      classIdPairs.add((ClassIdPair)readClassAndObject(input));
     }
-    catch (Exception ex) {
-      throw writeDebuggingData(dspair, ex);
+    return classIdPairs;
+  }
+
+  /**
+   * Deserialize the object.
+   *
+   * @param data slice containing the serialized object
+   * @return the object
+   */
+  Object readData(Slice data)
+  {
+    if (classResolver.fingerprint != null && !classResolver.verified && classResolver.received == null) {
+      throw new IllegalStateException("Peer did not send the fingerprint of its class registry before the data!");
     }
+
+    input.setBuffer(data.buffer, data.offset, data.length);
+
+    /* read the first byte which is just MessageType.DATA.value */
+    if (input.readByte() != MessageType.DATA.value) {
+      logger.warn("Rewinding buffer as the magic value at the head of the data buffer is missing: {}", data);
+      input.rewind();
+    }
+
+    return readClassAndObject(input);
   }
 
   @SuppressWarnings("UseSpecificCatch")
@@ -136,37 +192,494 @@ public class DefaultStatefulStreamCodec<T> extends Kryo implements StatefulStrea
   public DataStatePair toDataStatePair(T o)
   {
     DataStatePair pair = new DataStatePair();
-    data.setPosition(0);
-    /* code the first byte to signify that we have written data */
-    data.writeByte(MessageType.DATA.value);
-
-    writeClassAndObject(data, o);
+    pair.data = writeData(o, null);
+    if (!pairs.isEmpty()) {
+      pair.state = writeState(pairs, null);
+      pairs.clear();
+    }
+    return pair;
+  }
 
+  /**
+   * Serialize the object straight into the slices which hold the complete frames as written by the given encoder,
+   * so they can be queued for sending without copying, e.g. using
+   * {@link com.celeral.netlet.AbstractFramingClient#writeFrame(Slice)}.
+   *
+   * The slices are borrowed from the pool set using {@link #setSlicePool(SlicePool)}, or from the default pool if
+   * none is set, and need to be released. The room for the largest header is reserved in front of the payload and
+   * the header is written right before the payload once the size of the payload is known. The payload is copied
+   * only if it outgrows the slice it's serialized into.
+   *
+   * @param o      object to be serialized
+   * @param encoder encoder of the frames
+   * @return the pair whose slices are frames instead of the bare payloads returned by {@link #toDataStatePair}
+   * @since 2.0.0
+   */
+  public DataStatePair toFramedDataStatePair(T o, FrameEncoder encoder)
+  {
+    final DataStatePair pair = new DataStatePair();
+    pair.data = writeData(o, encoder);
     if (!pairs.isEmpty()) {
+      pair.state = writeState(pairs, encoder);
+      pairs.clear();
+    }
+    return pair;
+  }
+
+  /**
+   * Serialize the object into the chunks of at most the given size as it's being serialized, so that the whole
+   * serialized object is never in memory at once. The chunks are handed to the consumer as soon as they are full.
+   *
+   * Each of the chunks but the last one has {@link MessageType#PARTIAL} set in its type byte, and the registrations
+   * of the classes are handed over as the states ahead of the chunks which use them. The states are flagged partial
+   * too as they are encoded without kryo, which {@link #fromDataStatePair} understands as well. So an object which
+   * fits in a single chunk is received the same way as the one serialized by {@link #toDataStatePair}. If the
+   * serialization fails after some chunks are handed over, an empty partial chunk is handed over to abort the object.
+   *
+   * The chunks are bare payloads borrowed from the pool set using {@link #setSlicePool(SlicePool)} if any; the
+   * consumer needs to release them once they are written.
+   *
+   * @param o object to be serialized
+   * @param chunkSize the largest number of the bytes of the serialized object in a chunk, at least 64
+   * @param consumer consumer of the chunks and the states, in the order they need to be delivered
+   * @since 2.0.0
+   */
+  public void toChunks(T o, int chunkSize, Consumer<Slice> consumer)
+  {
+    if (chunkSize < MIN_CHUNK_SIZE) {
+      throw new IllegalArgumentException("Chunk size " + chunkSize + " is smaller than " + MIN_CHUNK_SIZE);
+    }
+
+    if (chunk == null || chunk.getBuffer().length != chunkSize) {
+      chunk = new Output(chunkSize, chunkSize);
+    }
+    final ChunkOutputStream stream = new ChunkOutputStream(consumer);
+    chunk.setOutputStream(stream);
+    try {
+      writeClassAndObject(chunk, o);
+      chunk.flush();
+      stream.finish();
+    }
+    catch (RuntimeException ex) {
+      try {
+        stream.abort();
+      }
+      catch (RuntimeException suppressed) {
+        ex.addSuppressed(suppressed);
+      }
+      throw ex;
+    }
+    finally {
+      chunk.setOutputStream(null);
+    }
+  }
+
+  /**
+   * Deserialize the object streamed by {@link #toChunks} as its chunks are queued, waiting for them to arrive. The
+   * states queued along with the chunks are registered as they are reached.
+   *
+   * @param chunks queue of the chunks and the states of the object
+   * @return the object
+   * @since 2.0.0
+   */
+  public Object fromChunks(ChunkQueue chunks)
+  {
+    final ChunkInputStream stream = new ChunkInputStream(chunks);
+    try {
+      return readClassAndObject(new Input(stream, MIN_CHUNK_SIZE * 64));
+    }
+    finally {
+      stream.close();
+      chunks.clear();
+    }
+  }
+
+  public static final int MIN_CHUNK_SIZE = 64;
+  private Output chunk;
+
+  /**
+   * Hands the chunks to the consumer; the chunk is held back until the next one is written to flag it partial.
+   */
+  private class ChunkOutputStream extends OutputStream
+  {
+    private final Consumer<Slice> consumer;
+    private Slice held;
+    private boolean handed;
+
+    ChunkOutputStream(Consumer<Slice> consumer)
+    {
+      this.consumer = consumer;
+    }
+
+    @Override
+    public void write(int b)
+    {
+      write(new byte[]{(byte)b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len)
+    {
+      if (len == 0) {
+        return;
+      }
+
+      handState();
+      if (held != null) {
+        hand(held);
+      }
+
+      held = newChunk(len);
+      System.arraycopy(b, off, held.buffer, held.offset + 1, len);
+    }
+
+    private Slice newChunk(int length)
+    {
+      final Slice slice = slicePool == null ? new Slice(new byte[length + 1]) : slicePool.allocate(length + 1);
+      slice.buffer[slice.offset] = (byte)(MessageType.DATA.value | MessageType.PARTIAL);
+      return slice;
+    }
+
+    private void handState()
+    {
+      if (!pairs.isEmpty()) {
+        final Slice slice = writeChunkState(pairs);
+        pairs.clear();
+        hand(slice);
+      }
+    }
+
+    private void hand(Slice slice)
+    {
+      handed = true;
+      consumer.accept(slice);
+    }
+
+    void finish()
+    {
+      handState();
+      held.buffer[held.offset] = MessageType.DATA.value;
+      final Slice last = held;
+      held = null;
+      hand(last);
+    }
+
+    void abort()
+    {
+      if (held instanceof Releasable) {
+        ((Releasable)held).release();
+      }
+      held = null;
+
+      if (handed) {
+        hand(newChunk(0));
+      }
+    }
+
+  }
+
+  /**
+   * Reads the payloads of the chunks taken from the queue, registering the classes of the states among them.
+   */
+  private class ChunkInputStream extends InputStream
+  {
+    private final ChunkQueue chunks;
+    private Slice current;
+    private int position;
+    private int limit;
+    private boolean last;
+
+    ChunkInputStream(ChunkQueue chunks)
+    {
+      this.chunks = chunks;
+    }
+
+    private boolean next() throws IOException
+    {
+      while (position == limit) {
+        release();
+        if (last) {
+          return false;
+        }
+
+        final Slice frame = chunks.take();
+        final byte type = frame.buffer[frame.offset];
+        if (MessageType.valueOf(type) == MessageType.STATE) {
+          try {
+            for (ClassIdPair pair : readState(frame)) {
+              classResolver.registerExplicit(pair);
+            }
+          }
+          catch (ClassNotFoundException ex) {
+            throw new IOException(ex);
+          }
+          finally {
+            if (frame instanceof Releasable) {
+              ((Releasable)frame).release();
+            }
+          }
+          continue;
+        }
+
+        last = (type & MessageType.PARTIAL) == 0;
+        if (!last && frame.length == 1) {
+          throw new IOException("Peer aborted the object streamed in chunks!");
+        }
+
+        current = frame;
+        position = frame.offset + 1;
+        limit = frame.offset + frame.length;
+      }
+
+      return true;
+    }
+
+    private void release()
+    {
+      if (current instanceof Releasable) {
+        ((Releasable)current).release();
+      }
+      current = null;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+      return next() ? current.buffer[position++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+      if (len == 0) {
+        return 0;
+      }
+
+      if (!next()) {
+        return -1;
+      }
+
+      final int count = Math.min(len, limit - position);
+      System.arraycopy(current.buffer, position, b, off, count);
+      position += count;
+      return count;
+    }
+
+    /**
+     * Skip the rest of the chunks if the object was not read till the end, still registering the classes of the
+     * states among them as the objects which follow may depend on them.
+     */
+    @Override
+    public void close()
+    {
+      try {
+        position = limit;
+        while (next()) {
+          position = limit;
+        }
+      }
+      catch (IOException ex) {
+        logger.debug("Stopped skipping the chunks of the object", ex);
+      }
+      finally {
+        release();
+      }
+    }
+
+  }
+
+  /**
+   * Serialize the object.
+   *
+   * @param o       object to be serialized
+   * @param encoder encoder of the frame; null to get the bare payload
+   * @return the slice containing the payload, or the frame if the encoder is given
+   */
+  Slice writeData(T o, FrameEncoder encoder)
+  {
+    if (encoder == null) {
+      data.setPosition(0);
+      /* code the first byte to signify that we have written data */
+      data.writeByte(MessageType.DATA.value);
+      writeClassAndObject(data, o);
+      return toSlice(data);
+    }
+
+    final SlicePool pool = slicePool == null ? SlicePool.getDefault() : slicePool;
+    final int headerRoom = encoder.getMaxHeaderSize();
+    final PooledSlice slice = beginFrame(pool, headerRoom, frameSizeHint);
+    try {
+      frame.writeByte(MessageType.DATA.value);
+      writeClassAndObject(frame, o);
+    }
+    catch (RuntimeException ex) {
+      slice.release();
+      throw ex;
+    }
+
+    final Slice dataFrame = endFrame(pool, slice, headerRoom, encoder);
+    frameSizeHint = dataFrame.length;
+    return dataFrame;
+  }
+
+  /**
+   * Serialize the class registrations.
+   *
+   * @param classIdPairs registrations to be serialized
+   * @param encoder      encoder of the frame; null to get the bare payload
+   * @return the slice containing the payload, or the frame if the encoder is given
+   */
+  Slice writeState(List<ClassIdPair> classIdPairs, FrameEncoder encoder)
+  {
+    if (encoder == null) {
       state.setPosition(0);
       /* code the first byte to signify that we have written state */
       state.writeByte(MessageType.STATE.value);
-
-      for (ClassIdPair cip : pairs) {
+      for (ClassIdPair cip : classIdPairs) {
         writeClassAndObject(state, cip);
       }
-      pairs.clear();
+      return toSlice(state);
+    }
 
-      byte[] bytes = state.toBytes();
-      pair.state = new Slice(bytes, 0, bytes.length);
+    final SlicePool pool = slicePool == null ? SlicePool.getDefault() : slicePool;
+    final int headerRoom = encoder.getMaxHeaderSize();
+    final PooledSlice slice = beginFrame(pool, headerRoom, 0);
+    frame.writeByte(MessageType.STATE.value);
+    for (ClassIdPair cip : classIdPairs) {
+      writeClassAndObject(frame, cip);
     }
+    return endFrame(pool, slice, headerRoom, encoder);
+  }
 
-    byte[] bytes = data.toBytes();
-    pair.data = new Slice(bytes, 0, bytes.length);
-    return pair;
+  /**
+   * Serialize the class registrations while an object is being serialized by {@link #toChunks}. Kryo tracks the
+   * references of the object being serialized, so the registrations are written without it lest they take the
+   * reference ids of the object, and flagged {@link MessageType#PARTIAL} to tell them apart.
+   *
+   * @param classIdPairs registrations to be serialized
+   * @return the slice containing the payload
+   */
+  private Slice writeChunkState(List<ClassIdPair> classIdPairs)
+  {
+    state.setPosition(0);
+    state.writeByte(MessageType.STATE.value | MessageType.PARTIAL);
+    for (ClassIdPair cip : classIdPairs) {
+      state.writeVarInt(cip.id, false);
+      state.writeString(cip.classname);
+    }
+    return toSlice(state);
+  }
+
+  private PooledSlice beginFrame(SlicePool pool, int headerRoom, int sizeHint)
+  {
+    final PooledSlice slice = pool.allocate(headerRoom + sizeHint);
+    frame.setBuffer(slice.buffer, Integer.MAX_VALUE);
+    frame.setPosition(headerRoom);
+    return slice;
+  }
+
+  private PooledSlice endFrame(SlicePool pool, PooledSlice slice, int headerRoom, FrameEncoder encoder)
+  {
+    final int size = frame.position() - headerRoom;
+    final byte[] trailer = encoder.getTrailer();
+    if (trailer != null) {
+      frame.writeBytes(trailer);
+    }
+
+    final int end = frame.position();
+    final byte[] buffer = frame.getBuffer();
+    if (buffer != slice.buffer) {
+      /* kryo moved the frame to a larger array as it outgrew the slice */
+      final PooledSlice larger = pool.allocate(end);
+      System.arraycopy(buffer, 0, larger.buffer, 0, end);
+      slice.release();
+      slice = larger;
+    }
+
+    final int start = headerRoom - encoder.getHeaderSize(size);
+    encoder.writeHeader(size, slice.buffer, start);
+    slice.offset = start;
+    slice.length = end - start;
+    return slice;
+  }
+
+  private Slice toSlice(Output output)
+  {
+    if (slicePool == null) {
+      byte[] bytes = output.toBytes();
+      return new Slice(bytes, 0, bytes.length);
+    }
+
+    final int position = output.position();
+    final PooledSlice slice = slicePool.allocate(position);
+    System.arraycopy(output.getBuffer(), 0, slice.buffer, 0, position);
+    return slice;
+  }
+
+  public SlicePool getSlicePool()
+  {
+    return slicePool;
+  }
+
+  /**
+   * Serialize the objects into the slices borrowed from the given pool instead of the newly allocated arrays. The
+   * slices in the pairs returned by {@link #toDataStatePair(Object)} need to be released then, which the clients
+   * do once the slices written to them are copied into their write buffers.
+   *
+   * @param slicePool pool to borrow the slices from; null to allocate the arrays.
+   * @since 2.0.0
+   */
+  public void setSlicePool(SlicePool slicePool)
+  {
+    this.slicePool = slicePool;
+  }
+
+  /**
+   * Register the classes of the registry the peer registers too, so that their registrations are not sent to the
+   * peer. The fingerprint of the registry is sent instead, the first time an object is serialized and after every
+   * reset, and the codec fails to deserialize if the fingerprint it receives does not match its own.
+   *
+   * The registry needs to be registered after the other classes registered by both the peers and before the codec
+   * is used.
+   *
+   * @param registry classes to register
+   * @throws IllegalStateException if the codec has already registered classes on its own.
+   * @since 2.0.0
+   */
+  public void register(ClassRegistry registry)
+  {
+    if (classResolver.nextAvailableRegistrationId > classResolver.firstAvailableRegistrationId || classResolver.shared != null) {
+      throw new IllegalStateException("Class registry " + registry + " needs to be registered before the codec is used!");
+    }
+
+    final int firstId = getNextRegistrationId();
+    for (Class<?> type : registry.getClasses()) {
+      register(type);
+    }
+
+    /* the classes of the registry are not forgotten when the state is reset */
+    classResolver.init();
+    classResolver.fingerprint = Long.toHexString(registry.getFingerprint(firstId));
+    pairs.add(new ClassIdPair(FINGERPRINT_ID, classResolver.fingerprint));
   }
 
   @Override
   public void resetState()
   {
     classResolver.unregisterImplicitlyRegisteredTypes();
+    classResolver.verified = false;
+    if (classResolver.fingerprint != null) {
+      /* the peer resets too, so it's made sure again that it agrees on the registry */
+      pairs.clear();
+      pairs.add(new ClassIdPair(FINGERPRINT_ID, classResolver.fingerprint));
+    }
   }
 
+  /**
+   * Id of the pseudo registration which carries the fingerprint of the {@link ClassRegistry} in the state.
+   */
+  static final int FINGERPRINT_ID = -1;
+
   final ClassResolver classResolver;
   final ArrayList<ClassIdPair> pairs;
 
@@ -189,43 +702,184 @@ public class DefaultStatefulStreamCodec<T> extends Kryo implements StatefulStrea
 
   }
 
+  /**
+   * Make the implicitly registered classes get their ids from the given registrations shared with the other codecs
+   * which serialize for the same stream.
+   *
+   * @param registrations registrations to share
+   * @throws IllegalStateException if the codec has registered the classes differently from the other codecs.
+   */
+  void share(SharedRegistrations registrations)
+  {
+    if (getNextRegistrationId() != registrations.firstId) {
+      throw new IllegalStateException("Codec registers the next class at " + getNextRegistrationId()
+                                      + " instead of " + registrations.firstId + "; the shared codecs need to register the same classes!");
+    }
+    /* only the classes registered from now on are implicit */
+    classResolver.firstAvailableRegistrationId = classResolver.nextAvailableRegistrationId = registrations.firstId;
+    classResolver.shared = registrations;
+  }
+
+  /**
+   * Make the codec look up the classes it has not seen registered in the given registrations received by the other
+   * codecs which deserialize the same stream.
+   *
+   * @param registrations registrations received from the stream keyed by the class id
+   */
+  void receive(Map<Integer, ClassIdPair> registrations)
+  {
+    /* only the classes registered from now on are from the stream */
+    classResolver.firstAvailableRegistrationId = classResolver.nextAvailableRegistrationId = getNextRegistrationId();
+    classResolver.received = registrations;
+  }
+
+  /**
+   * Class ids shared by the codecs which serialize for the same stream, so that a class gets the same id no matter
+   * which of the codecs registers it first.
+   */
+  static class SharedRegistrations
+  {
+    final int firstId;
+    private final AtomicInteger nextId;
+    private final ConcurrentHashMap<Class<?>, ClassIdPair> pairs = new ConcurrentHashMap<>();
+
+    SharedRegistrations(int firstId)
+    {
+      this.firstId = firstId;
+      nextId = new AtomicInteger(firstId);
+    }
+
+    ClassIdPair register(Class<?> type)
+    {
+      return pairs.computeIfAbsent(type, t -> new ClassIdPair(nextId.getAndIncrement(), t.getName()));
+    }
+
+    void clear()
+    {
+      pairs.clear();
+      nextId.set(firstId);
+    }
+
+  }
+
   public static class ClassResolver extends DefaultClassResolver
   {
     int firstAvailableRegistrationId;
     int nextAvailableRegistrationId;
     final ArrayList<ClassIdPair> pairs = new ArrayList<>();
+    SharedRegistrations shared;
+    Map<Integer, ClassIdPair> received;
+    /**
+     * Fingerprint of the {@link ClassRegistry} registered with the codec, null if none.
+     */
+    String fingerprint;
+    /**
+     * Whether the peer sent the matching fingerprint since the state was last reset.
+     */
+    boolean verified;
+    /**
+     * Serializers of the classes registered by this codec, kept across the resets so that they are not created
+     * again when the classes are registered again.
+     */
+    private final HashMap<Class<?>, Serializer<?>> serializers = new HashMap<>();
 
     public void unregister(int classId)
     {
       Registration registration = idToRegistration.remove(classId);
-      classToRegistration.remove(registration.getType());
-      getRegistration(int.class); /* make sure that we bust the memoized cache in superclass */
+      if (registration != null) {
+        classToRegistration.remove(registration.getType());
+        getRegistration(int.class); /* make sure that we bust the memoized cache in superclass */
+      }
     }
 
     @Override
     @SuppressWarnings("rawtypes")
     public Registration registerImplicit(Class type)
     {
+      if (shared != null) {
+        /* the ids are not contiguous as the other codecs take their share */
+        final ClassIdPair pair = shared.register(type);
+        pairs.add(pair);
+        if (nextAvailableRegistrationId <= pair.id) {
+          nextAvailableRegistrationId = pair.id + 1;
+        }
+        return register(new Registration(type, getSerializer(type), pair.id));
+      }
+
       while (getRegistration(nextAvailableRegistrationId) != null) {
         nextAvailableRegistrationId++;
       }
 
       //logger.debug("adding new classid pair {} => {}", nextAvailableRegistrationId, type.getName());
       pairs.add(new ClassIdPair(nextAvailableRegistrationId, type.getName()));
-      return register(new Registration(type, kryo.getDefaultSerializer(type), nextAvailableRegistrationId++));
+      return register(new Registration(type, getSerializer(type), nextAvailableRegistrationId++));
+    }
+
+    @Override
+    public Registration readClass(Input input)
+    {
+      if (received != null) {
+        /* peek at the id of the class and register it if it was received by another codec */
+        final int position = input.position();
+        final int id = input.readVarInt(true) - 2;
+        input.setPosition(position);
+        if (id >= 0 && !idToRegistration.containsKey(id)) {
+          final ClassIdPair pair = received.get(id);
+          if (pair != null) {
+            try {
+              registerExplicit(pair);
+            }
+            catch (ClassNotFoundException ex) {
+              throw Throwables.wrapIfChecked(ex);
+            }
+          }
+        }
+      }
+
+      return super.readClass(input);
     }
 
     void registerExplicit(ClassIdPair pair) throws ClassNotFoundException
     {
+      if (pair.id == FINGERPRINT_ID) {
+        verify(pair);
+        return;
+      }
+
       //logger.debug("registering class {} => {}", pair.classname, pair.id);
       //pairs.add(pair);
-      Class<?> type = Class.forName(pair.classname, false, Thread.currentThread().getContextClassLoader());
-      register(new Registration(type, kryo.getDefaultSerializer(type), pair.id));
+      Class<?> type = ClassCache.forName(pair.classname, Thread.currentThread().getContextClassLoader());
+      register(new Registration(type, getSerializer(type), pair.id));
       if (nextAvailableRegistrationId <= pair.id) {
         nextAvailableRegistrationId = pair.id + 1;
       }
     }
 
+    /**
+     * Make sure that the peer registered the same {@link ClassRegistry}.
+     *
+     * @param pair pseudo registration carrying the fingerprint of the registry of the peer
+     * @throws IllegalStateException if the fingerprint does not match that of the registry of this codec
+     */
+    void verify(ClassIdPair pair)
+    {
+      if (!pair.classname.equals(fingerprint)) {
+        throw new IllegalStateException("Class registry of the peer with fingerprint " + pair.classname
+                                        + " does not match the one with fingerprint " + fingerprint + '!');
+      }
+      verified = true;
+    }
+
+    private Serializer<?> getSerializer(Class<?> type)
+    {
+      Serializer<?> serializer = serializers.get(type);
+      if (serializer == null) {
+        serializer = kryo.getDefaultSerializer(type);
+        serializers.put(type, serializer);
+      }
+      return serializer;
+    }
+
     public void init()
     {
       firstAvailableRegistrationId = kryo.getNextRegistrationId();
@@ -18,6 +18,7 @@
  */
 package com.celeral.netlet.codec;
 
+import com.celeral.netlet.util.Releasable;
 import com.celeral.netlet.util.Slice;
 
 /**
@@ -60,6 +61,25 @@ public interface StatefulStreamCodec<T>
      */
     public Slice state;
 
+    /**
+     * Release the slices which implement {@link Releasable}, e.g. the pooled ones which are not going to be
+     * written, and forget them.
+     *
+     * @since 2.0.0
+     */
+    public void release()
+    {
+      if (data instanceof Releasable) {
+        ((Releasable)data).release();
+      }
+      data = null;
+
+      if (state instanceof Releasable) {
+        ((Releasable)state).release();
+      }
+      state = null;
+    }
+
     @Override
     public String toString()
     {
@@ -179,14 +199,41 @@ public interface StatefulStreamCodec<T>
   {
     DATA((byte)0), STATE((byte)1);
 
+    /**
+     * Flag set in the type byte of the messages whose payload is compressed, e.g. by
+     * {@link CompressingStatefulStreamCodec}.
+     *
+     * @since 2.0.0
+     */
+    public static final byte COMPRESSED = 0x40;
+    /**
+     * Flag set in the type byte of the chunks of the data which are followed by more chunks of the same object, e.g.
+     * by {@link DefaultStatefulStreamCodec#toChunks}.
+     *
+     * @since 2.0.0
+     */
+    public static final byte PARTIAL = 0x20;
+    /**
+     * Mask of all the flags which may be set in the type byte along with the type.
+     *
+     * @since 2.0.0
+     */
+    public static final byte FLAGS = COMPRESSED | PARTIAL;
+
     public final byte getByte()
     {
       return value;
     }
 
+    /**
+     * Get the type of the message from its type byte, ignoring the {@link #FLAGS} set in it.
+     *
+     * @param value type byte of the message
+     * @return the type of the message, null if the byte does not denote any
+     */
     public static MessageType valueOf(byte value)
     {
-      switch (value) {
+      switch (value & ~FLAGS) {
         case 0:
           return DATA;
         case 1:
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.celeral.netlet.codec.DefaultStatefulStreamCodec.ClassIdPair;
+import com.celeral.netlet.codec.DefaultStatefulStreamCodec.SharedRegistrations;
+import com.celeral.netlet.framing.FrameEncoder;
+import com.celeral.netlet.util.Slice;
+import com.celeral.netlet.util.SlicePool;
+
+/**
+ * Codec which serializes and deserializes on each thread using a {@link DefaultStatefulStreamCodec} of its own so that
+ * the objects of the same stream can be processed in parallel instead of taking turns as with
+ * {@link StatefulStreamCodec.Synchronized}.
+ *
+ * The codecs share the ids of the classes they register. The registrations still need to reach the peer exactly
+ * once and before the first object which uses them, so serializing is split in two steps: {@link #encode} serializes
+ * the object in parallel and {@link #sequence} attaches the registrations the peer has not been sent yet. The latter
+ * needs to be called in the order the pairs are written to the stream, e.g. while holding the lock for writing, and
+ * before the same thread encodes the next object.
+ *
+ * Likewise, deserializing is split in two steps: {@link #applyState} registers the classes the peer sent and needs
+ * to be called in the order the states are read from the stream, while {@link #decode} deserializes the objects in
+ * parallel. An object may be decoded as soon as the state which preceded it in the stream is applied.
+ *
+ * @param <T> type of the objects serialized
+ * @since 2.0.0
+ */
+public class ThreadLocalStatefulStreamCodec<T> implements StatefulStreamCodec<T>
+{
+  private final Supplier<? extends DefaultStatefulStreamCodec<T>> factory;
+  private final DefaultStatefulStreamCodec<T> stateDecoder;
+  private final SharedRegistrations registrations;
+  private final ThreadLocal<Encoder<T>> encoders = ThreadLocal.withInitial(this::newEncoder);
+  private final ConcurrentHashMap<Integer, ClassIdPair> received = new ConcurrentHashMap<>();
+  private final ThreadLocal<Decoder<T>> decoders = ThreadLocal.withInitial(this::newDecoder);
+  /**
+   * Ids of the classes whose registrations are sequenced; guarded by this.
+   */
+  private final BitSet sequenced = new BitSet();
+  /**
+   * Whether the fingerprint of the {@link ClassRegistry} of the codecs is sequenced; guarded by this.
+   */
+  private boolean fingerprintSequenced;
+  private volatile int generation;
+  private volatile SlicePool slicePool;
+
+  /**
+   * Create the codec.
+   *
+   * @param factory creates the codecs for the threads; all the codecs it creates need to register the same classes.
+   */
+  public ThreadLocalStatefulStreamCodec(Supplier<? extends DefaultStatefulStreamCodec<T>> factory)
+  {
+    this.factory = factory;
+    stateDecoder = factory.get();
+    registrations = new SharedRegistrations(stateDecoder.getNextRegistrationId());
+  }
+
+  /**
+   * Serialize the object using the codec of the calling thread. The registrations of the classes this thread had
+   * not used before are remembered with the pair and some of them are attached to the pair by {@link #sequence}.
+   *
+   * @param o       object to be serialized
+   * @param encoder encoder of the frames as in {@link DefaultStatefulStreamCodec#toFramedDataStatePair}; null to
+   *                get the bare payloads as in {@link DefaultStatefulStreamCodec#toDataStatePair}
+   * @return pair whose state is to be determined by {@link #sequence}
+   * @throws IllegalStateException if the object this thread encoded last is not sequenced yet.
+   */
+  public DataStatePair encode(T o, FrameEncoder encoder)
+  {
+    final Encoder<T> threadEncoder = encoders.get();
+    if (threadEncoder.pending) {
+      throw new IllegalStateException("The object encoded last on " + Thread.currentThread() + " is not sequenced yet!");
+    }
+
+    final DefaultStatefulStreamCodec<T> codec = threadEncoder.codec;
+    final int current = generation;
+    if (threadEncoder.generation != current) {
+      codec.resetState();
+      threadEncoder.generation = current;
+    }
+    codec.setSlicePool(slicePool);
+
+    final Encoded pair = new Encoded(threadEncoder, encoder);
+    pair.data = codec.writeData(o, encoder);
+    if (!codec.pairs.isEmpty()) {
+      pair.classIdPairs = new ArrayList<>(codec.pairs);
+      codec.pairs.clear();
+    }
+
+    threadEncoder.pending = true;
+    return pair;
+  }
+
+  /**
+   * Attach the registrations of the classes used by the object for the first time in the stream to the pair
+   * encoded by {@link #encode}.
+   *
+   * @param pair pair returned by {@link #encode}
+   */
+  public synchronized void sequence(DataStatePair pair)
+  {
+    if (!(pair instanceof Encoded)) {
+      throw new IllegalArgumentException("Pair " + pair + " was not encoded by " + this);
+    }
+
+    final Encoded encoded = (Encoded)pair;
+    final Encoder<?> threadEncoder = encoded.threadEncoder;
+    if (encoded.classIdPairs != null) {
+      ArrayList<ClassIdPair> unsequenced = null;
+      for (ClassIdPair cip : encoded.classIdPairs) {
+        if (cip.id == DefaultStatefulStreamCodec.FINGERPRINT_ID ? !fingerprintSequenced : !sequenced.get(cip.id)) {
+          if (cip.id == DefaultStatefulStreamCodec.FINGERPRINT_ID) {
+            fingerprintSequenced = true;
+          }
+          else {
+            sequenced.set(cip.id);
+          }
+          if (unsequenced == null) {
+            unsequenced = new ArrayList<>(encoded.classIdPairs.size());
+          }
+          unsequenced.add(cip);
+        }
+      }
+      encoded.classIdPairs = null;
+
+      if (unsequenced != null) {
+        pair.state = threadEncoder.codec.writeState(unsequenced, encoded.encoder);
+      }
+    }
+
+    threadEncoder.pending = false;
+  }
+
+  /**
+   * Serialize the object and sequence it at once; the pairs need to be written in the order they are returned.
+   *
+   * @param o object to be serialized
+   * @return serialized object along with the registrations the peer needs to deserialize it
+   */
+  @Override
+  public DataStatePair toDataStatePair(T o)
+  {
+    final DataStatePair pair = encode(o, null);
+    sequence(pair);
+    return pair;
+  }
+
+  /**
+   * Register the classes the peer sent; the states need to be applied in the order they are read from the stream.
+   *
+   * @param state slice containing the registrations
+   */
+  public void applyState(Slice state)
+  {
+    synchronized (stateDecoder) {
+      for (ClassIdPair pair : stateDecoder.readState(state)) {
+        if (pair.id == DefaultStatefulStreamCodec.FINGERPRINT_ID) {
+          stateDecoder.classResolver.verify(pair);
+        }
+        else {
+          received.put(pair.id, pair);
+        }
+      }
+    }
+  }
+
+  /**
+   * Deserialize the object using the codec of the calling thread.
+   *
+   * @param data slice containing the serialized object
+   * @return the object
+   */
+  public Object decode(Slice data)
+  {
+    if (stateDecoder.classResolver.fingerprint != null && !stateDecoder.classResolver.verified) {
+      throw new IllegalStateException("Peer did not send the fingerprint of its class registry before the data!");
+    }
+
+    final Decoder<T> decoder = decoders.get();
+    final int current = generation;
+    if (decoder.generation != current) {
+      decoder.codec.resetState();
+      decoder.generation = current;
+    }
+
+    return decoder.codec.readData(data);
+  }
+
+  /**
+   * Apply the state of the pair, if any, and decode its data. The pairs with state need to be passed in the order
+   * they are read from the stream and before the pairs which follow them in the stream.
+   *
+   * @param dspair pair to be deserialized
+   * @return the object
+   */
+  @Override
+  public Object fromDataStatePair(DataStatePair dspair)
+  {
+    if (dspair.state != null) {
+      applyState(dspair.state);
+      dspair.state = null;
+    }
+    return decode(dspair.data);
+  }
+
+  /**
+   * Forget all the registrations. The codecs of the threads forget theirs when they are used next, so this needs to
+   * be called when none of the encoded pairs is waiting to be sequenced and none of the objects is being decoded.
+   */
+  @Override
+  public synchronized void resetState()
+  {
+    registrations.clear();
+    sequenced.clear();
+    fingerprintSequenced = false;
+    stateDecoder.resetState();
+    received.clear();
+    generation++;
+  }
+
+  public SlicePool getSlicePool()
+  {
+    return slicePool;
+  }
+
+  /**
+   * Serialize into the slices borrowed from the pool; see {@link DefaultStatefulStreamCodec#setSlicePool}.
+   *
+   * @param slicePool pool to borrow the slices from; null to allocate the arrays.
+   */
+  public void setSlicePool(SlicePool slicePool)
+  {
+    this.slicePool = slicePool;
+  }
+
+  private Encoder<T> newEncoder()
+  {
+    final DefaultStatefulStreamCodec<T> codec = factory.get();
+    codec.share(registrations);
+    return new Encoder<>(codec, generation);
+  }
+
+  private Decoder<T> newDecoder()
+  {
+    final DefaultStatefulStreamCodec<T> codec = factory.get();
+    codec.receive(received);
+    return new Decoder<>(codec, generation);
+  }
+
+  private static class Decoder<T>
+  {
+    final DefaultStatefulStreamCodec<T> codec;
+    int generation;
+
+    Decoder(DefaultStatefulStreamCodec<T> codec, int generation)
+    {
+      this.codec = codec;
+      this.generation = generation;
+    }
+
+  }
+
+  private static class Encoder<T>
+  {
+    final DefaultStatefulStreamCodec<T> codec;
+    int generation;
+    volatile boolean pending;
+
+    Encoder(DefaultStatefulStreamCodec<T> codec, int generation)
+    {
+      this.codec = codec;
+      this.generation = generation;
+    }
+
+  }
+
+  private static class Encoded extends DataStatePair
+  {
+    final Encoder<?> threadEncoder;
+    final FrameEncoder encoder;
+    ArrayList<ClassIdPair> classIdPairs;
+
+    Encoded(Encoder<?> threadEncoder, FrameEncoder encoder)
+    {
+      this.threadEncoder = threadEncoder;
+      this.encoder = encoder;
+    }
+
+  }
+
+}
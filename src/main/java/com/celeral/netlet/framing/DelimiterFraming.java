@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.framing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.celeral.netlet.util.Slice;
+
+/**
+ * Frames terminated by a sequence of one or more delimiter bytes.
+ *
+ * The payload is not allowed to contain the delimiter sequence, it's not escaped while encoding. The delimiter
+ * is located 8 bytes at a time by testing all the bytes of a long word at once for the first byte of the
+ * delimiter. Since the decoder remembers how much of a partially received frame it has scanned already, each
+ * connection needs to have its own instance.
+ *
+ * @since 2.0.0
+ */
+public class DelimiterFraming implements FrameDecoder, FrameEncoder
+{
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+
+  private final byte[] delimiter;
+  private final long pattern;
+  private ByteBuffer view;
+  private int scanned;
+
+  public DelimiterFraming(byte... delimiter)
+  {
+    if (delimiter.length == 0) {
+      throw new IllegalArgumentException("Delimiter needs to have at least one byte!");
+    }
+    this.delimiter = delimiter.clone();
+    this.pattern = (delimiter[0] & 0xffL) * ONES;
+  }
+
+  @Override
+  public int decode(byte[] buffer, int offset, int limit, Slice frame)
+  {
+    final int index = indexOf(buffer, offset + scanned, limit);
+    if (index < 0) {
+      /* partial delimiter at the end may complete with the next read, so rescan those bytes next time */
+      scanned = Math.max(0, limit - offset - delimiter.length + 1);
+      return offset - limit - 1;
+    }
+
+    scanned = 0;
+    frame.buffer = buffer;
+    frame.offset = offset;
+    frame.length = index - offset;
+    return index - offset + delimiter.length;
+  }
+
+  @Override
+  public void reset()
+  {
+    scanned = 0;
+  }
+
+  int indexOf(byte[] buffer, int from, int limit)
+  {
+    final int last = limit - delimiter.length;
+    int i = from;
+    if (limit - i >= 8) {
+      if (view == null || view.array() != buffer) {
+        view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+      }
+
+      final int end = limit - 8;
+      while (i <= end) {
+        final long word = view.getLong(i) ^ pattern;
+        final long found = (word - ONES) & ~word & HIGHS;
+        if (found == 0) {
+          i += 8;
+        }
+        else {
+          /* the lowest flagged byte is exact in little endian order; the ones above it may be false positives */
+          final int candidate = i + (Long.numberOfTrailingZeros(found) >>> 3);
+          if (candidate > last) {
+            return -1;
+          }
+          if (matches(buffer, candidate)) {
+            return candidate;
+          }
+          i = candidate + 1;
+        }
+      }
+    }
+
+    final byte first = delimiter[0];
+    while (i <= last) {
+      if (buffer[i] == first && matches(buffer, i)) {
+        return i;
+      }
+      i++;
+    }
+
+    return -1;
+  }
+
+  private boolean matches(byte[] buffer, int position)
+  {
+    for (int i = delimiter.length; i-- > 1;) {
+      if (buffer[position + i] != delimiter[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public int getMaxHeaderSize()
+  {
+    return 0;
+  }
+
+  @Override
+  public int getHeaderSize(int size)
+  {
+    return 0;
+  }
+
+  @Override
+  public int writeHeader(int size, byte[] buffer, int offset)
+  {
+    return offset;
+  }
+
+  @Override
+  public byte[] getTrailer()
+  {
+    return delimiter;
+  }
+
+}
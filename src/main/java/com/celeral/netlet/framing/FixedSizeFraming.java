@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.framing;
+
+import com.celeral.netlet.util.Slice;
+
+/**
+ * Frames which are records of the same size without any header or trailer.
+ *
+ * The implementation is stateless so an instance can be shared among the connections.
+ *
+ * @since 2.0.0
+ */
+public class FixedSizeFraming implements ScatteringFrameDecoder, FrameEncoder
+{
+  private final int recordSize;
+
+  public FixedSizeFraming(int recordSize)
+  {
+    if (recordSize <= 0) {
+      throw new IllegalArgumentException("Record size needs to be a positive integer: " + recordSize);
+    }
+    this.recordSize = recordSize;
+  }
+
+  public int getRecordSize()
+  {
+    return recordSize;
+  }
+
+  @Override
+  public int decode(byte[] buffer, int offset, int limit, Slice frame)
+  {
+    if (limit - offset < recordSize) {
+      return -recordSize;
+    }
+
+    frame.buffer = buffer;
+    frame.offset = offset;
+    frame.length = recordSize;
+    return recordSize;
+  }
+
+  @Override
+  public int decodeHeader(byte[] buffer, int offset, int limit, Slice frame)
+  {
+    /* there is no header, but the record does not start until at least one of its bytes is available */
+    if (offset == limit) {
+      return -1;
+    }
+
+    frame.buffer = buffer;
+    frame.offset = offset;
+    frame.length = recordSize;
+    return 0;
+  }
+
+  @Override
+  public int getMaxHeaderSize()
+  {
+    return 0;
+  }
+
+  @Override
+  public int writeHeader(int size, byte[] buffer, int offset)
+  {
+    if (size != recordSize) {
+      throw new IllegalArgumentException("Payload of size " + size + " does not match the record size " + recordSize);
+    }
+    return offset;
+  }
+
+  @Override
+  public byte[] getTrailer()
+  {
+    return null;
+  }
+
+}
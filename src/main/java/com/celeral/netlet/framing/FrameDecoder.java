@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.framing;
+
+import com.celeral.netlet.util.Slice;
+
+/**
+ * Locates the frames in the stream of bytes read from the socket.
+ *
+ * The decoders are allowed to remember the progress they made on a partially received frame, so unless
+ * an implementation documents that it's stateless, each connection needs to have its own instance.
+ *
+ * @since 2.0.0
+ */
+public interface FrameDecoder
+{
+  /**
+   * Decode the frame which starts at the given offset.
+   *
+   * @param buffer the array containing the data received so far.
+   * @param offset the position in the array where the frame starts.
+   * @param limit  the position in the array up to which the data is available.
+   * @param frame  if a complete frame is found, it's populated with the location of the payload.
+   *
+   * @return If positive, the number of bytes starting at offset occupied by the complete frame including
+   *         its header and trailer. Otherwise the negated minimum number of bytes starting at offset that
+   *         need to be available before the frame can be decoded.
+   */
+  int decode(byte[] buffer, int offset, int limit, Slice frame);
+
+  /**
+   * Forget the progress made on the partially received frame since the bytes it was made on are discarded.
+   * The stateless decoders need not override it.
+   */
+  default void reset()
+  {
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.framing;
+
+/**
+ * Writes the bytes which surround the payload of each frame written to the socket.
+ *
+ * @since 2.0.0
+ */
+public interface FrameEncoder
+{
+  /**
+   * @return the maximum number of bytes {@link #writeHeader} writes; 0 if the frames do not have a header.
+   */
+  int getMaxHeaderSize();
+
+  /**
+   * Write the header for a payload of the given size.
+   *
+   * @param size   size of the payload in bytes.
+   * @param buffer array to write the header into; it has room for {@link #getMaxHeaderSize()} bytes.
+   * @param offset position in the array where the header starts.
+   *
+   * @return the position in the array right after the header.
+   */
+  int writeHeader(int size, byte[] buffer, int offset);
+
+  /**
+   * Get the number of bytes {@link #writeHeader} writes for a payload of the given size. It lets the header be
+   * written in front of a payload which is encoded before its size is known, in the room reserved for the
+   * largest header.
+   *
+   * The default implementation writes the header into a scratch array; the encoders override it to avoid that.
+   *
+   * @param size size of the payload in bytes.
+   * @return the size of the header in bytes.
+   * @since 2.0.0
+   */
+  default int getHeaderSize(int size)
+  {
+    return writeHeader(size, new byte[getMaxHeaderSize()], 0);
+  }
+
+  /**
+   * @return bytes to be written after each payload or null if the frames do not have a trailer;
+   *         the returned array is never modified once returned.
+   */
+  byte[] getTrailer();
+}
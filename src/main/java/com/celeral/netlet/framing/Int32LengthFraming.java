@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.framing;
+
+import com.celeral.netlet.util.Slice;
+
+/**
+ * Frames prefixed with the length of the payload encoded as a 4 byte big-endian integer.
+ *
+ * The implementation is stateless so the {@link #INSTANCE} can be shared among the connections.
+ *
+ * @since 2.0.0
+ */
+public class Int32LengthFraming implements ScatteringFrameDecoder, FrameEncoder
+{
+  public static final Int32LengthFraming INSTANCE = new Int32LengthFraming();
+  private static final int HEADER_SIZE = 4;
+
+  @Override
+  public int decode(byte[] buffer, int offset, int limit, Slice frame)
+  {
+    final int headerSize = decodeHeader(buffer, offset, limit, frame);
+    if (headerSize < 0) {
+      return headerSize;
+    }
+
+    final int frameSize = HEADER_SIZE + frame.length;
+    if (limit - offset < frameSize) {
+      return -frameSize;
+    }
+
+    return frameSize;
+  }
+
+  @Override
+  public int decodeHeader(byte[] buffer, int offset, int limit, Slice frame)
+  {
+    if (limit - offset < HEADER_SIZE) {
+      return -HEADER_SIZE;
+    }
+
+    final int size = (buffer[offset] & 0xff) << 24
+                     | (buffer[offset + 1] & 0xff) << 16
+                     | (buffer[offset + 2] & 0xff) << 8
+                     | (buffer[offset + 3] & 0xff);
+    if (size < 0 || size > Integer.MAX_VALUE - HEADER_SIZE) {
+      throw new NumberFormatException("Invalid frame length " + size + " at location " + offset);
+    }
+
+    frame.buffer = buffer;
+    frame.offset = offset + HEADER_SIZE;
+    frame.length = size;
+    return HEADER_SIZE;
+  }
+
+  @Override
+  public int getMaxHeaderSize()
+  {
+    return HEADER_SIZE;
+  }
+
+  @Override
+  public int getHeaderSize(int size)
+  {
+    return HEADER_SIZE;
+  }
+
+  @Override
+  public int writeHeader(int size, byte[] buffer, int offset)
+  {
+    buffer[offset++] = (byte)(size >>> 24);
+    buffer[offset++] = (byte)(size >>> 16);
+    buffer[offset++] = (byte)(size >>> 8);
+    buffer[offset++] = (byte)size;
+    return offset;
+  }
+
+  @Override
+  public byte[] getTrailer()
+  {
+    return null;
+  }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.framing;
+
+import com.celeral.netlet.util.Slice;
+
+/**
+ * A decoder which can locate the payload of a frame by looking at its header alone.
+ *
+ * Such decoders make it possible to read the rest of the payload of a large frame directly into a destination
+ * supplied by {@link com.celeral.netlet.ScatteringMessagesProcessor} instead of the read buffer.
+ *
+ * @since 2.0.0
+ */
+public interface ScatteringFrameDecoder extends FrameDecoder
+{
+  /**
+   * Decode the header of the frame which starts at the given offset.
+   *
+   * @param buffer the array containing the data received so far.
+   * @param offset the position in the array where the frame starts.
+   * @param limit  the position in the array up to which the data is available.
+   * @param frame  if the header is complete, it's populated with the location and the length of the payload
+   *               even though the payload may extend beyond the limit.
+   *
+   * @return If non-negative, the size of the header. Otherwise the negated minimum number of bytes starting
+   *         at offset that need to be available before the header can be decoded.
+   */
+  int decodeHeader(byte[] buffer, int offset, int limit, Slice frame);
+}
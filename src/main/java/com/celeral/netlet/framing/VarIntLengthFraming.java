@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.framing;
+
+import java.util.Arrays;
+
+import com.celeral.netlet.util.Slice;
+import com.celeral.netlet.util.VarInt;
+
+/**
+ * Frames prefixed with the length of the payload encoded as a 32 bit varint.
+ *
+ * This is the wire format used by {@link com.celeral.netlet.AbstractLengthPrependerClient}. The decoder keeps
+ * a scratch holder for the position decoded by {@link VarInt}, so an instance should not be shared among the
+ * connections which are read on different threads.
+ *
+ * @since 2.0.0
+ */
+public class VarIntLengthFraming implements ScatteringFrameDecoder, FrameEncoder
+{
+  private final VarInt.MutableInt position = new VarInt.MutableInt();
+
+  @Override
+  public int decode(byte[] buffer, int offset, int limit, Slice frame)
+  {
+    final int headerSize = decodeHeader(buffer, offset, limit, frame);
+    if (headerSize < 0) {
+      return headerSize;
+    }
+
+    final int frameSize = headerSize + frame.length;
+    if (limit - offset < frameSize) {
+      return -frameSize;
+    }
+
+    return frameSize;
+  }
+
+  @Override
+  public int decodeHeader(byte[] buffer, int offset, int limit, Slice frame)
+  {
+    final int size = VarInt.read(buffer, offset, limit, position);
+    final int payloadOffset = position.integer;
+    if (payloadOffset > 0) {
+      if (size < 0) {
+        throw new NumberFormatException("Invalid frame length " + size + " at location " + offset);
+      }
+
+      frame.buffer = buffer;
+      frame.offset = payloadOffset;
+      frame.length = size;
+      return payloadOffset - offset;
+    }
+
+    if (payloadOffset == -5) {
+      throw new NumberFormatException("Invalid varint at location " + offset + " => "
+                                      + Arrays.toString(Arrays.copyOfRange(buffer, offset, offset + 5)));
+    }
+
+    return payloadOffset - 1;
+  }
+
+  @Override
+  public int getMaxHeaderSize()
+  {
+    return 5;
+  }
+
+  @Override
+  public int getHeaderSize(int size)
+  {
+    return VarInt.getSize(size);
+  }
+
+  @Override
+  public int writeHeader(int size, byte[] buffer, int offset)
+  {
+    return VarInt.write(size, buffer, offset);
+  }
+
+  @Override
+  public byte[] getTrailer()
+  {
+    return null;
+  }
+
+}
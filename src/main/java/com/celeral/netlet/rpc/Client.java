@@ -15,9 +15,13 @@
  */
 package com.celeral.netlet.rpc;
 
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import com.esotericsoftware.kryo.serializers.FieldSerializer.Bind;
 import com.esotericsoftware.kryo.serializers.JavaSerializer;
@@ -26,10 +30,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.celeral.netlet.AbstractLengthPrependerClient;
+import com.celeral.netlet.codec.ChunkQueue;
+import com.celeral.netlet.codec.ClassRegistry;
 import com.celeral.netlet.codec.DefaultStatefulStreamCodec;
 import com.celeral.netlet.codec.StatefulStreamCodec;
 import com.celeral.netlet.codec.StatefulStreamCodec.DataStatePair;
+import com.celeral.netlet.codec.ThreadLocalStatefulStreamCodec;
+import com.celeral.netlet.util.Releasable;
 import com.celeral.netlet.util.Slice;
+import com.celeral.utils.Throwables;
 
 /**
  *
@@ -42,6 +51,43 @@ public abstract class Client<T> extends AbstractLengthPrependerClient
   Slice state;
   private StatefulStreamCodec<Object> serdes;
   private transient Executor executors;
+  private boolean orderedDelivery;
+  /**
+   * Sequence number of the next message decoded in parallel; used only by the event loop.
+   */
+  private long decodeSequence;
+  /**
+   * Messages decoded in parallel but waiting for the ones which precede them in the stream to be delivered; also
+   * guards {@link #deliverySequence} and {@link #delivering}.
+   */
+  private final HashMap<Long, Object> decoded = new HashMap<>();
+  private long deliverySequence;
+  private boolean delivering;
+  private static final Object UNDECODABLE = new Object();
+  /**
+   * Size of the chunks the objects are streamed in, 0 if they are not.
+   */
+  private int chunkSize;
+  /**
+   * Receiver of the object being streamed by the peer; used only by the event loop.
+   */
+  private ChunkReceiver receiver;
+  /**
+   * Thread of the event loop the client is registered with.
+   */
+  private volatile Thread eventThread;
+  private static final int CHUNK_QUEUE_CAPACITY = 1 << 20;
+  /**
+   * Default number of the bytes of an object streamed by the peer which are queued while the object is received on
+   * the event loop.
+   */
+  public static final int DEFAULT_MAX_DEFERRED_SIZE = 64 << 20;
+  /**
+   * Number of the bytes of an object streamed by the peer which are queued while the object is received on the
+   * event loop, past which the connection is given up on; used only by the event loop.
+   */
+  int maxDeferredSize = DEFAULT_MAX_DEFERRED_SIZE;
+  private static final long CHUNK_RETRY_NANOS = 100_000;
 
   private Client()
   {
@@ -49,17 +95,64 @@ public abstract class Client<T> extends AbstractLengthPrependerClient
   }
 
   public Client(Executor executors)
+  {
+    this(executors, false);
+  }
+
+  /**
+   * Create the client.
+   *
+   * @param executors executors which serialize, send, deserialize and deliver the messages
+   * @param parallel  true if the messages are to be serialized and deserialized in parallel by the executors
+   *                  using a {@link ThreadLocalStatefulStreamCodec}, false to use a single codec.
+   * @since 2.0.0
+   */
+  public Client(Executor executors, boolean parallel)
   {
     this.executors = executors;
+    this.serdes = parallel ? new ThreadLocalStatefulStreamCodec<>(Client::newCodec) : newCodec();
+  }
 
+  static DefaultStatefulStreamCodec<Object> newCodec()
+  {
+    return newCodec(null);
+  }
+
+  /**
+   * Create the codec the clients use, which registers the classes of the envelopes followed by the classes of
+   * the registry.
+   *
+   * @param registry classes the peers register up front, null if none
+   * @return the codec
+   * @since 2.0.0
+   */
+  public static DefaultStatefulStreamCodec<Object> newCodec(ClassRegistry registry)
+  {
     DefaultStatefulStreamCodec<Object> codec = new DefaultStatefulStreamCodec<>();
-    /* setup the classes that we know about before hand */
-    codec.register(Ack.class);
-    codec.register(RPC.class);
-    codec.register(ExtendedRPC.class);
-    codec.register(RR.class);
+    /* setup the classes that we know about before hand, with the serializers which avoid the reflection */
+    EnvelopeSerializers.register(codec);
+    if (registry != null) {
+      codec.register(registry);
+    }
+    return codec;
+  }
 
-    this.serdes = codec;
+  /**
+   * Replace the codec of the client with the one which registers the classes of the registry up front, so that
+   * their registrations are not sent to the peer. The peer needs to set the same registry, and both need to
+   * do it before they exchange any messages.
+   *
+   * @param registry classes the peers register up front
+   * @since 2.0.0
+   */
+  public void setClassRegistry(ClassRegistry registry)
+  {
+    if (serdes instanceof ThreadLocalStatefulStreamCodec) {
+      serdes = new ThreadLocalStatefulStreamCodec<>(() -> newCodec(registry));
+    }
+    else {
+      serdes = newCodec(registry);
+    }
   }
 
   public abstract void onMessage(T message);
@@ -74,9 +167,33 @@ public abstract class Client<T> extends AbstractLengthPrependerClient
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void run()
     {
-      writeObject(serdes.toDataStatePair(object));
+      final StatefulStreamCodec<Object> codec = serdes;
+      if (codec instanceof ThreadLocalStatefulStreamCodec) {
+        /* serialize in parallel with the other senders and take turns only to sequence and queue the frames */
+        final ThreadLocalStatefulStreamCodec<Object> parallel = (ThreadLocalStatefulStreamCodec<Object>)codec;
+        final DataStatePair pair = parallel.encode(object, encoder);
+        synchronized (Client.this) {
+          parallel.sequence(pair);
+          writeObject(pair, true);
+        }
+      }
+      else if (codec instanceof DefaultStatefulStreamCodec) {
+        /* the event loop cannot wait for the room in the send buffer as it's the one which makes it */
+        if (chunkSize > 0 && Thread.currentThread() != eventThread) {
+          /* send the chunks as they are serialized instead of serializing the whole object first */
+          writeChunks((DefaultStatefulStreamCodec<Object>)codec, object);
+        }
+        else {
+          /* serialize straight into the frames which are sent without any more copies */
+          writeObject(((DefaultStatefulStreamCodec<Object>)codec).toFramedDataStatePair(object, encoder), true);
+        }
+      }
+      else {
+        writeObject(codec.toDataStatePair(object), false);
+      }
     }
   }
 
@@ -85,24 +202,159 @@ public abstract class Client<T> extends AbstractLengthPrependerClient
     executors.execute(new Sender(object));
   }
 
-  private synchronized void writeObject(DataStatePair pair)
+  private synchronized void writeObject(DataStatePair pair, boolean framed)
   {
     try {
+      /* the slices are written as they are, and released once copied if they are pooled */
       if (pair.state != null) {
-        write(pair.state.buffer, pair.state.offset, pair.state.length);
+        if (!queue(pair.state, framed)) {
+          logger.warn("Dropping {} as the send buffer is full", pair);
+          pair.release();
+          return;
+        }
+        pair.state = null;
       }
 
-      write(pair.data.buffer, pair.data.offset, pair.data.length);
+      if (!queue(pair.data, framed)) {
+        logger.warn("Dropping {} as the send buffer is full", pair);
+        pair.release();
+      }
     } catch (Exception ex) {
       handleException(ex, null);
     }
   }
 
+  private synchronized void writeChunks(DefaultStatefulStreamCodec<Object> codec, Object object)
+  {
+    try {
+      codec.toChunks(object, chunkSize, this::writeChunk);
+    }
+    catch (Exception ex) {
+      handleException(ex, null);
+    }
+  }
+
+  /**
+   * Write the chunk waiting for the room in the send buffer, since dropping it would corrupt the object.
+   */
+  private void writeChunk(Slice chunk)
+  {
+    while (!write(chunk)) {
+      if (!isConnected()) {
+        if (chunk instanceof Releasable) {
+          ((Releasable)chunk).release();
+        }
+        throw new IllegalStateException("Disconnected while writing the chunks of the object!");
+      }
+      LockSupport.parkNanos(CHUNK_RETRY_NANOS);
+    }
+  }
+
+  private boolean queue(Slice slice, boolean framed)
+  {
+    return framed ? writeFrame(slice) : write(slice);
+  }
+
   public void execute(Runnable runnable)
   {
     executors.execute(runnable);            
   }
   
+  /**
+   * Deserializes the object streamed by the peer as its chunks arrive.
+   *
+   * If the executor runs it on the event loop, e.g. when it runs the tasks in the calling thread, waiting for the
+   * chunks would block the thread which queues them. So the chunks are then queued without suspending the reads,
+   * and the object is deserialized on the event loop once the last of them is queued. Since the whole object is
+   * then held in memory, the connection is given up on with an {@link IOException} once more than
+   * {@link #maxDeferredSize} bytes of it are queued.
+   */
+  class ChunkReceiver implements Runnable
+  {
+    final DefaultStatefulStreamCodec<Object> codec;
+    final ChunkQueue chunks;
+    final Thread reader = Thread.currentThread();
+    /**
+     * Whether the object is deserialized by the reader; used only by the reader.
+     */
+    boolean deferred;
+    boolean complete;
+    /**
+     * Number of the bytes queued since the object is deserialized by the reader; used only by the reader.
+     */
+    long deferredSize;
+    /**
+     * Whether the reads are suspended by this receiver; guarded by the queue.
+     */
+    private boolean suspended;
+
+    ChunkReceiver(DefaultStatefulStreamCodec<Object> codec)
+    {
+      this.codec = codec;
+      this.chunks = new ChunkQueue(CHUNK_QUEUE_CAPACITY, this::suspend, this::resume);
+    }
+
+    private void suspend()
+    {
+      if (!deferred) {
+        suspended = true;
+        suspendRead();
+      }
+    }
+
+    /**
+     * Called by the thread which takes the chunks, so the read is resumed by the event loop.
+     */
+    private void resume()
+    {
+      if (suspended) {
+        suspended = false;
+        requestResumeRead();
+      }
+    }
+
+    /**
+     * Queue the chunk of the object.
+     *
+     * @return true if it's the last chunk of the object, false otherwise
+     */
+    boolean offer(Slice chunk)
+    {
+      if (deferred && (deferredSize += chunk.length) > maxDeferredSize) {
+        final String reason = "Object streamed by the peer is longer than " + maxDeferredSize + " bytes!";
+        chunks.abort(reason);
+        throw Throwables.throwSneaky(new IOException(reason));
+      }
+
+      complete = chunks.offer(chunk);
+      if (complete && deferred) {
+        receive();
+      }
+      return complete;
+    }
+
+    @Override
+    public void run()
+    {
+      if (Thread.currentThread() == reader) {
+        deferred = true;
+        synchronized (chunks) {
+          resume();
+        }
+        if (!complete) {
+          return;
+        }
+      }
+      receive();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void receive()
+    {
+      onMessage((T)codec.fromChunks(chunks));
+    }
+  }
+
   class Receiver implements Runnable
   {
     DataStatePair pair;
@@ -121,6 +373,106 @@ public abstract class Client<T> extends AbstractLengthPrependerClient
     }
   }
 
+  /**
+   * Decodes a message in parallel with the others once the state preceding it is applied on the event loop.
+   */
+  class Decoder implements Runnable
+  {
+    final ThreadLocalStatefulStreamCodec<Object> codec;
+    final Slice data;
+    final long sequence;
+
+    Decoder(ThreadLocalStatefulStreamCodec<Object> codec, Slice data, long sequence)
+    {
+      this.codec = codec;
+      this.data = data;
+      this.sequence = sequence;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void run()
+    {
+      if (sequence < 0) {
+        onMessage((T)codec.decode(data));
+        return;
+      }
+
+      Object object = UNDECODABLE;
+      try {
+        object = codec.decode(data);
+      }
+      catch (RuntimeException ex) {
+        logger.error("Skipping the message {} which could not be decoded", sequence, ex);
+      }
+      finally {
+        /* do not hold up the messages which follow, even if an error is on its way up */
+        deliver(sequence, object);
+      }
+    }
+  }
+
+  /**
+   * Deliver the messages decoded in parallel in the order they were received. The thread which decodes the next
+   * message in the order delivers it along with the ones decoded before it by the other threads.
+   */
+  @SuppressWarnings("unchecked")
+  private void deliver(long sequence, Object object)
+  {
+    synchronized (decoded) {
+      decoded.put(sequence, object);
+      if (delivering) {
+        return;
+      }
+      delivering = true;
+    }
+
+    boolean delivered = false;
+    try {
+      while (true) {
+        final Object next;
+        synchronized (decoded) {
+          if (!decoded.containsKey(deliverySequence)) {
+            delivering = false;
+            delivered = true;
+            return;
+          }
+          next = decoded.remove(deliverySequence++);
+        }
+
+        if (next != UNDECODABLE) {
+          onMessage((T)next);
+        }
+      }
+    }
+    finally {
+      if (!delivered) {
+        /* let the next decoder carry on delivering if the handler threw */
+        synchronized (decoded) {
+          delivering = false;
+        }
+      }
+    }
+  }
+
+  public boolean isOrderedDelivery()
+  {
+    return orderedDelivery;
+  }
+
+  /**
+   * Deliver the messages decoded in parallel in the order they were received instead of in the order they are
+   * decoded. It needs to be set before the connection is established; it does not affect the messages which are
+   * decoded by a single codec.
+   *
+   * @param orderedDelivery true if the messages are to be delivered in the order they are received.
+   * @since 2.0.0
+   */
+  public void setOrderedDelivery(boolean orderedDelivery)
+  {
+    this.orderedDelivery = orderedDelivery;
+  }
+
   /**
    * @return the serdes
    */
@@ -142,8 +494,30 @@ public abstract class Client<T> extends AbstractLengthPrependerClient
   public void onMessage(byte[] buffer, int offset, int size)
   {
     if (size > 0) {
-      if (buffer[offset] == StatefulStreamCodec.MessageType.STATE.getByte()) {
-        state = new Slice(buffer, offset, size);
+      final StatefulStreamCodec<Object> codec = serdes;
+      if (codec instanceof ThreadLocalStatefulStreamCodec) {
+        final ThreadLocalStatefulStreamCodec<Object> parallel = (ThreadLocalStatefulStreamCodec<Object>)codec;
+        if (StatefulStreamCodec.MessageType.valueOf(buffer[offset]) == StatefulStreamCodec.MessageType.STATE) {
+          /* cheap and ordered; registered before any of the messages which follow it is decoded */
+          parallel.applyState(new Slice(buffer, offset, size));
+        }
+        else {
+          executors.execute(new Decoder(parallel, new Slice(buffer, offset, size), orderedDelivery ? decodeSequence++ : -1));
+        }
+        return;
+      }
+
+      final byte type = buffer[offset];
+      if (StatefulStreamCodec.MessageType.valueOf(type) == StatefulStreamCodec.MessageType.STATE) {
+        if (receiver == null) {
+          state = new Slice(buffer, offset, size);
+        }
+        else {
+          receiver.offer(new Slice(buffer, offset, size));
+        }
+      }
+      else if (receiver != null || (type & StatefulStreamCodec.MessageType.PARTIAL) != 0) {
+        onChunk(new Slice(buffer, offset, size));
       }
       else {
         final DataStatePair pair = new DataStatePair();
@@ -155,6 +529,75 @@ public abstract class Client<T> extends AbstractLengthPrependerClient
     }
   }
 
+  /**
+   * Queue the chunk of the object streamed by the peer, and start deserializing the object with its first chunk.
+   */
+  private void onChunk(Slice chunk)
+  {
+    if (receiver == null) {
+      final StatefulStreamCodec<Object> codec = StatefulStreamCodec.Synchronized.unwrapIfWrapped(serdes);
+      if (!(codec instanceof DefaultStatefulStreamCodec)) {
+        throw new IllegalStateException("Chunks of the objects cannot be deserialized by " + codec);
+      }
+
+      receiver = new ChunkReceiver((DefaultStatefulStreamCodec<Object>)codec);
+      if (state != null) {
+        receiver.offer(state);
+        state = null;
+      }
+      executors.execute(receiver);
+    }
+
+    if (receiver.offer(chunk)) {
+      receiver = null;
+    }
+  }
+
+  @Override
+  public void registered(SelectionKey key)
+  {
+    eventThread = Thread.currentThread();
+    super.registered(key);
+  }
+
+  @Override
+  public void disconnected()
+  {
+    if (receiver != null) {
+      receiver.chunks.abort("Disconnected before the last chunk of the object!");
+      receiver = null;
+    }
+    super.disconnected();
+  }
+
+  public int getChunkSize()
+  {
+    return chunkSize;
+  }
+
+  /**
+   * Stream the objects sent by this client in the chunks of the given size as they are serialized, so that the
+   * objects larger than that are never serialized whole in memory; see {@link DefaultStatefulStreamCodec#toChunks}.
+   * The objects streamed by the peer are received regardless of this setting.
+   *
+   * The sender of the chunks waits for the room in the send buffer while holding off the other senders, and only
+   * the event loop makes the room. So the objects sent from the event loop itself are serialized whole, and the
+   * executor needs to run the senders on the threads which can afford to wait, e.g. its own threads; an executor
+   * which runs the tasks in the calling thread makes the callers of {@link #send(Object)} wait instead.
+   *
+   * @param chunkSize the largest number of the bytes of an object in a chunk, 0 to serialize the objects whole.
+   * @since 2.0.0
+   */
+  public void setChunkSize(int chunkSize)
+  {
+    if (chunkSize != 0) {
+      if (chunkSize < DefaultStatefulStreamCodec.MIN_CHUNK_SIZE) {
+        throw new IllegalArgumentException("Chunk size " + chunkSize + " is smaller than " + DefaultStatefulStreamCodec.MIN_CHUNK_SIZE);
+      }
+    }
+    this.chunkSize = chunkSize;
+  }
+
   public static class Ack
   {
     protected static final AtomicInteger counter = new AtomicInteger();
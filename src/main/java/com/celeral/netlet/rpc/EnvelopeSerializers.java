@@ -0,0 +1,335 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.rpc;
+
+import java.lang.reflect.Constructor;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import com.celeral.netlet.codec.ClassCache;
+import com.celeral.netlet.rpc.Client.Ack;
+import com.celeral.netlet.rpc.Client.ExtendedRPC;
+import com.celeral.netlet.rpc.Client.RPC;
+import com.celeral.netlet.rpc.Client.RR;
+
+/**
+ * Serializers of the envelopes in which {@link Client} sends the calls and their responses.
+ *
+ * They write the fields one after the other without any reflection: the ids as varints, the arrays as their
+ * varint lengths followed by the elements, and the exceptions as their class name, message, trimmed stack trace
+ * and cause instead of the Java serialization. The exceptions are recreated from their class name and message, so
+ * any other state they carry does not make it to the other end; the ones which cannot be recreated are
+ * delivered as {@link RemoteException}.
+ *
+ * @since 2.0.0
+ */
+public final class EnvelopeSerializers
+{
+  /**
+   * Default number of the innermost stack frames of the exceptions sent along with them.
+   */
+  public static final int DEFAULT_STACK_DEPTH = 16;
+  /**
+   * Number of the causes of the exceptions sent along with them.
+   */
+  public static final int MAX_CAUSES = 8;
+
+  private EnvelopeSerializers()
+  {
+  }
+
+  /**
+   * Register the serializers of all the envelopes with the exceptions sent with {@link #DEFAULT_STACK_DEPTH}
+   * stack frames.
+   *
+   * @param kryo kryo to register the serializers with
+   */
+  public static void register(Kryo kryo)
+  {
+    register(kryo, DEFAULT_STACK_DEPTH);
+  }
+
+  /**
+   * Register the serializers of all the envelopes.
+   *
+   * @param kryo kryo to register the serializers with
+   * @param stackDepth number of the innermost stack frames of the exceptions sent along with them, 0 for none
+   */
+  public static void register(Kryo kryo, int stackDepth)
+  {
+    kryo.register(Ack.class, new AckSerializer());
+    kryo.register(RPC.class, new RPCSerializer());
+    kryo.register(ExtendedRPC.class, new ExtendedRPCSerializer());
+    kryo.register(RR.class, new RRSerializer(stackDepth));
+  }
+
+  static void writeArray(Kryo kryo, Output output, Object[] array)
+  {
+    if (array == null) {
+      output.writeVarInt(0, true);
+    }
+    else {
+      output.writeVarInt(array.length + 1, true);
+      for (Object object : array) {
+        kryo.writeClassAndObject(output, object);
+      }
+    }
+  }
+
+  static Object[] readArray(Kryo kryo, Input input)
+  {
+    int length = input.readVarInt(true) - 1;
+    if (length < 0) {
+      return null;
+    }
+
+    Object[] array = new Object[length];
+    for (int i = 0; i < length; i++) {
+      array[i] = kryo.readClassAndObject(input);
+    }
+    return array;
+  }
+
+  public static class AckSerializer extends Serializer<Ack>
+  {
+    public AckSerializer()
+    {
+      setImmutable(true);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, Ack ack)
+    {
+      output.writeVarInt(ack.id, true);
+    }
+
+    @Override
+    public Ack read(Kryo kryo, Input input, Class<Ack> type)
+    {
+      return new Ack(input.readVarInt(true));
+    }
+
+  }
+
+  public static class RPCSerializer extends Serializer<RPC>
+  {
+    @Override
+    public void write(Kryo kryo, Output output, RPC rpc)
+    {
+      output.writeVarInt(rpc.id, true);
+      output.writeVarInt(rpc.methodId, true);
+      kryo.writeClassAndObject(output, rpc.identifier);
+      writeArray(kryo, output, rpc.args);
+      writeArray(kryo, output, rpc.deletedIdentifiers);
+    }
+
+    @Override
+    public RPC read(Kryo kryo, Input input, Class<RPC> type)
+    {
+      int id = input.readVarInt(true);
+      int methodId = input.readVarInt(true);
+      Object identifier = kryo.readClassAndObject(input);
+      RPC rpc = new RPC(id, methodId, identifier, readArray(kryo, input));
+      rpc.deletedIdentifiers = readArray(kryo, input);
+      return rpc;
+    }
+
+  }
+
+  public static class ExtendedRPCSerializer extends Serializer<ExtendedRPC>
+  {
+    @Override
+    public void write(Kryo kryo, Output output, ExtendedRPC rpc)
+    {
+      output.writeVarInt(rpc.id, true);
+      output.writeVarInt(rpc.methodId, true);
+      kryo.writeClassAndObject(output, rpc.serializableMethod);
+      kryo.writeClassAndObject(output, rpc.identifier);
+      writeArray(kryo, output, rpc.args);
+      writeArray(kryo, output, rpc.deletedIdentifiers);
+    }
+
+    @Override
+    public ExtendedRPC read(Kryo kryo, Input input, Class<ExtendedRPC> type)
+    {
+      int id = input.readVarInt(true);
+      int methodId = input.readVarInt(true);
+      Object method = kryo.readClassAndObject(input);
+      Object identifier = kryo.readClassAndObject(input);
+      ExtendedRPC rpc = new ExtendedRPC(id, method, methodId, identifier, readArray(kryo, input));
+      rpc.deletedIdentifiers = readArray(kryo, input);
+      return rpc;
+    }
+
+  }
+
+  public static class RRSerializer extends Serializer<RR>
+  {
+    private final int stackDepth;
+
+    public RRSerializer()
+    {
+      this(DEFAULT_STACK_DEPTH);
+    }
+
+    public RRSerializer(int stackDepth)
+    {
+      this.stackDepth = stackDepth;
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, RR rr)
+    {
+      output.writeVarInt(rr.id, true);
+      kryo.writeClassAndObject(output, rr.response);
+      writeArray(kryo, output, rr.removedIdentifiers);
+      writeThrowable(output, rr.exception, stackDepth);
+    }
+
+    @Override
+    public RR read(Kryo kryo, Input input, Class<RR> type)
+    {
+      int id = input.readVarInt(true);
+      Object response = kryo.readClassAndObject(input);
+      Object[] removedIdentifiers = readArray(kryo, input);
+      RR rr = new RR(id, response, readThrowable(kryo, input));
+      rr.removedIdentifiers = removedIdentifiers;
+      return rr;
+    }
+
+  }
+
+  /**
+   * Write the exception and its causes, each as its class name, message and the innermost stack frames. The
+   * number of causes followed by them is written ahead, with 0 for no exception at all.
+   */
+  static void writeThrowable(Output output, Throwable throwable, int stackDepth)
+  {
+    int count = 0;
+    for (Throwable t = throwable; t != null && count < MAX_CAUSES; t = t.getCause() == t ? null : t.getCause()) {
+      count++;
+    }
+    output.writeVarInt(count, true);
+
+    for (Throwable t = throwable; count-- > 0; t = t.getCause()) {
+      output.writeString(t.getClass().getName());
+      output.writeString(t.getMessage());
+
+      StackTraceElement[] stack = stackDepth > 0 ? t.getStackTrace() : null;
+      int depth = stack == null ? 0 : Math.min(stack.length, stackDepth);
+      output.writeVarInt(depth, true);
+      for (int i = 0; i < depth; i++) {
+        StackTraceElement element = stack[i];
+        output.writeString(element.getClassName());
+        output.writeString(element.getMethodName());
+        output.writeString(element.getFileName());
+        output.writeVarInt(element.getLineNumber(), false);
+      }
+    }
+  }
+
+  static Throwable readThrowable(Kryo kryo, Input input)
+  {
+    int count = input.readVarInt(true);
+    if (count == 0) {
+      return null;
+    }
+
+    Throwable[] throwables = new Throwable[count];
+    for (int i = 0; i < count; i++) {
+      String className = input.readString();
+      String message = input.readString();
+      Throwable throwable = newThrowable(kryo, className, message);
+
+      StackTraceElement[] stack = new StackTraceElement[input.readVarInt(true)];
+      for (int j = 0; j < stack.length; j++) {
+        stack[j] = new StackTraceElement(input.readString(), input.readString(), input.readString(), input.readVarInt(false));
+      }
+      throwable.setStackTrace(stack);
+      throwables[i] = throwable;
+    }
+
+    for (int i = count - 1; i-- > 0;) {
+      try {
+        throwables[i].initCause(throwables[i + 1]);
+      }
+      catch (IllegalStateException | IllegalArgumentException ex) {
+        /* the exception initialized its cause itself, so the one sent with it is not delivered */
+      }
+    }
+
+    return throwables[0];
+  }
+
+  private static Throwable newThrowable(Kryo kryo, String className, String message)
+  {
+    try {
+      Class<?> type = ClassCache.forName(className, kryo.getClassLoader());
+      if (Throwable.class.isAssignableFrom(type)) {
+        try {
+          Constructor<?> constructor = type.getConstructor(String.class);
+          return (Throwable)constructor.newInstance(message);
+        }
+        catch (NoSuchMethodException ex) {
+          if (message == null) {
+            return (Throwable)type.getConstructor().newInstance();
+          }
+        }
+      }
+    }
+    catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+      /* fall through to the generic exception */
+    }
+
+    return new RemoteException(className, message);
+  }
+
+  /**
+   * Stands in for the exception thrown by the other end when it cannot be recreated, e.g. when its class is
+   * not available or cannot be instantiated with just the message.
+   */
+  public static class RemoteException extends RuntimeException
+  {
+    private final String className;
+
+    public RemoteException(String className, String message)
+    {
+      super(message);
+      this.className = className;
+    }
+
+    /**
+     * @return the name of the class of the exception thrown by the other end
+     */
+    public String getClassName()
+    {
+      return className;
+    }
+
+    @Override
+    public String toString()
+    {
+      String message = getLocalizedMessage();
+      return message == null ? className : className + ": " + message;
+    }
+
+    private static final long serialVersionUID = 202610191900L;
+  }
+
+}
@@ -39,10 +39,25 @@ public class ExecutingClient extends Client<Client.RPC>
   private final ConcurrentHashMap<Integer, Integer> notifyMap;
   private final MethodSerializer<Object> methodSerializer;
 
-  @SuppressWarnings("unchecked")
   public ExecutingClient(BeanFactory beanFactory, MethodSerializer<?> methodSerializer, Executor executor)
   {
-    super(executor);
+    this(beanFactory, methodSerializer, executor, false);
+  }
+
+  /**
+   * Create the client which executes the calls it receives on the executor.
+   *
+   * @param beanFactory      factory of the objects the calls are made on
+   * @param methodSerializer serializer of the methods called
+   * @param executor         executor of the calls
+   * @param parallel         true if the calls and the responses are deserialized and serialized in parallel on
+   *                         the threads of the executor.
+   * @since 2.0.0
+   */
+  @SuppressWarnings("unchecked")
+  public ExecutingClient(BeanFactory beanFactory, MethodSerializer<?> methodSerializer, Executor executor, boolean parallel)
+  {
+    super(executor, parallel);
     this.beanFactory = beanFactory;
     this.methodSerializer = (MethodSerializer<Object>)methodSerializer;
     this.methodMap = new ConcurrentHashMap<>();
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Base of the circular buffers whose producer index and consumer index live on separate cache lines.
+ *
+ * The indices are declared in the nested classes which are interleaved with the classes declaring the padding,
+ * as the fields of a super class are laid out before those of its sub classes. The indices are published using
+ * {@link AtomicLongFieldUpdater#lazySet} which has release semantics and are read with acquire semantics.
+ *
+ * @param <T> type of the objects in this buffer.
+ * @since 2.0.0
+ */
+abstract class AbstractPaddedCircularBuffer<T> extends AbstractQueue<T> implements UnsafeBlockingQueue<T>
+{
+  protected final AtomicReferenceArray<T> buffer;
+  protected final int buffermask;
+  /**
+   * Strategy with which the consumers wait for an element.
+   */
+  protected final WaitStrategy notEmpty;
+  /**
+   * Strategy with which the producers wait for a free slot.
+   */
+  protected final WaitStrategy notFull;
+
+  AbstractPaddedCircularBuffer(int n, WaitStrategy notEmpty, WaitStrategy notFull)
+  {
+    int i = 1;
+    while (i < n) {
+      i <<= 1;
+    }
+
+    buffer = new AtomicReferenceArray<>(i);
+    buffermask = i - 1;
+    this.notEmpty = notEmpty;
+    this.notFull = notFull;
+  }
+
+  /**
+   * Total design capacity of the buffer.
+   *
+   * @return Total capacity of the buffer
+   */
+  public int capacity()
+  {
+    return buffermask + 1;
+  }
+
+  @Override
+  public void put(T e) throws InterruptedException
+  {
+    for (int round = 0;; round++) {
+      final long ticket = notFull.prepare();
+      if (offer(e)) {
+        return;
+      }
+
+      notFull.await(ticket, round, WaitStrategy.FOREVER);
+    }
+  }
+
+  @Override
+  public boolean offer(T e, long timeout, TimeUnit unit) throws InterruptedException
+  {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (int round = 0;; round++) {
+      final long ticket = notFull.prepare();
+      if (offer(e)) {
+        return true;
+      }
+
+      final long nanos = deadline - System.nanoTime();
+      if (nanos <= 0) {
+        return false;
+      }
+
+      notFull.await(ticket, round, nanos);
+    }
+  }
+
+  @Override
+  public T take() throws InterruptedException
+  {
+    for (int round = 0;; round++) {
+      final long ticket = notEmpty.prepare();
+      final T t = poll();
+      if (t != null) {
+        return t;
+      }
+
+      notEmpty.await(ticket, round, WaitStrategy.FOREVER);
+    }
+  }
+
+  @Override
+  public T poll(long timeout, TimeUnit unit) throws InterruptedException
+  {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (int round = 0;; round++) {
+      final long ticket = notEmpty.prepare();
+      final T t = poll();
+      if (t != null) {
+        return t;
+      }
+
+      final long nanos = deadline - System.nanoTime();
+      if (nanos <= 0) {
+        return null;
+      }
+
+      notEmpty.await(ticket, round, nanos);
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super T> collection)
+  {
+    return drainTo(collection, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super T> collection, int maxElements)
+  {
+    return drain(collection::add, maxElements);
+  }
+
+  abstract static class HeadPad<T> extends AbstractPaddedCircularBuffer<T>
+  {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+
+    HeadPad(int n, WaitStrategy notEmpty, WaitStrategy notFull)
+    {
+      super(n, notEmpty, notFull);
+    }
+
+  }
+
+  /**
+   * The producer index along with the fields only the producers access.
+   */
+  abstract static class Head<T> extends HeadPad<T>
+  {
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<Head> HEAD = AtomicLongFieldUpdater.newUpdater(Head.class, "head");
+    protected volatile long head;
+    /**
+     * Last known value of the consumer index; used by the single producer to avoid reading the consumer index.
+     */
+    protected long tailCache;
+
+    Head(int n, WaitStrategy notEmpty, WaitStrategy notFull)
+    {
+      super(n, notEmpty, notFull);
+    }
+
+  }
+
+  abstract static class TailPad<T> extends Head<T>
+  {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+
+    TailPad(int n, WaitStrategy notEmpty, WaitStrategy notFull)
+    {
+      super(n, notEmpty, notFull);
+    }
+
+  }
+
+  /**
+   * The consumer index.
+   */
+  abstract static class Tail<T> extends TailPad<T>
+  {
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<Tail> TAIL = AtomicLongFieldUpdater.newUpdater(Tail.class, "tail");
+    protected volatile long tail;
+
+    Tail(int n, WaitStrategy notEmpty, WaitStrategy notFull)
+    {
+      super(n, notEmpty, notFull);
+    }
+
+    /**
+     * Publish the consumer index advanced by the single consumer after removing a run of elements.
+     *
+     * @param tail new value of the consumer index
+     */
+    final void publishTail(long tail)
+    {
+      if (tail != this.tail) {
+        TAIL.lazySet(this, tail);
+        notFull.signal();
+      }
+    }
+
+    @Override
+    public int size()
+    {
+      /* read the consumer index first so that the size is never negative */
+      final long tail = this.tail;
+      final long size = head - tail;
+      return size > buffermask ? buffermask + 1 : (int)size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+      return tail >= head;
+    }
+
+    @Override
+    public int remainingCapacity()
+    {
+      return buffermask + 1 - size();
+    }
+
+    /**
+     * Weakly consistent iterator over the elements from the consumer index to the producer index seen when it's
+     * created. The elements consumed while iterating are skipped, and so are the ones whose producers have not
+     * published them yet. It never throws {@link java.util.ConcurrentModificationException} and does not support
+     * removal.
+     *
+     * @return iterator over the elements in this buffer.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+      /* read the consumer index first so that the range never covers the slots not yet claimed */
+      final long from = tail;
+      final long to = head;
+      return new Iterator<T>()
+      {
+        private long index = from;
+        private T next;
+
+        private T advance()
+        {
+          while (index < to) {
+            final long i = Math.max(index, tail);
+            if (i >= to) {
+              break;
+            }
+            final T t = buffer.get((int)i & buffermask);
+            index = i + 1;
+            /* the slot may have been consumed and refilled after the consumer index was read */
+            if (t != null && tail <= i) {
+              return t;
+            }
+          }
+
+          index = to;
+          return null;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+          if (next == null) {
+            next = advance();
+          }
+          return next != null;
+        }
+
+        @Override
+        public T next()
+        {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          final T t = next;
+          next = null;
+          return t;
+        }
+
+      };
+    }
+
+    @Override
+    public String toString()
+    {
+      return "head=" + head + ", tail=" + tail + ", capacity=" + (buffermask + 1);
+    }
+
+  }
+
+  abstract static class Padded<T> extends Tail<T>
+  {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+
+    Padded(int n, WaitStrategy notEmpty, WaitStrategy notFull)
+    {
+      super(n, notEmpty, notFull);
+    }
+
+  }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Circular buffer of bytes for a single producer and a single consumer, backed by a direct or a memory
+ * mapped region.
+ *
+ * The producer copies the data in with {@link #offer(byte[], int, int)}, either completely or not at all. The
+ * consumer hands the readable bytes, which occupy at most two contiguous regions of the backing memory,
+ * straight to a channel with {@link #writeTo(GatheringByteChannel, long)}, or copies them out with
+ * {@link #poll(byte[], int, int)}. The indices count the bytes ever written and read, so an index also marks
+ * a position in the stream of bytes passing through the buffer.
+ *
+ * @since 2.0.0
+ */
+public class ByteRingBuffer
+{
+  private static final AtomicLongFieldUpdater<ByteRingBuffer> HEAD = AtomicLongFieldUpdater.newUpdater(ByteRingBuffer.class, "head");
+  private static final AtomicLongFieldUpdater<ByteRingBuffer> TAIL = AtomicLongFieldUpdater.newUpdater(ByteRingBuffer.class, "tail");
+  private final ByteBuffer producerRegion;
+  private final ByteBuffer[] consumerRegions;
+  private final int buffermask;
+  private volatile long head;
+  private volatile long tail;
+  /**
+   * Last known value of the consumer index; read by the producer instead of the consumer index.
+   */
+  private long tailCache;
+
+  /**
+   * Create a buffer backed by newly allocated direct memory.
+   *
+   * @param n size of the buffer to be constructed; rounded up to the next power of 2.
+   */
+  public ByteRingBuffer(int n)
+  {
+    this(ByteBuffer.allocateDirect(roundUp(n)));
+  }
+
+  /**
+   * Create a buffer backed by the remaining bytes of the given region, e.g. a {@link java.nio.MappedByteBuffer}.
+   * The position, limit and content of the region are left alone.
+   *
+   * @param region memory whose size is a power of 2
+   */
+  public ByteRingBuffer(ByteBuffer region)
+  {
+    final int capacity = region.remaining();
+    if (capacity == 0 || (capacity & (capacity - 1)) != 0) {
+      throw new IllegalArgumentException("Size of the region needs to be a power of 2 instead of " + capacity);
+    }
+
+    buffermask = capacity - 1;
+    producerRegion = region.slice();
+    consumerRegions = new ByteBuffer[] {region.slice(), region.slice()};
+  }
+
+  private static int roundUp(int n)
+  {
+    int i = 1;
+    while (i < n) {
+      i <<= 1;
+    }
+    return i;
+  }
+
+  /**
+   * Copy the data into the buffer if there is room for all of it.
+   *
+   * @param array  array containing the data
+   * @param offset offset of the data in the array
+   * @param length length of the data
+   * @return true if the data was copied, false if the buffer does not have room for it
+   */
+  public boolean offer(byte[] array, int offset, int length)
+  {
+    final long head = this.head;
+    if (!hasRoom(head, length)) {
+      return false;
+    }
+
+    final int pos = (int)head & buffermask;
+    final int first = Math.min(length, buffermask + 1 - pos);
+    /* casting as a workaround for covarients in java9 */
+    ((Buffer)producerRegion).position(pos);
+    producerRegion.put(array, offset, first);
+    if (first < length) {
+      ((Buffer)producerRegion).position(0);
+      producerRegion.put(array, offset + first, length - first);
+    }
+
+    HEAD.lazySet(this, head + length);
+    return true;
+  }
+
+  /**
+   * Copy the remaining bytes of the source into the buffer if there is room for all of them.
+   *
+   * @param src source of the data; its position is advanced past the data only if it is copied
+   * @return true if the data was copied, false if the buffer does not have room for it
+   */
+  public boolean offer(ByteBuffer src)
+  {
+    final long head = this.head;
+    final int length = src.remaining();
+    if (!hasRoom(head, length)) {
+      return false;
+    }
+
+    final int pos = (int)head & buffermask;
+    final int first = Math.min(length, buffermask + 1 - pos);
+    final int limit = src.limit();
+    ((Buffer)producerRegion).position(pos);
+    ((Buffer)src).limit(src.position() + first);
+    producerRegion.put(src);
+    ((Buffer)src).limit(limit);
+    if (first < length) {
+      ((Buffer)producerRegion).position(0);
+      producerRegion.put(src);
+    }
+
+    HEAD.lazySet(this, head + length);
+    return true;
+  }
+
+  private boolean hasRoom(long head, int length)
+  {
+    if (head + length - tailCache > buffermask + 1) {
+      tailCache = tail;
+      return head + length - tailCache <= buffermask + 1;
+    }
+
+    return true;
+  }
+
+  /**
+   * Write the readable bytes up to the given index to the channel, using a single gathering write even when
+   * they wrap around the end of the backing memory. Called only by the consumer.
+   *
+   * @param channel destination of the bytes
+   * @param limit   index past the last byte to be written
+   * @return number of bytes written
+   * @throws IOException if the channel fails to write
+   */
+  public long writeTo(GatheringByteChannel channel, long limit) throws IOException
+  {
+    final long tail = this.tail;
+    final int length = (int)(Math.min(limit, head) - tail);
+    if (length <= 0) {
+      return 0;
+    }
+
+    final int pos = (int)tail & buffermask;
+    final int first = Math.min(length, buffermask + 1 - pos);
+    final ByteBuffer region = consumerRegions[0];
+    ((Buffer)region).limit(pos + first).position(pos);
+    final long written;
+    if (first < length) {
+      final ByteBuffer wrapped = consumerRegions[1];
+      ((Buffer)wrapped).limit(length - first).position(0);
+      written = channel.write(consumerRegions);
+    }
+    else {
+      written = channel.write(region);
+    }
+
+    if (written > 0) {
+      TAIL.lazySet(this, tail + written);
+    }
+    return written;
+  }
+
+  /**
+   * Copy the readable bytes out of the buffer. Called only by the consumer.
+   *
+   * @param array  destination of the bytes
+   * @param offset offset in the array of the first byte
+   * @param max    maximum number of bytes to copy
+   * @return number of bytes copied
+   */
+  public int poll(byte[] array, int offset, int max)
+  {
+    final long tail = this.tail;
+    final int length = (int)Math.min(head - tail, max);
+    final int pos = (int)tail & buffermask;
+    final int first = Math.min(length, buffermask + 1 - pos);
+    final ByteBuffer region = consumerRegions[0];
+    ((Buffer)region).limit(buffermask + 1).position(pos);
+    region.get(array, offset, first);
+    if (first < length) {
+      ((Buffer)region).position(0);
+      region.get(array, offset + first, length - first);
+    }
+
+    if (length > 0) {
+      TAIL.lazySet(this, tail + length);
+    }
+    return length;
+  }
+
+  /**
+   * Index past the last byte written into the buffer.
+   *
+   * @return total number of bytes ever written into the buffer
+   */
+  public long head()
+  {
+    return head;
+  }
+
+  /**
+   * Index of the next byte to be read from the buffer.
+   *
+   * @return total number of bytes ever read from the buffer
+   */
+  public long tail()
+  {
+    return tail;
+  }
+
+  public int size()
+  {
+    final long tail = this.tail;
+    return (int)(head - tail);
+  }
+
+  public boolean isEmpty()
+  {
+    return tail >= head;
+  }
+
+  public int capacity()
+  {
+    return buffermask + 1;
+  }
+
+  public int remainingCapacity()
+  {
+    return buffermask + 1 - size();
+  }
+
+  @Override
+  public String toString()
+  {
+    return "head=" + head + ", tail=" + tail + ", capacity=" + (buffermask + 1);
+  }
+
+}
@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -36,7 +37,8 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
 {
   private final T[] buffer;
   private final int buffermask;
-  private final int spinMillis;
+  private final WaitStrategy notEmpty;
+  private final WaitStrategy notFull;
   protected volatile long tail;
   protected volatile long head;
 
@@ -49,8 +51,21 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
    * @param spin time in milliseconds for which to wait before checking for expected value if it's missing
    * <br>
    */
-  @SuppressWarnings("unchecked")
   public CircularBuffer(int n, int spin)
+  {
+    this(n, new SleepingWaitStrategy(spin), new SleepingWaitStrategy(spin));
+  }
+
+  /**
+   * Constructing a circular buffer of 'n' elements whose blocking operations wait using the given strategies.
+   *
+   * @param n        size of the buffer to be constructed
+   * @param notEmpty strategy with which the consumer waits for an element
+   * @param notFull  strategy with which the producer waits for a free slot
+   * @since 2.0.0
+   */
+  @SuppressWarnings("unchecked")
+  public CircularBuffer(int n, WaitStrategy notEmpty, WaitStrategy notFull)
   {
     int i = 1;
     while (i < n) {
@@ -60,14 +75,16 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
     buffer = (T[])new Object[i];
     buffermask = i - 1;
 
-    spinMillis = spin;
+    this.notEmpty = notEmpty;
+    this.notFull = notFull;
   }
 
-  private CircularBuffer(T[] buffer, int buffermask, int spinMillis)
+  private CircularBuffer(T[] buffer, int buffermask, WaitStrategy notEmpty, WaitStrategy notFull)
   {
     this.buffer = buffer;
     this.buffermask = buffermask;
-    this.spinMillis = spinMillis;
+    this.notEmpty = notEmpty;
+    this.notFull = notFull;
   }
 
   /**
@@ -89,6 +106,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
     if (head - tail <= buffermask) {
       buffer[(int)(head & buffermask)] = e;
       head++;
+      notEmpty.signal();
       return true;
     }
 
@@ -103,6 +121,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
       T t = buffer[pos];
       buffer[pos] = null;
       tail++;
+      notFull.signal();
       return t;
     }
 
@@ -141,14 +160,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
   @Override
   public int drainTo(Collection<? super T> container)
   {
-    int size = size();
-
-    while (head > tail) {
-      container.add(buffer[(int)(tail & buffermask)]);
-      tail++;
-    }
-
-    return size;
+    return drainTo(container, Integer.MAX_VALUE);
   }
 
   @Override
@@ -163,6 +175,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
     if (head - tail <= buffermask) {
       buffer[(int)(head & buffermask)] = e;
       head++;
+      notEmpty.signal();
       return true;
     }
 
@@ -170,77 +183,67 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
   }
 
   @Override
-  @SuppressWarnings("SleepWhileInLoop")
   public void put(T e) throws InterruptedException
   {
-    do {
-      if (head - tail < buffermask) {
-        buffer[(int)(head & buffermask)] = e;
-        head++;
+    for (int round = 0;; round++) {
+      final long ticket = notFull.prepare();
+      if (offer(e)) {
         return;
       }
 
-      Thread.sleep(spinMillis);
-      }
-    while (true);
+      notFull.await(ticket, round, WaitStrategy.FOREVER);
+    }
   }
 
   @Override
-  @SuppressWarnings("SleepWhileInLoop")
   public boolean offer(T e, long timeout, TimeUnit unit) throws InterruptedException
   {
-    long millis = unit.toMillis(timeout);
-    do {
-      if (head - tail < buffermask) {
-        buffer[(int)(head & buffermask)] = e;
-        head++;
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (int round = 0;; round++) {
+      final long ticket = notFull.prepare();
+      if (offer(e)) {
         return true;
       }
 
-      Thread.sleep(spinMillis);
-    }
-    while ((millis -= spinMillis) >= 0);
+      final long nanos = deadline - System.nanoTime();
+      if (nanos <= 0) {
+        return false;
+      }
 
-    return false;
+      notFull.await(ticket, round, nanos);
+    }
   }
 
   @Override
-  @SuppressWarnings("SleepWhileInLoop")
   public T take() throws InterruptedException
   {
-    do {
+    for (int round = 0;; round++) {
+      final long ticket = notEmpty.prepare();
       if (head > tail) {
-        final int pos = (int)(tail & buffermask);
-        T t = buffer[pos];
-        buffer[pos] = null;
-        tail++;
-        return t;
+        return pollUnsafe();
       }
 
-      Thread.sleep(spinMillis);
+      notEmpty.await(ticket, round, WaitStrategy.FOREVER);
     }
-    while (true);
   }
 
   @Override
-  @SuppressWarnings("SleepWhileInLoop")
   public T poll(long timeout, TimeUnit unit) throws InterruptedException
   {
-    long millis = unit.toMillis(timeout);
-    do {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (int round = 0;; round++) {
+      final long ticket = notEmpty.prepare();
       if (head > tail) {
-        final int pos = (int)(tail & buffermask);
-        T t = buffer[pos];
-        buffer[pos] = null;
-        tail++;
-        return t;
+        return pollUnsafe();
       }
 
-      Thread.sleep(spinMillis);
-    }
-    while ((millis -= spinMillis) >= 0);
+      final long nanos = deadline - System.nanoTime();
+      if (nanos <= 0) {
+        return null;
+      }
 
-    return null;
+      notEmpty.await(ticket, round, nanos);
+    }
   }
 
   @Override
@@ -264,15 +267,98 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
   @Override
   public int drainTo(final Collection<? super T> collection, final int maxElements)
   {
-    int i = -1;
-    while (++i < maxElements && head > tail) {
-      final int pos = (int)(tail & buffermask);
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, maxElements);
+    for (int i = 0; i < count; i++) {
+      final int pos = (int)((tail + i) & buffermask);
       collection.add(buffer[pos]);
       buffer[pos] = null;
-      tail++;
     }
+    publishTail(tail + count);
 
-    return i;
+    return count;
+  }
+
+  @Override
+  public int drain(Consumer<? super T> consumer, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    int i = 0;
+    try {
+      while (i < count) {
+        final int pos = (int)((tail + i++) & buffermask);
+        final T t = buffer[pos];
+        buffer[pos] = null;
+        consumer.accept(t);
+      }
+    }
+    finally {
+      publishTail(tail + i);
+    }
+
+    return count;
+  }
+
+  @Override
+  public int drain(T[] array, int offset, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    for (int i = 0; i < count; i++) {
+      final int pos = (int)((tail + i) & buffermask);
+      array[offset + i] = buffer[pos];
+      buffer[pos] = null;
+    }
+    publishTail(tail + count);
+
+    return count;
+  }
+
+  /**
+   * Copies up to max elements from the head of this buffer into the array without removing them. Used along
+   * with {@link #discard(int)} by the consumer which decides how many of the elements to remove only after
+   * looking at them.
+   *
+   * @param array  destination of the elements
+   * @param offset index in the array of the first element
+   * @param max    maximum number of the elements to copy
+   * @return number of the elements copied
+   * @since 2.0.0
+   */
+  public int peek(T[] array, int offset, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    for (int i = 0; i < count; i++) {
+      array[offset + i] = buffer[(int)((tail + i) & buffermask)];
+    }
+
+    return count;
+  }
+
+  /**
+   * Removes count elements known to be present from the head of this buffer, publishing the consumer index
+   * once.
+   *
+   * @param count number of the elements to remove
+   * @since 2.0.0
+   */
+  public void discard(int count)
+  {
+    final long tail = this.tail;
+    for (int i = 0; i < count; i++) {
+      buffer[(int)((tail + i) & buffermask)] = null;
+    }
+    publishTail(tail + count);
+  }
+
+  private void publishTail(long tail)
+  {
+    if (tail != this.tail) {
+      this.tail = tail;
+      notFull.signal();
+    }
   }
 
   @Override
@@ -283,6 +369,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
       T t = buffer[pos];
       buffer[pos] = null;
       tail++;
+      notFull.signal();
       return t;
     }
 
@@ -296,6 +383,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
     T t = buffer[pos];
     buffer[pos] = null;
     tail++;
+    notFull.signal();
     return t;
   }
 
@@ -387,6 +475,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
         T t = buffer[pos];
         buffer[pos] = null;
         tail++;
+        notFull.signal();
         return t;
       }
 
@@ -409,6 +498,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
       buffer[pos] = null;
       tail++;
     }
+    notFull.signal();
 
     return array;
   }
@@ -428,6 +518,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
       buffer[pos] = null;
       tail++;
     }
+    notFull.signal();
 
     return a;
   }
@@ -462,6 +553,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
     head = 0;
     tail = 0;
     Arrays.fill(buffer, null);
+    notFull.signal();
   }
 
   @Override
@@ -472,7 +564,7 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
 
   public CircularBuffer<T> getWhitehole(final String exceptionMessage)
   {
-    CircularBuffer<T> cb = new CircularBuffer<T>(buffer, buffermask, spinMillis)
+    CircularBuffer<T> cb = new CircularBuffer<T>(buffer, buffermask, notEmpty, notFull)
     {
       @Override
       public boolean add(T e)
@@ -481,11 +573,10 @@ public class CircularBuffer<T> implements UnsafeBlockingQueue<T>
       }
 
       @Override
-      @SuppressWarnings("SleepWhileInLoop")
       public void put(T e) throws InterruptedException
       {
-        while (true) {
-          sleep(spinMillis);
+        for (int round = 0;; round++) {
+          notFull.await(notFull.prepare(), round, WaitStrategy.FOREVER);
         }
       }
 
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+/**
+ * Factory for the circular buffers suitable for the given number of producers and consumers.
+ *
+ * @since 2.0.0
+ */
+public final class CircularBuffers
+{
+  private CircularBuffers()
+  {
+  }
+
+  /**
+   * Create a buffer which is safe to use with the given concurrency.
+   *
+   * @param <T>               type of the objects in the buffer.
+   * @param n                 size of the buffer to be constructed; rounded up to the next power of 2.
+   * @param spin              time in milliseconds for which to wait before checking for expected value if it's missing
+   * @param multipleProducers true if more than one thread may add the elements concurrently.
+   * @param multipleConsumers true if more than one thread may remove the elements concurrently.
+   * @return {@link PaddedCircularBuffer}, {@link MpscCircularBuffer} or {@link MpmcCircularBuffer}.
+   */
+  public static <T> UnsafeBlockingQueue<T> newBuffer(int n, int spin, boolean multipleProducers, boolean multipleConsumers)
+  {
+    if (multipleConsumers) {
+      return new MpmcCircularBuffer<>(n, spin);
+    }
+
+    if (multipleProducers) {
+      return new MpscCircularBuffer<>(n, spin);
+    }
+
+    return new PaddedCircularBuffer<>(n, spin);
+  }
+
+  /**
+   * Create a buffer which is safe to use with the given concurrency and waits using the given strategies.
+   *
+   * @param <T>               type of the objects in the buffer.
+   * @param n                 size of the buffer to be constructed; rounded up to the next power of 2.
+   * @param notEmpty          strategy with which the consumers wait for an element
+   * @param notFull           strategy with which the producers wait for a free slot
+   * @param multipleProducers true if more than one thread may add the elements concurrently.
+   * @param multipleConsumers true if more than one thread may remove the elements concurrently.
+   * @return {@link PaddedCircularBuffer}, {@link MpscCircularBuffer} or {@link MpmcCircularBuffer}.
+   */
+  public static <T> UnsafeBlockingQueue<T> newBuffer(int n, WaitStrategy notEmpty, WaitStrategy notFull, boolean multipleProducers, boolean multipleConsumers)
+  {
+    if (multipleConsumers) {
+      return new MpmcCircularBuffer<>(n, notEmpty, notFull);
+    }
+
+    if (multipleProducers) {
+      return new MpscCircularBuffer<>(n, notEmpty, notFull);
+    }
+
+    return new PaddedCircularBuffer<>(n, notEmpty, notFull);
+  }
+
+}
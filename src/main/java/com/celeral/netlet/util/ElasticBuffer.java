@@ -13,18 +13,574 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.celeral.netlet.util;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
+ * Unbounded-looking queue for a single producer and a single consumer which grows and shrinks with the load.
+ *
+ * The elements are stored in fixed size array chunks linked to each other through their extra last slot. The
+ * producer links a new chunk as soon as it fills the current one, and the consumer hands a chunk over to a
+ * small pool once it removes the last element in it; the producer takes the chunks from the pool before
+ * allocating new ones, and the chunks which do not fit in the pool are left to the garbage collector. A burst
+ * thus grows the buffer only for as long as it takes to drain it.
+ *
+ * It extends {@link CircularBuffer} so that it can stand in for one, e.g. as the send buffer of
+ * {@link com.celeral.netlet.AbstractClient}; the inherited head and tail count the elements ever added and
+ * removed.
  *
+ * @param <T> type of the objects in this buffer.
  * @author Chetan Narsude  {@literal <chetan@apache.org>}
+ * @since 2.0.0
  */
-public class ElasticBuffer<T>
+public class ElasticBuffer<T> extends CircularBuffer<T>
 {
-  protected transient Collection<T> writeBuffer;
-  protected transient Collection<T> readBuffer;
+  private final int chunkmask;
+  private final int capacity;
+  private final WaitStrategy notEmpty;
+  private final WaitStrategy notFull;
+  /**
+   * Chunks drained by the consumer waiting to be reused by the producer.
+   */
+  private final CircularBuffer<Object[]> pool;
+  /**
+   * Chunk into which the producer adds the elements.
+   */
+  private Object[] writeChunk;
+  /**
+   * Chunk from which the consumer removes the elements.
+   */
+  private Object[] readChunk;
+
+  /**
+   * @param chunkSize number of elements in a chunk; rounded up to the next power of 2.
+   * @param capacity  maximum number of elements in the buffer
+   * @param pooled    number of drained chunks kept for reuse
+   * @param notEmpty  strategy with which the consumer waits for an element
+   * @param notFull   strategy with which the producer waits for a free slot
+   */
+  public ElasticBuffer(int chunkSize, int capacity, int pooled, WaitStrategy notEmpty, WaitStrategy notFull)
+  {
+    super(0, notEmpty, notFull);
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity needs to be positive instead of " + capacity);
+    }
+
+    int i = 1;
+    while (i < chunkSize) {
+      i <<= 1;
+    }
+
+    chunkmask = i - 1;
+    this.capacity = capacity;
+    this.notEmpty = notEmpty;
+    this.notFull = notFull;
+    pool = new CircularBuffer<>(Math.max(pooled, 1), 0);
+    readChunk = writeChunk = new Object[i + 1];
+  }
+
+  /**
+   * Buffer sharing the chunks and the indices of the given one.
+   */
+  private ElasticBuffer(ElasticBuffer<T> source)
+  {
+    super(0, source.notEmpty, source.notFull);
+    chunkmask = source.chunkmask;
+    capacity = source.capacity;
+    notEmpty = source.notEmpty;
+    notFull = source.notFull;
+    pool = source.pool;
+    readChunk = source.readChunk;
+    writeChunk = source.writeChunk;
+    head = source.head;
+    tail = source.tail;
+  }
+
+  /**
+   * @param chunkSize number of elements in a chunk; rounded up to the next power of 2.
+   * @param capacity  maximum number of elements in the buffer
+   */
+  public ElasticBuffer(int chunkSize, int capacity)
+  {
+    this(chunkSize, capacity, 2, new SleepingWaitStrategy(10), new SleepingWaitStrategy(10));
+  }
+
+  public int getChunkSize()
+  {
+    return chunkmask + 1;
+  }
+
+  private Object[] newChunk()
+  {
+    final Object[] chunk = pool.poll();
+    return chunk == null ? new Object[chunkmask + 2] : chunk;
+  }
+
+  @Override
+  public boolean offer(T e)
+  {
+    final long head = this.head;
+    if (head - tail >= capacity) {
+      return false;
+    }
+
+    final int pos = (int)head & chunkmask;
+    writeChunk[pos] = e;
+    if (pos == chunkmask) {
+      /* link the next chunk before publishing so the consumer finds it right after taking the last element */
+      final Object[] next = newChunk();
+      writeChunk[chunkmask + 1] = next;
+      writeChunk = next;
+    }
+
+    this.head = head + 1;
+    notEmpty.signal();
+    return true;
+  }
+
+  @Override
+  public boolean add(T e)
+  {
+    if (offer(e)) {
+      return true;
+    }
+
+    throw new IllegalStateException("Collection is full");
+  }
+
+  @Override
+  public void put(T e) throws InterruptedException
+  {
+    for (int round = 0;; round++) {
+      final long ticket = notFull.prepare();
+      if (offer(e)) {
+        return;
+      }
+
+      notFull.await(ticket, round, WaitStrategy.FOREVER);
+    }
+  }
+
+  @Override
+  public boolean offer(T e, long timeout, TimeUnit unit) throws InterruptedException
+  {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (int round = 0;; round++) {
+      final long ticket = notFull.prepare();
+      if (offer(e)) {
+        return true;
+      }
+
+      final long nanos = deadline - System.nanoTime();
+      if (nanos <= 0) {
+        return false;
+      }
+
+      notFull.await(ticket, round, nanos);
+    }
+  }
+
+  /**
+   * Remove the element at the given index without publishing the consumer index.
+   */
+  @SuppressWarnings("unchecked")
+  private T consume(long index)
+  {
+    final int pos = (int)index & chunkmask;
+    final T t = (T)readChunk[pos];
+    readChunk[pos] = null;
+    if (pos == chunkmask) {
+      final Object[] drained = readChunk;
+      readChunk = (Object[])drained[chunkmask + 1];
+      drained[chunkmask + 1] = null;
+      pool.offer(drained);
+    }
+    return t;
+  }
+
+  private void publishTail(long tail)
+  {
+    if (tail != this.tail) {
+      this.tail = tail;
+      notFull.signal();
+    }
+  }
+
+  @Override
+  public T pollUnsafe()
+  {
+    final long tail = this.tail;
+    final T t = consume(tail);
+    publishTail(tail + 1);
+    return t;
+  }
+
+  @Override
+  public T poll()
+  {
+    return head > tail ? pollUnsafe() : null;
+  }
+
+  @Override
+  public T remove()
+  {
+    if (head > tail) {
+      return pollUnsafe();
+    }
+
+    throw new IllegalStateException("Collection is empty");
+  }
+
+  @Override
+  public T take() throws InterruptedException
+  {
+    for (int round = 0;; round++) {
+      final long ticket = notEmpty.prepare();
+      if (head > tail) {
+        return pollUnsafe();
+      }
+
+      notEmpty.await(ticket, round, WaitStrategy.FOREVER);
+    }
+  }
+
+  @Override
+  public T poll(long timeout, TimeUnit unit) throws InterruptedException
+  {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (int round = 0;; round++) {
+      final long ticket = notEmpty.prepare();
+      if (head > tail) {
+        return pollUnsafe();
+      }
+
+      final long nanos = deadline - System.nanoTime();
+      if (nanos <= 0) {
+        return null;
+      }
+
+      notEmpty.await(ticket, round, nanos);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T peekUnsafe()
+  {
+    return (T)readChunk[(int)tail & chunkmask];
+  }
+
+  @Override
+  public T peek()
+  {
+    return head > tail ? peekUnsafe() : null;
+  }
+
+  @Override
+  public T element()
+  {
+    if (head > tail) {
+      return peekUnsafe();
+    }
+
+    throw new IllegalStateException("Collection is empty");
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public int peek(T[] array, int offset, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    Object[] chunk = readChunk;
+    for (int i = 0; i < count; i++) {
+      final int pos = (int)(tail + i) & chunkmask;
+      array[offset + i] = (T)chunk[pos];
+      if (pos == chunkmask) {
+        chunk = (Object[])chunk[chunkmask + 1];
+      }
+    }
+
+    return count;
+  }
+
+  @Override
+  public void discard(int count)
+  {
+    final long tail = this.tail;
+    for (int i = 0; i < count; i++) {
+      consume(tail + i);
+    }
+    publishTail(tail + count);
+  }
+
+  @Override
+  public int drain(Consumer<? super T> consumer, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    int i = 0;
+    try {
+      while (i < count) {
+        consumer.accept(consume(tail + i++));
+      }
+    }
+    finally {
+      publishTail(tail + i);
+    }
+
+    return count;
+  }
+
+  @Override
+  public int drain(T[] array, int offset, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    for (int i = 0; i < count; i++) {
+      array[offset + i] = consume(tail + i);
+    }
+    publishTail(tail + count);
+
+    return count;
+  }
+
+  @Override
+  public int drainTo(Collection<? super T> collection, int maxElements)
+  {
+    return drain(collection::add, maxElements);
+  }
+
+  @Override
+  public int drainTo(Collection<? super T> container)
+  {
+    return drainTo(container, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int size()
+  {
+    final long tail = this.tail;
+    return (int)(head - tail);
+  }
+
+  @Override
+  public boolean isEmpty()
+  {
+    return head == tail;
+  }
+
+  /**
+   * Maximum number of elements in the buffer; the memory used is proportional to the number of elements in it.
+   *
+   * @return maximum number of elements in the buffer
+   */
+  @Override
+  public int capacity()
+  {
+    return capacity;
+  }
+
+  @Override
+  public int remainingCapacity()
+  {
+    return capacity - size();
+  }
+
+  /**
+   * Remove all the elements; may be called only by the consumer.
+   */
+  @Override
+  public void clear()
+  {
+    discard(size());
+  }
+
+  @Override
+  public Object[] toArray()
+  {
+    @SuppressWarnings("unchecked")
+    final T[] array = (T[])new Object[size()];
+    drain(array, 0, array.length);
+    return array;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E> E[] toArray(E[] a)
+  {
+    final int size = size();
+    if (a.length < size) {
+      a = (E[])new Object[size];
+    }
+    drain((T[])a, 0, size);
+    return a;
+  }
+
+  /**
+   * Iterator which removes the elements as it returns them, same as that of {@link CircularBuffer}.
+   *
+   * @return consuming iterator over the elements in this buffer.
+   */
+  @Override
+  public Iterator<T> iterator()
+  {
+    return new Iterator<T>()
+    {
+      @Override
+      public boolean hasNext()
+      {
+        return head > tail;
+      }
+
+      @Override
+      public T next()
+      {
+        return pollUnsafe();
+      }
+
+      @Override
+      public void remove()
+      {
+      }
+
+    };
+  }
+
+  private class FrozenIterator implements Iterator<T>, Iterable<T>
+  {
+    private final long frozenHead;
+    private final long frozenTail;
+    private final Object[] frozenChunk;
+    private long tail;
+    private Object[] chunk;
+    private Object[] lastChunk;
+
+    FrozenIterator()
+    {
+      this(ElasticBuffer.this.head, ElasticBuffer.this.tail, readChunk);
+    }
+
+    FrozenIterator(long frozenHead, long frozenTail, Object[] frozenChunk)
+    {
+      this.frozenHead = frozenHead;
+      this.frozenTail = frozenTail;
+      this.frozenChunk = frozenChunk;
+      this.tail = frozenTail;
+      this.chunk = frozenChunk;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      return tail < frozenHead;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next()
+    {
+      final int pos = (int)tail++ & chunkmask;
+      lastChunk = chunk;
+      if (pos == chunkmask) {
+        chunk = (Object[])chunk[chunkmask + 1];
+      }
+      return (T)lastChunk[pos];
+    }
+
+    @Override
+    public void remove()
+    {
+      lastChunk[(int)(tail - 1) & chunkmask] = null;
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+      return new FrozenIterator(frozenHead, frozenTail, frozenChunk);
+    }
+
+  }
+
+  /**
+   * Iterator over the elements in the buffer when it's created which does not remove them; the elements
+   * removed by the consumer in the meantime may still be returned.
+   *
+   * @return iterator over the elements present at the time of the call.
+   */
+  @Override
+  public Iterator<T> getFrozenIterator()
+  {
+    return new FrozenIterator();
+  }
+
+  @Override
+  public Iterable<T> getFrozenIterable()
+  {
+    return new FrozenIterator();
+  }
+
+  /**
+   * Buffer sharing the elements of this buffer which the consumer can drain but to which nothing can be added.
+   *
+   * @param exceptionMessage message of the exception thrown when an element is added.
+   * @return the buffer which rejects the elements.
+   */
+  @Override
+  public CircularBuffer<T> getWhitehole(final String exceptionMessage)
+  {
+    return new ElasticBuffer<T>(this)
+    {
+      @Override
+      public boolean add(T e)
+      {
+        throw new IllegalStateException(exceptionMessage);
+      }
+
+      @Override
+      public void put(T e) throws InterruptedException
+      {
+        for (int round = 0;; round++) {
+          notFull.await(notFull.prepare(), round, WaitStrategy.FOREVER);
+        }
+      }
+
+      @Override
+      public boolean offer(T e)
+      {
+        return false;
+      }
+
+      @Override
+      public boolean offer(T e, long timeout, TimeUnit unit) throws InterruptedException
+      {
+        Thread.sleep(unit.toMillis(timeout));
+        return false;
+      }
+
+      @Override
+      public int remainingCapacity()
+      {
+        return 0;
+      }
+
+      @Override
+      public boolean addAll(Collection<? extends T> c)
+      {
+        throw new IllegalStateException(exceptionMessage);
+      }
+
+    };
+  }
+
+  @Override
+  public String toString()
+  {
+    return "head=" + head + ", tail=" + tail + ", capacity=" + capacity + ", chunk=" + (chunkmask + 1);
+  }
 
 }
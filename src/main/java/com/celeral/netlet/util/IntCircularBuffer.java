@@ -0,0 +1,277 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.IntConsumer;
+
+/**
+ * Circular buffer of int values for a single producer and a single consumer.
+ *
+ * It follows the contract of {@link CircularBuffer} but stores the values in an int array, so neither adding
+ * nor removing a value allocates. As an int cannot be null, the methods which would return null for an empty
+ * buffer are replaced by {@link #isEmpty()} followed by {@link #pollUnsafe()} or {@link #peekUnsafe()}, and
+ * {@link #remove()} and {@link #element()} throw instead.
+ *
+ * @since 2.0.0
+ */
+public class IntCircularBuffer
+{
+  private static final AtomicLongFieldUpdater<IntCircularBuffer> HEAD = AtomicLongFieldUpdater.newUpdater(IntCircularBuffer.class, "head");
+  private static final AtomicLongFieldUpdater<IntCircularBuffer> TAIL = AtomicLongFieldUpdater.newUpdater(IntCircularBuffer.class, "tail");
+  private final int[] buffer;
+  private final int buffermask;
+  private final WaitStrategy notEmpty;
+  private final WaitStrategy notFull;
+  private volatile long tail;
+  private volatile long head;
+
+  /**
+   * @param n        size of the buffer to be constructed; rounded up to the next power of 2.
+   * @param notEmpty strategy with which the consumer waits for a value
+   * @param notFull  strategy with which the producer waits for a free slot
+   */
+  public IntCircularBuffer(int n, WaitStrategy notEmpty, WaitStrategy notFull)
+  {
+    int i = 1;
+    while (i < n) {
+      i <<= 1;
+    }
+
+    buffer = new int[i];
+    buffermask = i - 1;
+    this.notEmpty = notEmpty;
+    this.notFull = notFull;
+  }
+
+  /**
+   * @param n    size of the buffer to be constructed; rounded up to the next power of 2.
+   * @param spin time in milliseconds for which to wait before checking for expected value if it's missing
+   */
+  public IntCircularBuffer(int n, int spin)
+  {
+    this(n, new SleepingWaitStrategy(spin), new SleepingWaitStrategy(spin));
+  }
+
+  public IntCircularBuffer(int n)
+  {
+    this(n, 10);
+  }
+
+  public boolean offer(int value)
+  {
+    final long head = this.head;
+    if (head - tail <= buffermask) {
+      buffer[(int)head & buffermask] = value;
+      HEAD.lazySet(this, head + 1);
+      notEmpty.signal();
+      return true;
+    }
+
+    return false;
+  }
+
+  public void add(int value)
+  {
+    if (!offer(value)) {
+      throw new IllegalStateException("Collection is full");
+    }
+  }
+
+  public void put(int value) throws InterruptedException
+  {
+    for (int round = 0;; round++) {
+      final long ticket = notFull.prepare();
+      if (offer(value)) {
+        return;
+      }
+
+      notFull.await(ticket, round, WaitStrategy.FOREVER);
+    }
+  }
+
+  public boolean offer(int value, long timeout, TimeUnit unit) throws InterruptedException
+  {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (int round = 0;; round++) {
+      final long ticket = notFull.prepare();
+      if (offer(value)) {
+        return true;
+      }
+
+      final long nanos = deadline - System.nanoTime();
+      if (nanos <= 0) {
+        return false;
+      }
+
+      notFull.await(ticket, round, nanos);
+    }
+  }
+
+  /**
+   * Retrieves and removes the head of this buffer.
+   *
+   * This method should be called only when the caller knows that the head is present.
+   *
+   * @return the head of this buffer.
+   */
+  public int pollUnsafe()
+  {
+    final long tail = this.tail;
+    final int value = buffer[(int)tail & buffermask];
+    TAIL.lazySet(this, tail + 1);
+    notFull.signal();
+    return value;
+  }
+
+  /**
+   * Retrieves the head of this buffer without removing it.
+   *
+   * This method should be called only when the caller knows that the head is present.
+   *
+   * @return the head of this buffer.
+   */
+  public int peekUnsafe()
+  {
+    return buffer[(int)tail & buffermask];
+  }
+
+  public int remove()
+  {
+    if (isEmpty()) {
+      throw new IllegalStateException("Collection is empty");
+    }
+
+    return pollUnsafe();
+  }
+
+  public int element()
+  {
+    if (isEmpty()) {
+      throw new IllegalStateException("Collection is empty");
+    }
+
+    return peekUnsafe();
+  }
+
+  public int take() throws InterruptedException
+  {
+    for (int round = 0;; round++) {
+      final long ticket = notEmpty.prepare();
+      if (!isEmpty()) {
+        return pollUnsafe();
+      }
+
+      notEmpty.await(ticket, round, WaitStrategy.FOREVER);
+    }
+  }
+
+  /**
+   * Removes up to max values from the head of this buffer and passes them to the consumer in order,
+   * publishing the consumer index once for the whole run.
+   *
+   * @param consumer consumer of the removed values
+   * @param max      maximum number of the values to remove
+   * @return number of the values removed
+   */
+  public int drain(IntConsumer consumer, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    int i = 0;
+    try {
+      while (i < count) {
+        consumer.accept(buffer[(int)(tail + i++) & buffermask]);
+      }
+    }
+    finally {
+      publishTail(tail + i);
+    }
+
+    return count;
+  }
+
+  /**
+   * Removes up to max values from the head of this buffer into the array, publishing the consumer index once.
+   *
+   * @param array  destination of the removed values
+   * @param offset index in the array of the first removed value
+   * @param max    maximum number of the values to remove
+   * @return number of the values removed
+   */
+  public int drain(int[] array, int offset, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    final int pos = (int)tail & buffermask;
+    final int first = Math.min(count, buffermask + 1 - pos);
+    System.arraycopy(buffer, pos, array, offset, first);
+    System.arraycopy(buffer, 0, array, offset + first, count - first);
+    publishTail(tail + count);
+
+    return count;
+  }
+
+  private void publishTail(long tail)
+  {
+    if (tail != this.tail) {
+      TAIL.lazySet(this, tail);
+      notFull.signal();
+    }
+  }
+
+  public int size()
+  {
+    final long tail = this.tail;
+    return (int)(head - tail);
+  }
+
+  public boolean isEmpty()
+  {
+    return tail >= head;
+  }
+
+  /**
+   * Total design capacity of the buffer.
+   *
+   * @return Total capacity of the buffer
+   */
+  public int capacity()
+  {
+    return buffermask + 1;
+  }
+
+  public int remainingCapacity()
+  {
+    return buffermask + 1 - size();
+  }
+
+  /**
+   * Removes all the values; may be called only by the consumer.
+   */
+  public void clear()
+  {
+    publishTail(head);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "head=" + head + ", tail=" + tail + ", capacity=" + (buffermask + 1);
+  }
+
+}
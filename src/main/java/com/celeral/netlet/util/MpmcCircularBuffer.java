@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free circular buffer for multiple producers and multiple consumers.
+ *
+ * Each slot carries a sequence number which tells whether the slot is ready to be written by the producer
+ * which claims the given producer index or to be read by the consumer which claims the given consumer index.
+ * As another consumer may take the element which was known to be present, {@link #pollUnsafe()} and
+ * {@link #peekUnsafe()} are as safe as {@link #poll()} and {@link #peek()}.
+ *
+ * @param <T> type of the objects in this buffer.
+ * @since 2.0.0
+ */
+public class MpmcCircularBuffer<T> extends AbstractPaddedCircularBuffer.Padded<T>
+{
+  private final AtomicLongArray sequences;
+
+  /**
+   * @param n    size of the buffer to be constructed; rounded up to the next power of 2 but at least 2.
+   * @param spin time in milliseconds for which to wait before checking for expected value if it's missing
+   */
+  public MpmcCircularBuffer(int n, int spin)
+  {
+    this(n, new SleepingWaitStrategy(spin), new SleepingWaitStrategy(spin));
+  }
+
+  /**
+   * @param n        size of the buffer to be constructed; rounded up to the next power of 2 but at least 2.
+   * @param notEmpty strategy with which the consumers wait for an element
+   * @param notFull  strategy with which the producers wait for a free slot
+   */
+  public MpmcCircularBuffer(int n, WaitStrategy notEmpty, WaitStrategy notFull)
+  {
+    /* the sequence of a full slot would be indistinguishable from that of the next free one with a single slot */
+    super(Math.max(n, 2), notEmpty, notFull);
+    sequences = new AtomicLongArray(buffermask + 1);
+    for (int i = 0; i <= buffermask; i++) {
+      sequences.lazySet(i, i);
+    }
+  }
+
+  public MpmcCircularBuffer(int n)
+  {
+    this(n, 10);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean offer(T e)
+  {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+
+    long head;
+    int pos;
+    for (;;) {
+      head = this.head;
+      pos = (int)head & buffermask;
+      final long difference = sequences.get(pos) - head;
+      if (difference == 0) {
+        if (HEAD.compareAndSet(this, head, head + 1)) {
+          break;
+        }
+      }
+      else if (difference < 0) {
+        return false;
+      }
+    }
+
+    buffer.lazySet(pos, e);
+    sequences.lazySet(pos, head + 1);
+    notEmpty.signal();
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T poll()
+  {
+    long tail;
+    int pos;
+    for (;;) {
+      tail = this.tail;
+      pos = (int)tail & buffermask;
+      final long difference = sequences.get(pos) - (tail + 1);
+      if (difference == 0) {
+        if (TAIL.compareAndSet(this, tail, tail + 1)) {
+          break;
+        }
+      }
+      else if (difference < 0) {
+        return null;
+      }
+    }
+
+    final T t = buffer.get(pos);
+    buffer.lazySet(pos, null);
+    sequences.lazySet(pos, tail + buffermask + 1);
+    notFull.signal();
+    return t;
+  }
+
+  @Override
+  public T pollUnsafe()
+  {
+    return poll();
+  }
+
+  @Override
+  public T peek()
+  {
+    long tail;
+    T t;
+    do {
+      tail = this.tail;
+      final int pos = (int)tail & buffermask;
+      if (sequences.get(pos) - (tail + 1) < 0) {
+        return null;
+      }
+      t = buffer.get(pos);
+    }
+    while (t == null || tail != this.tail);
+
+    return t;
+  }
+
+  @Override
+  public T peekUnsafe()
+  {
+    return peek();
+  }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Lock-free circular buffer for multiple producers and a single consumer.
+ *
+ * The producers claim the slots by advancing the producer index with a compare and set and then publish the
+ * element in the claimed slot. The consumer publishes its index with release semantics after clearing the slot.
+ * Since an element may not be visible yet in the slot claimed by a producer, {@link #pollUnsafe()} and
+ * {@link #peekUnsafe()} spin until the element appears.
+ *
+ * @param <T> type of the objects in this buffer.
+ * @since 2.0.0
+ */
+public class MpscCircularBuffer<T> extends AbstractPaddedCircularBuffer.Padded<T>
+{
+  /**
+   * @param n    size of the buffer to be constructed; rounded up to the next power of 2.
+   * @param spin time in milliseconds for which to wait before checking for expected value if it's missing
+   */
+  public MpscCircularBuffer(int n, int spin)
+  {
+    this(n, new SleepingWaitStrategy(spin), new SleepingWaitStrategy(spin));
+  }
+
+  /**
+   * @param n        size of the buffer to be constructed; rounded up to the next power of 2.
+   * @param notEmpty strategy with which the consumers wait for an element
+   * @param notFull  strategy with which the producers wait for a free slot
+   */
+  public MpscCircularBuffer(int n, WaitStrategy notEmpty, WaitStrategy notFull)
+  {
+    super(n, notEmpty, notFull);
+  }
+
+  public MpscCircularBuffer(int n)
+  {
+    this(n, 10);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean offer(T e)
+  {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+
+    long head;
+    do {
+      head = this.head;
+      if (head - tail > buffermask) {
+        return false;
+      }
+    }
+    while (!HEAD.compareAndSet(this, head, head + 1));
+
+    buffer.lazySet((int)head & buffermask, e);
+    notEmpty.signal();
+    return true;
+  }
+
+  @Override
+  public T poll()
+  {
+    final long tail = this.tail;
+    final int pos = (int)tail & buffermask;
+    T t = buffer.get(pos);
+    if (t == null) {
+      if (tail >= head) {
+        return null;
+      }
+      t = spin(pos);
+    }
+
+    return consume(tail, pos, t);
+  }
+
+  @Override
+  public T pollUnsafe()
+  {
+    final long tail = this.tail;
+    final int pos = (int)tail & buffermask;
+    return consume(tail, pos, spin(pos));
+  }
+
+  @SuppressWarnings("unchecked")
+  private T consume(long tail, int pos, T t)
+  {
+    buffer.lazySet(pos, null);
+    TAIL.lazySet(this, tail + 1);
+    notFull.signal();
+    return t;
+  }
+
+  /**
+   * Wait for the producer which claimed the slot to publish the element in it.
+   */
+  private T spin(int pos)
+  {
+    T t;
+    while ((t = buffer.get(pos)) == null) {
+      Thread.yield();
+    }
+    return t;
+  }
+
+  @Override
+  public int drain(Consumer<? super T> consumer, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    int i = 0;
+    try {
+      while (i < count) {
+        final int pos = (int)(tail + i++) & buffermask;
+        final T t = spin(pos);
+        buffer.lazySet(pos, null);
+        consumer.accept(t);
+      }
+    }
+    finally {
+      publishTail(tail + i);
+    }
+
+    return count;
+  }
+
+  @Override
+  public int drain(T[] array, int offset, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    for (int i = 0; i < count; i++) {
+      final int pos = (int)(tail + i) & buffermask;
+      array[offset + i] = spin(pos);
+      buffer.lazySet(pos, null);
+    }
+    publishTail(tail + count);
+
+    return count;
+  }
+
+  @Override
+  public T peek()
+  {
+    final long tail = this.tail;
+    final int pos = (int)tail & buffermask;
+    final T t = buffer.get(pos);
+    if (t == null && tail < head) {
+      return spin(pos);
+    }
+    return t;
+  }
+
+  @Override
+  public T peekUnsafe()
+  {
+    return spin((int)tail & buffermask);
+  }
+
+}
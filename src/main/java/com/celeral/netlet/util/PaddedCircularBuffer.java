@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Circular buffer for a single producer and a single consumer.
+ *
+ * Unlike {@link CircularBuffer}, the producer index and the consumer index are kept on separate cache lines,
+ * they are published with release semantics instead of the full fence of a volatile write, and the producer
+ * reads the consumer index only when the buffer looks full.
+ *
+ * @param <T> type of the objects in this buffer.
+ * @since 2.0.0
+ */
+public class PaddedCircularBuffer<T> extends AbstractPaddedCircularBuffer.Padded<T>
+{
+  /**
+   * @param n    size of the buffer to be constructed; rounded up to the next power of 2.
+   * @param spin time in milliseconds for which to wait before checking for expected value if it's missing
+   */
+  public PaddedCircularBuffer(int n, int spin)
+  {
+    this(n, new SleepingWaitStrategy(spin), new SleepingWaitStrategy(spin));
+  }
+
+  /**
+   * @param n        size of the buffer to be constructed; rounded up to the next power of 2.
+   * @param notEmpty strategy with which the consumers wait for an element
+   * @param notFull  strategy with which the producers wait for a free slot
+   */
+  public PaddedCircularBuffer(int n, WaitStrategy notEmpty, WaitStrategy notFull)
+  {
+    super(n, notEmpty, notFull);
+  }
+
+  public PaddedCircularBuffer(int n)
+  {
+    this(n, 10);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean offer(T e)
+  {
+    final long head = this.head;
+    if (head - tailCache > buffermask) {
+      tailCache = tail;
+      if (head - tailCache > buffermask) {
+        return false;
+      }
+    }
+
+    buffer.lazySet((int)head & buffermask, e);
+    HEAD.lazySet(this, head + 1);
+    notEmpty.signal();
+    return true;
+  }
+
+  @Override
+  public T poll()
+  {
+    final long tail = this.tail;
+    if (tail >= head) {
+      return null;
+    }
+
+    return poll(tail);
+  }
+
+  @Override
+  public T pollUnsafe()
+  {
+    return poll(tail);
+  }
+
+  @SuppressWarnings("unchecked")
+  private T poll(long tail)
+  {
+    final int pos = (int)tail & buffermask;
+    final T t = buffer.get(pos);
+    buffer.lazySet(pos, null);
+    TAIL.lazySet(this, tail + 1);
+    notFull.signal();
+    return t;
+  }
+
+  @Override
+  public int drain(Consumer<? super T> consumer, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    int i = 0;
+    try {
+      while (i < count) {
+        final int pos = (int)(tail + i++) & buffermask;
+        final T t = buffer.get(pos);
+        buffer.lazySet(pos, null);
+        consumer.accept(t);
+      }
+    }
+    finally {
+      publishTail(tail + i);
+    }
+
+    return count;
+  }
+
+  @Override
+  public int drain(T[] array, int offset, int max)
+  {
+    final long tail = this.tail;
+    final int count = (int)Math.min(head - tail, max);
+    for (int i = 0; i < count; i++) {
+      final int pos = (int)(tail + i) & buffermask;
+      array[offset + i] = buffer.get(pos);
+      buffer.lazySet(pos, null);
+    }
+    publishTail(tail + count);
+
+    return count;
+  }
+
+  @Override
+  public T peek()
+  {
+    final long tail = this.tail;
+    return tail < head ? buffer.get((int)tail & buffermask) : null;
+  }
+
+  @Override
+  public T peekUnsafe()
+  {
+    return buffer.get((int)tail & buffermask);
+  }
+
+}
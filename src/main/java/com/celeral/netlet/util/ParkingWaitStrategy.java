@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Parks the waiting threads and unparks them as soon as the state of the buffer changes, optionally after
+ * busy spinning and yielding for a few rounds.
+ *
+ * A thread which is about to park registers itself first and returns, so the caller checks the buffer once
+ * more with a ticket taken while it is registered; the ticket records the registration along with the
+ * sequence. A signal bumps the sequence and unparks the registered threads only if there are any, and the
+ * registered thread parks only if the sequence still matches its ticket. Since both the registration and the
+ * publication of the change are followed by a full fence before the other side is read, either the thread
+ * sees the change or the signal sees the thread and the wake up is not lost. A thread left registered after
+ * its wait ends is unparked and dropped by the next signal, which causes at most one spurious wake up. The
+ * signal costs a volatile write to a location no other thread reads and a volatile read when no thread
+ * waits.
+ *
+ * @since 2.0.0
+ */
+public class ParkingWaitStrategy implements WaitStrategy
+{
+  private static final AtomicLongFieldUpdater<ParkingWaitStrategy> SEQUENCE = AtomicLongFieldUpdater.newUpdater(ParkingWaitStrategy.class, "sequence");
+  private static final AtomicLongFieldUpdater<ParkingWaitStrategy> WAITING = AtomicLongFieldUpdater.newUpdater(ParkingWaitStrategy.class, "waiting");
+  private static final long REGISTERED = 1;
+  /* the fence slot sits in the middle of the array so the write does not share a cache line with other data */
+  private static final int FENCE = 8;
+  private final AtomicLongArray fence = new AtomicLongArray(FENCE * 2);
+  private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
+  private final int spins;
+  private final int yields;
+  private volatile long sequence;
+  private volatile long waiting;
+
+  /**
+   * Creates a strategy which parks right away.
+   */
+  public ParkingWaitStrategy()
+  {
+    this(0, 0);
+  }
+
+  /**
+   * Creates a strategy which parks after busy spinning and then yielding for the given number of rounds.
+   *
+   * @param spins  number of rounds to busy spin
+   * @param yields number of rounds to yield the processor after spinning
+   */
+  public ParkingWaitStrategy(int spins, int yields)
+  {
+    this.spins = spins;
+    this.yields = yields;
+  }
+
+  @Override
+  public long prepare()
+  {
+    final long sequence = this.sequence;
+    if (waiting != 0 && waiters.contains(Thread.currentThread())) {
+      return sequence << 1 | REGISTERED;
+    }
+
+    return sequence << 1;
+  }
+
+  @Override
+  public void await(long ticket, int round, long nanos) throws InterruptedException
+  {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+
+    if (round < spins) {
+      return;
+    }
+
+    if (round < spins + yields) {
+      Thread.yield();
+      return;
+    }
+
+    if ((ticket & REGISTERED) == 0) {
+      /* the caller checked the buffer before registering; let it check again with a registered ticket */
+      waiters.add(Thread.currentThread());
+      WAITING.incrementAndGet(this);
+      return;
+    }
+
+    if (sequence == ticket >>> 1) {
+      if (nanos == FOREVER) {
+        LockSupport.park(this);
+      }
+      else {
+        LockSupport.parkNanos(this, nanos);
+      }
+    }
+
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+  }
+
+  @Override
+  public void signal()
+  {
+    /* orders the change the caller published before the read of the number of waiting threads */
+    fence.set(FENCE, 0);
+    if (waiting != 0) {
+      SEQUENCE.incrementAndGet(this);
+      /* wake up all of them; the one which loses the race for the element registers and waits again */
+      Thread thread;
+      while ((thread = waiters.poll()) != null) {
+        WAITING.decrementAndGet(this);
+        LockSupport.unpark(thread);
+      }
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ParkingWaitStrategy{" + "spins=" + spins + ", yields=" + yields + ", waiting=" + waiting + '}';
+  }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+/**
+ * A slice whose array is borrowed from a {@link SlicePool} and returned to it when the last reference to the
+ * slice is released.
+ *
+ * The slice starts at the beginning of the array, which may be longer than the slice. The fields of the slice
+ * may be adjusted by its owner but the array is always returned to the pool, so the slice must not be used in
+ * any way once it's released.
+ *
+ * @since 2.0.0
+ */
+public class PooledSlice extends ReferenceCountedSlice
+{
+  private final transient SlicePool pool;
+  final transient int sizeClass;
+  final byte[] array;
+  transient SlicePool.Leak leak;
+
+  PooledSlice(SlicePool pool, int sizeClass, byte[] array, int length)
+  {
+    super(array, 0, length);
+    this.pool = pool;
+    this.sizeClass = sizeClass;
+    this.array = array;
+  }
+
+  /**
+   * Get the length of the array backing this slice.
+   *
+   * @return maximum length of the slice.
+   */
+  public int capacity()
+  {
+    return array.length;
+  }
+
+  /**
+   * Hand the released slice out again.
+   */
+  void reuse(int length)
+  {
+    revive();
+    buffer = array;
+    offset = 0;
+    this.length = length;
+  }
+
+  @Override
+  protected void deallocate()
+  {
+    pool.free(this);
+  }
+
+  private static final long serialVersionUID = 202610191700L;
+}
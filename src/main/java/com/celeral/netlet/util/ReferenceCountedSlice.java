@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A slice which is shared by many users, each of which holds a reference to it.
+ *
+ * The slice starts with a single reference owned by its creator. Every additional user retains it and
+ * releases it when done; when the last reference is released, {@link #deallocate()} is called, which
+ * can be overridden to return the array to a pool.
+ *
+ * @since 2.0.0
+ */
+public class ReferenceCountedSlice extends Slice implements Releasable
+{
+  private final AtomicInteger references = new AtomicInteger(1);
+
+  public ReferenceCountedSlice(byte[] array, int offset, int length)
+  {
+    super(array, offset, length);
+  }
+
+  public ReferenceCountedSlice(byte[] array)
+  {
+    super(array);
+  }
+
+  /**
+   * Add the given number of references.
+   *
+   * @param count number of references to be added.
+   * @return this slice.
+   * @throws IllegalStateException if the slice was already deallocated.
+   */
+  public ReferenceCountedSlice retain(int count)
+  {
+    int current;
+    do {
+      current = references.get();
+      if (current <= 0) {
+        throw new IllegalStateException("Retaining deallocated " + this);
+      }
+    }
+    while (!references.compareAndSet(current, current + count));
+    return this;
+  }
+
+  public ReferenceCountedSlice retain()
+  {
+    return retain(1);
+  }
+
+  @Override
+  public void release()
+  {
+    int current;
+    do {
+      current = references.get();
+      if (current <= 0) {
+        throw new IllegalStateException("Released more times than retained " + this);
+      }
+    }
+    while (!references.compareAndSet(current, current - 1));
+
+    if (current == 1) {
+      deallocate();
+    }
+  }
+
+  public int references()
+  {
+    return references.get();
+  }
+
+  /**
+   * Make the deallocated slice usable again with a single reference owned by the caller, which lets the slices
+   * be pooled.
+   *
+   * @throws IllegalStateException if the slice is still referenced.
+   */
+  protected void revive()
+  {
+    if (!references.compareAndSet(0, 1)) {
+      throw new IllegalStateException("Reviving referenced " + this);
+    }
+  }
+
+  /**
+   * Called when the last reference is released.
+   */
+  protected void deallocate()
+  {
+  }
+
+  private static final long serialVersionUID = 202610191200L;
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+/**
+ * A resource which needs to be released once its user is done with it.
+ *
+ * The slices queued for sending by {@link com.celeral.netlet.AbstractClient} which implement this interface
+ * are released as soon as their data is copied into the write buffer instead of being recycled.
+ *
+ * @since 2.0.0
+ */
+public interface Releasable
+{
+  void release();
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sleeps a fixed amount of time between the checks; the behavior of the circular buffers constructed with a
+ * spin time.
+ *
+ * The sleep is cut short when it would overrun the remaining time, so the timeouts do not drift by up to the
+ * spin time as they used to.
+ *
+ * @since 2.0.0
+ */
+public class SleepingWaitStrategy implements WaitStrategy
+{
+  private final long sleepNanos;
+
+  /**
+   * @param millis time in milliseconds for which to sleep before checking the buffer again
+   */
+  public SleepingWaitStrategy(int millis)
+  {
+    sleepNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  @Override
+  public long prepare()
+  {
+    return 0;
+  }
+
+  @Override
+  public void await(long ticket, int round, long nanos) throws InterruptedException
+  {
+    final long sleep = Math.min(sleepNanos, nanos);
+    Thread.sleep(sleep / 1000000L, (int)(sleep % 1000000L));
+  }
+
+  @Override
+  public void signal()
+  {
+  }
+
+}
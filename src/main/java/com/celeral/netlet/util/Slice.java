@@ -56,7 +56,6 @@ public class Slice implements Serializable, Cloneable
   {
     int hash = 5;
     hash = 59 * hash + MurmurHash.hash(buffer, hash, offset, length);
-    hash = 59 * hash + this.offset;
     hash = 59 * hash + this.length;
     return hash;
   }
@@ -64,6 +63,9 @@ public class Slice implements Serializable, Cloneable
   @Override
   public boolean equals(Object obj)
   {
+    if (obj == this) {
+      return true;
+    }
     if (obj == null) {
       return false;
     }
@@ -71,19 +73,30 @@ public class Slice implements Serializable, Cloneable
       return false;
     }
     final Slice other = (Slice)obj;
-    if (this.length != other.length) {
-      return false;
-    }
-
-    final int offset1 = this.offset;
-    final byte[] buffer1 = this.buffer;
-    int i = offset1 + this.length;
+    return this.length == other.length && equals(this.buffer, this.offset, other.buffer, other.offset, this.length);
+  }
 
-    final byte[] buffer2 = other.buffer;
-    int j = other.offset + other.length;
+  /**
+   * Compare the bytes in the given ranges of two arrays. The ranges which start at the same offset of the same array
+   * are equal without comparing the bytes.
+   *
+   * @param buffer1 the first array
+   * @param offset1 offset of the first range in buffer1
+   * @param buffer2 the second array
+   * @param offset2 offset of the second range in buffer2
+   * @param length  length of both the ranges
+   * @return true if both the ranges contain the same bytes, false otherwise.
+   * @since 2.0.0
+   */
+  public static boolean equals(byte[] buffer1, int offset1, byte[] buffer2, int offset2, int length)
+  {
+    if (buffer1 == buffer2 && offset1 == offset2) {
+      return true;
+    }
 
-    while (i-- > offset1) {
-      if (buffer1[i] != buffer2[--j]) {
+    final int limit = offset1 + length;
+    while (offset1 < limit) {
+      if (buffer1[offset1++] != buffer2[offset2++]) {
         return false;
       }
     }
@@ -128,5 +141,58 @@ public class Slice implements Serializable, Cloneable
     return getClass().getSimpleName() + '{' + (length > 256 ? "buffer=" + buffer + ", offset=" + offset + ", length=" + length : Arrays.toString(Arrays.copyOfRange(buffer, offset, offset + length))) + '}';
   }
 
+  /**
+   * Function which computes the hash of a range of bytes; it lets {@link SliceKey} trade the quality of the hash for
+   * the speed of computing it.
+   *
+   * @since 2.0.0
+   */
+  public interface HashFunction extends Serializable
+  {
+    /**
+     * Hash with the same quality as {@link Slice#hashCode()}.
+     */
+    HashFunction MURMUR = Standard.MURMUR;
+
+    /**
+     * Polynomial hash which {@link java.util.Arrays#hashCode(byte[])} computes. It is cheaper than {@link #MURMUR} but
+     * distributes the similar keys worse.
+     */
+    HashFunction POLYNOMIAL = Standard.POLYNOMIAL;
+
+    int hash(byte[] buffer, int offset, int length);
+
+    /**
+     * The functions provided out of the box. Being the constants of an enum, they remain the same instances when
+     * deserialized, so the keys using them are equal to their deserialized copies.
+     */
+    enum Standard implements HashFunction
+    {
+      MURMUR
+      {
+        @Override
+        public int hash(byte[] buffer, int offset, int length)
+        {
+          return MurmurHash.hash(buffer, 5, offset, length);
+        }
+
+      },
+      POLYNOMIAL
+      {
+        @Override
+        public int hash(byte[] buffer, int offset, int length)
+        {
+          int hash = 1;
+          for (int limit = offset + length; offset < limit; offset++) {
+            hash = 31 * hash + buffer[offset];
+          }
+          return hash;
+        }
+
+      }
+    }
+
+  }
+
   private static final long serialVersionUID = 201311151835L;
 }
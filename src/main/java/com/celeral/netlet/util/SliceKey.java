@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Immutable range of bytes meant to be used as a key in the hash based collections.
+ *
+ * Unlike {@link Slice}, whose fields may change while it sits in a map, the key computes its hash once, when the hash
+ * is first needed, and caches it. The keys with different cached hashes are not equal, so most unequal keys are told
+ * apart without comparing their bytes. Since their hashes do not agree, the keys with different hash functions are
+ * not equal either, even if their bytes are. The key does not copy the bytes it is constructed with; use
+ * {@link #copyOf(byte[], int, int)} unless the array is never modified afterwards.
+ *
+ * @since 2.0.0
+ */
+public final class SliceKey implements Serializable
+{
+  private final byte[] buffer;
+  private final int offset;
+  private final int length;
+  private final Slice.HashFunction hashFunction;
+  /**
+   * Cached hash or 0 if it is yet to be computed; computing it more than once in a race is harmless as all the
+   * computations yield the same value.
+   */
+  private transient int hash;
+
+  public SliceKey(byte[] buffer, int offset, int length, Slice.HashFunction hashFunction)
+  {
+    if (offset < 0 || length < 0 || offset > buffer.length - length) {
+      throw new IndexOutOfBoundsException("offset = " + offset + ", length = " + length + ", buffer.length = " + buffer.length);
+    }
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+    this.hashFunction = hashFunction;
+  }
+
+  public SliceKey(byte[] buffer, int offset, int length)
+  {
+    this(buffer, offset, length, Slice.HashFunction.MURMUR);
+  }
+
+  public SliceKey(byte[] buffer)
+  {
+    this(buffer, 0, buffer.length);
+  }
+
+  /**
+   * Create a key which shares the bytes with the given slice.
+   *
+   * @param slice slice whose range is used as the key; later changes to its fields do not affect the key.
+   */
+  public SliceKey(Slice slice)
+  {
+    this(slice.buffer, slice.offset, slice.length);
+  }
+
+  /**
+   * Create a key which owns a copy of the given range of bytes.
+   *
+   * @param buffer array containing the key
+   * @param offset offset of the key in the array
+   * @param length length of the key
+   * @return the new key
+   */
+  public static SliceKey copyOf(byte[] buffer, int offset, int length)
+  {
+    return new SliceKey(Arrays.copyOfRange(buffer, offset, offset + length));
+  }
+
+  public static SliceKey copyOf(Slice slice)
+  {
+    return copyOf(slice.buffer, slice.offset, slice.length);
+  }
+
+  public int length()
+  {
+    return length;
+  }
+
+  public byte byteAt(int index)
+  {
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("index = " + index + ", length = " + length);
+    }
+    return buffer[offset + index];
+  }
+
+  public Slice.HashFunction getHashFunction()
+  {
+    return hashFunction;
+  }
+
+  /**
+   * Create a slice over a copy of the bytes so that the changes to the slice do not affect the key.
+   *
+   * @return new slice
+   */
+  public Slice toSlice()
+  {
+    return new Slice(toByteArray());
+  }
+
+  public byte[] toByteArray()
+  {
+    return Arrays.copyOfRange(buffer, offset, offset + length);
+  }
+
+  /**
+   * Compare the key with the given range of bytes, which lets the maps keyed by slices be probed without creating
+   * a key for each lookup.
+   *
+   * @param array  array containing the bytes
+   * @param offset offset of the bytes in the array
+   * @param length number of the bytes
+   * @return true if the key consists of the given bytes, false otherwise.
+   */
+  public boolean contentEquals(byte[] array, int offset, int length)
+  {
+    return this.length == length && Slice.equals(buffer, this.offset, array, offset, length);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    int h = hash;
+    if (h == 0) {
+      hash = h = hashFunction.hash(buffer, offset, length);
+    }
+    return h;
+  }
+
+  @Override
+  public boolean equals(Object obj)
+  {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof SliceKey)) {
+      return false;
+    }
+
+    final SliceKey other = (SliceKey)obj;
+    if (length != other.length || !hashFunction.equals(other.hashFunction) || hashCode() != other.hashCode()) {
+      return false;
+    }
+    return Slice.equals(buffer, offset, other.buffer, other.offset, length);
+  }
+
+  @Override
+  public String toString()
+  {
+    return getClass().getSimpleName() + '{' + (length > 256 ? "length=" + length : Arrays.toString(toByteArray())) + '}';
+  }
+
+  private static final long serialVersionUID = 202610191600L;
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Pool of the {@link PooledSlice}s which lets the messages be serialized and sent without allocating memory.
+ *
+ * The slices are grouped in size classes, each of which holds the arrays of a power of 2 length. Each thread caches
+ * a few slices of each class and exchanges the surplus and the shortage with an arena shared by all the threads, so
+ * the slices allocated by one thread and released by another, e.g. by the event loop once they are written, find
+ * their way back. The slices longer than the largest class are neither pooled nor cached.
+ *
+ * Besides the number of the slices, the bytes each thread cache and the arena hold for a size class are capped, so
+ * the large classes keep only a few slices around while the small ones keep many.
+ *
+ * With leak detection enabled, the pool remembers where each slice is allocated and logs it if the slice is garbage
+ * collected without being released. Leak detection is meant for debugging; it allocates while tracking the slices.
+ *
+ * @since 2.0.0
+ */
+public class SlicePool
+{
+  /**
+   * Name of the system property which enables the leak detection for the pools constructed without specifying it.
+   */
+  public static final String LEAK_DETECTION_PROPERTY = "com.celeral.netlet.util.SlicePool.leakDetection";
+  public static final int DEFAULT_MIN_SIZE = 64;
+  public static final int DEFAULT_MAX_SIZE = 64 << 10;
+  public static final int DEFAULT_CACHE_SIZE = 32;
+  public static final int DEFAULT_ARENA_SIZE = 1024;
+  /**
+   * Default number of the bytes each thread caches for a size class.
+   */
+  public static final int DEFAULT_CACHE_BYTES = 128 << 10;
+  /**
+   * Default number of the bytes the shared arena holds for a size class.
+   */
+  public static final int DEFAULT_ARENA_BYTES = 1 << 20;
+
+  private static final SlicePool DEFAULT = new SlicePool();
+
+  private final int minShift;
+  private final int maxSize;
+  private final int[] cacheSizes;
+  private final UnsafeBlockingQueue<PooledSlice>[] arenas;
+  private final ThreadLocal<Cache> caches = ThreadLocal.withInitial(Cache::new);
+
+  private final boolean leakDetection;
+  private final ReferenceQueue<PooledSlice> collected;
+  private final Set<Leak> tracked;
+  private final AtomicInteger leaks = new AtomicInteger();
+
+  public SlicePool()
+  {
+    this(DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE, DEFAULT_CACHE_SIZE, DEFAULT_ARENA_SIZE, DEFAULT_CACHE_BYTES, DEFAULT_ARENA_BYTES,
+         Boolean.getBoolean(LEAK_DETECTION_PROPERTY));
+  }
+
+  /**
+   * Create a pool which caps only the number of the slices it holds.
+   *
+   * @param minSize       length of the arrays in the smallest size class; rounded up to the next power of 2.
+   * @param maxSize       length of the arrays in the largest size class; rounded up to the next power of 2.
+   * @param cacheSize     number of the slices of each size class each thread caches.
+   * @param arenaSize     number of the slices of each size class the shared arena holds.
+   * @param leakDetection true if the slices garbage collected without being released need to be logged.
+   */
+  public SlicePool(int minSize, int maxSize, int cacheSize, int arenaSize, boolean leakDetection)
+  {
+    this(minSize, maxSize, cacheSize, arenaSize, Integer.MAX_VALUE, Integer.MAX_VALUE, leakDetection);
+  }
+
+  /**
+   * Create a pool.
+   *
+   * @param minSize       length of the arrays in the smallest size class; rounded up to the next power of 2.
+   * @param maxSize       length of the arrays in the largest size class; rounded up to the next power of 2.
+   * @param cacheSize     number of the slices of each size class each thread caches.
+   * @param arenaSize     number of the slices of each size class the shared arena holds.
+   * @param cacheBytes    number of the bytes each thread caches for a size class; each thread caches at least 2
+   *                      slices of each class regardless.
+   * @param arenaBytes    number of the bytes the shared arena holds for a size class; the arena holds at least 2
+   *                      slices of each class regardless.
+   * @param leakDetection true if the slices garbage collected without being released need to be logged.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public SlicePool(int minSize, int maxSize, int cacheSize, int arenaSize, int cacheBytes, int arenaBytes, boolean leakDetection)
+  {
+    if (minSize <= 0 || maxSize < minSize || maxSize > 1 << 30) {
+      throw new IllegalArgumentException("Invalid size classes from " + minSize + " to " + maxSize);
+    }
+    if (cacheSize < 2) {
+      throw new IllegalArgumentException("Thread cache needs to hold at least 2 slices, not " + cacheSize);
+    }
+
+    minShift = shift(minSize);
+    final int maxShift = shift(maxSize);
+    this.maxSize = 1 << maxShift;
+
+    arenas = new UnsafeBlockingQueue[maxShift - minShift + 1];
+    cacheSizes = new int[arenas.length];
+    for (int i = arenas.length; i-- > 0;) {
+      final int shift = i + minShift;
+      cacheSizes[i] = Math.max(Math.min(cacheSize, cacheBytes >> shift), 2);
+      /* the buffer rounds its capacity up to a power of 2, so round it down not to exceed the bytes */
+      final int slots = arenaBytes >> shift;
+      arenas[i] = CircularBuffers.newBuffer(slots < arenaSize ? Integer.highestOneBit(Math.max(slots, 2)) : arenaSize, 0, true, true);
+    }
+
+    this.leakDetection = leakDetection;
+    if (leakDetection) {
+      collected = new ReferenceQueue<>();
+      tracked = Collections.newSetFromMap(new ConcurrentHashMap<Leak, Boolean>());
+    }
+    else {
+      collected = null;
+      tracked = null;
+    }
+  }
+
+  /**
+   * Get the pool shared by the whole process.
+   *
+   * @return the default pool.
+   */
+  public static SlicePool getDefault()
+  {
+    return DEFAULT;
+  }
+
+  private static int shift(int size)
+  {
+    return size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+  }
+
+  /**
+   * Borrow a slice of the given length. The slice has a single reference which needs to be released once the slice
+   * is no longer needed; {@link com.celeral.netlet.AbstractClient} does it for the slices it sends.
+   *
+   * @param length length of the slice
+   * @return slice starting at offset 0 of an array at least as long as the slice.
+   */
+  public PooledSlice allocate(int length)
+  {
+    if (length > maxSize) {
+      return track(new PooledSlice(this, -1, new byte[length], length));
+    }
+
+    final int sizeClass = Math.max(shift(length) - minShift, 0);
+    PooledSlice slice = caches.get().poll(sizeClass);
+    if (slice == null) {
+      return track(new PooledSlice(this, sizeClass, new byte[1 << (sizeClass + minShift)], length));
+    }
+
+    slice.reuse(length);
+    return track(slice);
+  }
+
+  /**
+   * Take back the slice whose last reference is released.
+   */
+  void free(PooledSlice slice)
+  {
+    if (slice.leak != null) {
+      tracked.remove(slice.leak);
+      slice.leak.clear();
+      slice.leak = null;
+    }
+
+    if (slice.sizeClass >= 0) {
+      caches.get().offer(slice);
+    }
+  }
+
+  private PooledSlice track(PooledSlice slice)
+  {
+    if (leakDetection) {
+      Leak leak;
+      while ((leak = (Leak)collected.poll()) != null) {
+        if (tracked.remove(leak)) {
+          leaks.incrementAndGet();
+          logger.error("{} bytes long slice was garbage collected without being released!", leak.capacity, leak.allocation);
+        }
+      }
+
+      slice.leak = leak = new Leak(slice, collected);
+      tracked.add(leak);
+    }
+
+    return slice;
+  }
+
+  /**
+   * Get the number of the slices found to be garbage collected without being released. The leaks are detected
+   * while allocating the slices after the garbage collector finds them.
+   *
+   * @return number of the leaks detected so far; always 0 when the leak detection is not enabled.
+   */
+  public int getLeakCount()
+  {
+    return leaks.get();
+  }
+
+  public boolean isLeakDetectionEnabled()
+  {
+    return leakDetection;
+  }
+
+  /**
+   * Slices of each size class cached by a thread, most recently released ones on top.
+   */
+  private class Cache
+  {
+    final PooledSlice[][] stacks = new PooledSlice[arenas.length][];
+    final int[] sizes = new int[arenas.length];
+
+    Cache()
+    {
+      for (int i = stacks.length; i-- > 0;) {
+        stacks[i] = new PooledSlice[cacheSizes[i]];
+      }
+    }
+
+    PooledSlice poll(int sizeClass)
+    {
+      final PooledSlice[] stack = stacks[sizeClass];
+      int size = sizes[sizeClass];
+      if (size == 0) {
+        /* refill half the cache so that the arena is visited once for several allocations */
+        final UnsafeBlockingQueue<PooledSlice> arena = arenas[sizeClass];
+        PooledSlice slice;
+        while (size < stack.length >> 1 && (slice = arena.poll()) != null) {
+          stack[size++] = slice;
+        }
+        if (size == 0) {
+          return null;
+        }
+      }
+
+      final PooledSlice slice = stack[--size];
+      stack[size] = null;
+      sizes[sizeClass] = size;
+      return slice;
+    }
+
+    void offer(PooledSlice slice)
+    {
+      final int sizeClass = slice.sizeClass;
+      final PooledSlice[] stack = stacks[sizeClass];
+      int size = sizes[sizeClass];
+      final int cacheSize = stack.length;
+      if (size == cacheSize) {
+        /* move the older half to the arena; the slices which do not fit in it are left to the garbage collector */
+        final UnsafeBlockingQueue<PooledSlice> arena = arenas[sizeClass];
+        final int half = cacheSize >> 1;
+        for (int i = 0; i < half; i++) {
+          arena.offer(stack[i]);
+        }
+        System.arraycopy(stack, half, stack, 0, size - half);
+        size -= half;
+        for (int i = size; i < cacheSize; i++) {
+          stack[i] = null;
+        }
+      }
+
+      stack[size++] = slice;
+      sizes[sizeClass] = size;
+    }
+
+  }
+
+  /**
+   * Tracks a slice which is not released yet.
+   */
+  static class Leak extends WeakReference<PooledSlice>
+  {
+    final int capacity;
+    final Throwable allocation;
+
+    Leak(PooledSlice slice, ReferenceQueue<PooledSlice> queue)
+    {
+      super(slice, queue);
+      capacity = slice.capacity();
+      allocation = new Throwable("Allocated");
+    }
+
+  }
+
+  private static final Logger logger = LogManager.getLogger(SlicePool.class);
+}
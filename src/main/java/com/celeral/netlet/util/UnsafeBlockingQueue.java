@@ -16,6 +16,7 @@
 package com.celeral.netlet.util;
 
 import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
 
 /**
  * <p>UnsafeBlockingQueue interface.</p>
@@ -37,4 +38,48 @@ public interface UnsafeBlockingQueue<T> extends BlockingQueue<T>
   T pollUnsafe();
 
   T peekUnsafe();
+
+  /**
+   * Removes up to max elements from the head of this queue and passes them to the consumer in order.
+   *
+   * The implementations which can do so read the producer index once and publish the consumer index once
+   * for the whole run instead of once per element. The elements are considered removed even if the consumer
+   * throws.
+   *
+   * @param consumer consumer of the removed elements
+   * @param max      maximum number of the elements to remove
+   * @return number of the elements removed
+   * @since 2.0.0
+   */
+  default int drain(Consumer<? super T> consumer, int max)
+  {
+    int i = 0;
+    T t;
+    while (i < max && (t = poll()) != null) {
+      i++;
+      consumer.accept(t);
+    }
+    return i;
+  }
+
+  /**
+   * Removes up to max elements from the head of this queue into the array, publishing the consumer index
+   * once where the implementation allows.
+   *
+   * @param array  destination of the removed elements
+   * @param offset index in the array of the first removed element
+   * @param max    maximum number of the elements to remove
+   * @return number of the elements removed
+   * @since 2.0.0
+   */
+  default int drain(T[] array, int offset, int max)
+  {
+    int i = 0;
+    T t;
+    while (i < max && (t = poll()) != null) {
+      array[offset + i++] = t;
+    }
+    return i;
+  }
+
 }
@@ -15,6 +15,9 @@
  */
 package com.celeral.netlet.util;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * <p>
  * VarInt class.</p>
@@ -63,16 +66,84 @@ public class VarInt
 
   public static int getSize(int value)
   {
-    int offset = 0;
-    while (true) {
-      if ((value & ~0x7F) == 0) {
-        return ++offset;
-      }
-      else {
-        ++offset;
+    return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+  }
+
+  /**
+   * Writes the Variable Sized Integer of Length 64. Assumes that the buffer has 10 positions at least starting with offset.
+   *
+   * @param value
+   * @param buffer
+   * @param offset
+   *
+   * @return the offset right after the written varint
+   * @since 2.0.0
+   */
+  public static int writeLong(long value, byte[] buffer, int offset)
+  {
+    while ((value & ~0x7FL) != 0) {
+      buffer[offset++] = (byte)((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[offset++] = (byte)value;
+    return offset;
+  }
+
+  /**
+   * @param value
+   * @return number of bytes needed to encode the value as Variable Sized Integer of Length 64.
+   * @since 2.0.0
+   */
+  public static int getLongSize(long value)
+  {
+    return (63 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1;
+  }
+
+  /**
+   * Writes the values as consecutive Variable Sized Integers of Length 32. Assumes that the buffer has 5 positions
+   * per value at least starting with offset.
+   *
+   * @param values array containing the values
+   * @param from   index of the first value to be written
+   * @param count  number of values to be written
+   * @param buffer array to write the varints into
+   * @param offset position in the buffer where the first varint is written
+   *
+   * @return the offset right after the last written varint
+   * @since 2.0.0
+   */
+  public static int write(int[] values, int from, int count, byte[] buffer, int offset)
+  {
+    for (int i = from, end = from + count; i < end; i++) {
+      int value = values[i];
+      while ((value & ~0x7F) != 0) {
+        buffer[offset++] = (byte)((value & 0x7F) | 0x80);
         value >>>= 7;
       }
+      buffer[offset++] = (byte)value;
+    }
+    return offset;
+  }
+
+  /**
+   * Writes the values as consecutive Variable Sized Integers of Length 64. Assumes that the buffer has 10 positions
+   * per value at least starting with offset.
+   *
+   * @param values array containing the values
+   * @param from   index of the first value to be written
+   * @param count  number of values to be written
+   * @param buffer array to write the varints into
+   * @param offset position in the buffer where the first varint is written
+   *
+   * @return the offset right after the last written varint
+   * @since 2.0.0
+   */
+  public static int write(long[] values, int from, int count, byte[] buffer, int offset)
+  {
+    for (int i = from, end = from + count; i < end; i++) {
+      offset = writeLong(values[i], buffer, offset);
     }
+    return offset;
   }
 
   public static class MutableInt
@@ -100,7 +171,9 @@ public class VarInt
    * @param readBuffer The array of bytes which contains the data to be parsed.
    * @param offset     The offset where we should start reading the first 7 bits of varint.
    * @param limit      The length of the slice of the data array where in which we are reading varint.
-   * @param newOffset  If the varint is read successfully, newOffset contains the position after varint.
+   * @param newOffset  If the varint is read successfully, newOffset contains the position after varint. Otherwise
+   *                   it contains the negated number of bytes examined: 0 to -4 if the varint is incomplete and -5
+   *                   if the varint is invalid.
    *
    * @return varint value read
    */
@@ -167,4 +240,226 @@ public class VarInt
 
     return 0;
   }
+
+  /**
+   * Reads the Variable Sized Integer of Length 64.
+   *
+   * @param readBuffer The array of bytes which contains the data to be parsed.
+   * @param offset     The offset where we should start reading the first 7 bits of varint.
+   * @param limit      The length of the slice of the data array where in which we are reading varint.
+   * @param newOffset  If the varint is read successfully, newOffset contains the position after varint. Otherwise
+   *                   it contains the negated number of bytes examined: 0 to -9 if the varint is incomplete and -10
+   *                   if the varint is invalid.
+   *
+   * @return varlong value read
+   * @since 2.0.0
+   */
+  public static long readLong(byte[] readBuffer, int offset, int limit, MutableInt newOffset)
+  {
+    long value = 0;
+    for (int i = 0; i < 10; i++) {
+      if (offset + i >= limit) {
+        newOffset.integer = -i;
+        return 0;
+      }
+
+      final byte tmp = readBuffer[offset + i];
+      value |= (long)(tmp & 0x7f) << (7 * i);
+      if (tmp >= 0) {
+        newOffset.integer = offset + i + 1;
+        return value;
+      }
+    }
+
+    newOffset.integer = -10;
+    return 0;
+  }
+
+  /**
+   * Reads the Variable Sized Integer of Length 32 from the buffer. Same as {@link #read(byte[], int, int, MutableInt)}
+   * except that when at least 8 bytes are available, they are loaded as a single long and the varint is decoded
+   * without examining one byte at a time.
+   *
+   * @param readBuffer The buffer which contains the data to be parsed; it can be of any byte order.
+   * @param offset     The absolute position where we should start reading the first 7 bits of varint.
+   * @param limit      The absolute position up to which the data is available.
+   * @param newOffset  Same as that for {@link #read(byte[], int, int, MutableInt)}.
+   *
+   * @return varint value read
+   * @since 2.0.0
+   */
+  public static int read(ByteBuffer readBuffer, int offset, int limit, MutableInt newOffset)
+  {
+    if (limit - offset >= 8) {
+      long word = readBuffer.getLong(offset);
+      if (readBuffer.order() == ByteOrder.BIG_ENDIAN) {
+        word = Long.reverseBytes(word);
+      }
+
+      final int size = (Long.numberOfTrailingZeros(~word & STOP_BITS) + 1) >>> 3;
+      if (size <= 5) {
+        word &= -1L >>> (64 - (size << 3));
+        newOffset.integer = offset + size;
+        return (int)((word & 0x7f)
+                     | (word >>> 1 & 0x3f80L)
+                     | (word >>> 2 & 0x1fc000L)
+                     | (word >>> 3 & 0xfe00000L)
+                     | (word >>> 4 & 0xf0000000L));
+      }
+
+      newOffset.integer = -5;
+      return 0;
+    }
+
+    int integer = 0;
+    for (int i = 0; i < 5; i++) {
+      if (offset + i >= limit) {
+        newOffset.integer = -i;
+        return 0;
+      }
+
+      final byte tmp = readBuffer.get(offset + i);
+      integer |= (tmp & 0x7f) << (7 * i);
+      if (tmp >= 0) {
+        newOffset.integer = offset + i + 1;
+        return integer;
+      }
+    }
+
+    newOffset.integer = -5;
+    return 0;
+  }
+
+  /**
+   * Reads the Variable Sized Integer of Length 64 from the buffer. Same as {@link #readLong(byte[], int, int, MutableInt)}
+   * except that when at least 8 bytes are available, they are loaded as a single long and up to first 8 bytes of the
+   * varint are decoded without examining one byte at a time.
+   *
+   * @param readBuffer The buffer which contains the data to be parsed; it can be of any byte order.
+   * @param offset     The absolute position where we should start reading the first 7 bits of varint.
+   * @param limit      The absolute position up to which the data is available.
+   * @param newOffset  Same as that for {@link #readLong(byte[], int, int, MutableInt)}.
+   *
+   * @return varlong value read
+   * @since 2.0.0
+   */
+  public static long readLong(ByteBuffer readBuffer, int offset, int limit, MutableInt newOffset)
+  {
+    long value = 0;
+    int i = 0;
+    if (limit - offset >= 8) {
+      long word = readBuffer.getLong(offset);
+      if (readBuffer.order() == ByteOrder.BIG_ENDIAN) {
+        word = Long.reverseBytes(word);
+      }
+
+      final int size = (Long.numberOfTrailingZeros(~word & STOP_BITS) + 1) >>> 3;
+      if (size < 8) {
+        word &= -1L >>> (64 - (size << 3));
+      }
+      value = (word & 0x7f)
+              | (word >>> 1 & 0x3f80L)
+              | (word >>> 2 & 0x1fc000L)
+              | (word >>> 3 & 0xfe00000L)
+              | (word >>> 4 & 0x7f0000000L)
+              | (word >>> 5 & 0x3f800000000L)
+              | (word >>> 6 & 0x1fc0000000000L)
+              | (word >>> 7 & 0xfe000000000000L);
+      if (size < 8 || word >= 0) {
+        newOffset.integer = offset + size;
+        return value;
+      }
+      i = 8;
+    }
+
+    for (; i < 10; i++) {
+      if (offset + i >= limit) {
+        newOffset.integer = -i;
+        return 0;
+      }
+
+      final byte tmp = readBuffer.get(offset + i);
+      value |= (long)(tmp & 0x7f) << (7 * i);
+      if (tmp >= 0) {
+        newOffset.integer = offset + i + 1;
+        return value;
+      }
+    }
+
+    newOffset.integer = -10;
+    return 0;
+  }
+
+  /**
+   * Reads up to count consecutive Variable Sized Integers of Length 32 from the buffer.
+   *
+   * @param readBuffer The buffer which contains the data to be parsed; it can be of any byte order.
+   * @param offset     The absolute position where the first varint starts.
+   * @param limit      The absolute position up to which the data is available.
+   * @param values     The array in which the values read are stored.
+   * @param from       The index in the values array where the first value is stored.
+   * @param count      The maximum number of values to be read.
+   * @param newOffset  Contains the position right after the last varint read.
+   *
+   * @return number of values read; it's less than count if the buffer does not contain as many complete varints.
+   * @throws NumberFormatException if an invalid varint is encountered.
+   * @since 2.0.0
+   */
+  public static int read(ByteBuffer readBuffer, int offset, int limit, int[] values, int from, int count, MutableInt newOffset)
+  {
+    int i = 0;
+    while (i < count) {
+      final int value = read(readBuffer, offset, limit, newOffset);
+      if (newOffset.integer <= 0) {
+        if (newOffset.integer == -5) {
+          throw new NumberFormatException("Invalid varint at location " + offset);
+        }
+        break;
+      }
+      values[from + i++] = value;
+      offset = newOffset.integer;
+    }
+
+    newOffset.integer = offset;
+    return i;
+  }
+
+  /**
+   * Reads up to count consecutive Variable Sized Integers of Length 64 from the buffer.
+   *
+   * @param readBuffer The buffer which contains the data to be parsed; it can be of any byte order.
+   * @param offset     The absolute position where the first varint starts.
+   * @param limit      The absolute position up to which the data is available.
+   * @param values     The array in which the values read are stored.
+   * @param from       The index in the values array where the first value is stored.
+   * @param count      The maximum number of values to be read.
+   * @param newOffset  Contains the position right after the last varint read.
+   *
+   * @return number of values read; it's less than count if the buffer does not contain as many complete varints.
+   * @throws NumberFormatException if an invalid varint is encountered.
+   * @since 2.0.0
+   */
+  public static int read(ByteBuffer readBuffer, int offset, int limit, long[] values, int from, int count, MutableInt newOffset)
+  {
+    int i = 0;
+    while (i < count) {
+      final long value = readLong(readBuffer, offset, limit, newOffset);
+      if (newOffset.integer <= 0) {
+        if (newOffset.integer == -10) {
+          throw new NumberFormatException("Invalid varlong at location " + offset);
+        }
+        break;
+      }
+      values[from + i++] = value;
+      offset = newOffset.integer;
+    }
+
+    newOffset.integer = offset;
+    return i;
+  }
+
+  /**
+   * The most significant bit of each byte in a long, which is set for all but the last byte of a varint.
+   */
+  private static final long STOP_BITS = 0x8080808080808080L;
 }
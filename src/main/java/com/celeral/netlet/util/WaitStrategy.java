@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+/**
+ * Decides how a thread waits for a circular buffer to become non empty or non full.
+ *
+ * A waiting thread takes a ticket using {@link #prepare()} before checking the buffer, and passes it to
+ * {@link #await(long, int, long)} if the check fails. The thread changing the state of the buffer calls
+ * {@link #signal()} after it publishes the change. A strategy which blocks the waiting thread must not block
+ * it if a signal was issued after the ticket was taken, so the wake up is never lost.
+ *
+ * A buffer uses one instance for its consumers and another for its producers. Sharing an instance between
+ * buffers is safe but causes spurious wake ups.
+ *
+ * @since 2.0.0
+ */
+public interface WaitStrategy
+{
+  /**
+   * Remaining time to pass to {@link #await(long, int, long)} when the caller waits without a timeout.
+   */
+  long FOREVER = Long.MAX_VALUE;
+
+  /**
+   * Take a ticket before checking the condition the caller is waiting for.
+   *
+   * @return the ticket to pass to {@link #await(long, int, long)}
+   */
+  long prepare();
+
+  /**
+   * Wait for the signal which follows the ticket, or for a while if the strategy does not track signals.
+   * The method may return early; the caller checks the condition again and waits once more if needed.
+   *
+   * @param ticket value returned by {@link #prepare()} before the condition was last checked
+   * @param round  number of times the caller already waited for the same operation
+   * @param nanos  remaining time the caller is willing to wait, or {@link #FOREVER}
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  void await(long ticket, int round, long nanos) throws InterruptedException;
+
+  /**
+   * Wake up the threads waiting for the change which was just published.
+   */
+  void signal();
+
+}
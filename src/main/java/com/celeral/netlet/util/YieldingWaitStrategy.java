@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+/**
+ * Busy spins for a number of rounds and yields the processor afterwards. It gives the lowest hand off latency
+ * at the cost of a processor kept busy by every waiting thread.
+ *
+ * @since 2.0.0
+ */
+public class YieldingWaitStrategy implements WaitStrategy
+{
+  private final int spins;
+
+  public YieldingWaitStrategy()
+  {
+    this(100);
+  }
+
+  /**
+   * @param spins number of rounds to busy spin before yielding
+   */
+  public YieldingWaitStrategy(int spins)
+  {
+    this.spins = spins;
+  }
+
+  @Override
+  public long prepare()
+  {
+    return 0;
+  }
+
+  @Override
+  public void await(long ticket, int round, long nanos) throws InterruptedException
+  {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+
+    if (round >= spins) {
+      Thread.yield();
+    }
+  }
+
+  @Override
+  public void signal()
+  {
+  }
+
+}
@@ -15,8 +15,11 @@
  */
 package com.celeral.netlet;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketOption;
@@ -26,6 +29,7 @@ import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Assert;
@@ -35,7 +39,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.celeral.netlet.ServerTest.ServerImpl;
+import com.celeral.netlet.util.ByteRingBuffer;
 import com.celeral.netlet.util.CircularBuffer;
+import com.celeral.netlet.util.ElasticBuffer;
 import com.celeral.netlet.util.Slice;
 
 import static java.lang.Thread.sleep;
@@ -378,6 +384,120 @@ public class AbstractClientTest
     ci.write();
   }
 
+  private static class DiscardingClient extends AbstractClient
+  {
+    private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    DiscardingClient(ByteRingBuffer ring, int copyThreshold)
+    {
+      super(ByteBuffer.allocateDirect(4096), 16, ring, copyThreshold);
+    }
+
+    DiscardingClient(CircularBuffer<Slice> sendBuffer)
+    {
+      super(ByteBuffer.allocateDirect(4096), sendBuffer);
+    }
+
+    @Override
+    public ByteBuffer buffer()
+    {
+      return buffer;
+    }
+
+    @Override
+    public void read(int len)
+    {
+      buffer.clear();
+    }
+
+    @Override
+    public void disconnected()
+    {
+    }
+
+  }
+
+  /**
+   * Send a stream in messages of random sizes, mostly small ones with some large ones in between, and make sure
+   * that the peer receives them in order.
+   */
+  private static void sendAndVerify(final AbstractClient client) throws Exception
+  {
+    final byte[] stream = new byte[4 * 1024 * 1024];
+    new Random(7).nextBytes(stream);
+
+    DefaultEventLoop el = DefaultEventLoop.createEventLoop("stream");
+    el.start();
+    try (ServerSocket ss = new ServerSocket(0)) {
+      el.connect(new InetSocketAddress("localhost", ss.getLocalPort()), client);
+      try (Socket socket = ss.accept()) {
+        socket.setSoTimeout(10000);
+        Thread sender = new Thread("sender")
+        {
+          @Override
+          @SuppressWarnings("SleepWhileInLoop")
+          public void run()
+          {
+            try {
+              while (!client.isConnected()) {
+                sleep(1);
+              }
+
+              Random random = new Random(11);
+              int offset = 0;
+              while (offset < stream.length) {
+                int length = Math.min(stream.length - offset, random.nextInt(4) == 0 ? 100 + random.nextInt(2000) : 1 + random.nextInt(64));
+                while (!client.send(stream, offset, length)) {
+                  sleep(1);
+                }
+                offset += length;
+              }
+            }
+            catch (InterruptedException ex) {
+              throw new RuntimeException(ex);
+            }
+          }
+
+        };
+        sender.start();
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        InputStream is = socket.getInputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while (received.size() < stream.length && (read = is.read(buffer)) != -1) {
+          received.write(buffer, 0, read);
+        }
+        sender.join();
+        Assert.assertArrayEquals("sent stream", stream, received.toByteArray());
+      }
+    }
+    finally {
+      el.disconnect(client);
+      el.stop();
+    }
+  }
+
+  /**
+   * The small messages are copied into the ring while the large ones are queued as slices. The ring is small
+   * enough to fill up, so some of the small messages are queued as slices too.
+   */
+  @Test
+  public void testSendRing() throws Exception
+  {
+    ByteRingBuffer ring = new ByteRingBuffer(1024);
+    sendAndVerify(new DiscardingClient(ring, 64));
+    Assert.assertTrue("copied into the ring " + ring, ring.head() > 0 && ring.isEmpty());
+  }
+
+  @Test
+  public void testElasticSendBuffer() throws Exception
+  {
+    ElasticBuffer<Slice> sendBuffer = new ElasticBuffer<>(64, 4096);
+    sendAndVerify(new DiscardingClient(sendBuffer));
+    Assert.assertTrue(sendBuffer.toString(), sendBuffer.isEmpty());
+  }
+
   private static class CircularBufferWrapper extends CircularBuffer<Slice>
   {
     private CircularBufferWrapper(int capacity)
@@ -401,6 +521,16 @@ public class AbstractClientTest
       return f;
     }
 
+    @Override
+    public int peek(Slice[] array, int offset, int max)
+    {
+      int count = super.peek(array, offset, max);
+      for (int i = offset; i < offset + count; i++) {
+        Assert.assertTrue("Unexpected slice length: " + array[i].length, array[i].length > 0);
+      }
+      return count;
+    }
+
   }
 
   private static final Logger logger = LogManager.getLogger(AbstractClientTest.class);
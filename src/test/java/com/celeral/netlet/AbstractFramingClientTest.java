@@ -0,0 +1,477 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.celeral.netlet.framing.DelimiterFraming;
+import com.celeral.netlet.framing.FixedSizeFraming;
+import com.celeral.netlet.framing.FrameDecoder;
+import com.celeral.netlet.framing.FrameEncoder;
+import com.celeral.netlet.framing.Int32LengthFraming;
+import com.celeral.netlet.framing.VarIntLengthFraming;
+import com.celeral.netlet.util.PooledSlice;
+import com.celeral.netlet.util.Slice;
+import com.celeral.netlet.util.SlicePool;
+
+public class AbstractFramingClientTest
+{
+  static class FramingClient extends AbstractFramingClient
+  {
+    final List<byte[]> messages = new ArrayList<>();
+
+    FramingClient(FrameDecoder decoder, FrameEncoder encoder)
+    {
+      this(decoder, encoder, 16);
+    }
+
+    FramingClient(FrameDecoder decoder, FrameEncoder encoder, int readBufferSize)
+    {
+      super(decoder, encoder, readBufferSize, 1024);
+    }
+
+    @Override
+    public void onMessage(byte[] buffer, int offset, int size)
+    {
+      synchronized (messages) {
+        messages.add(Arrays.copyOfRange(buffer, offset, offset + size));
+      }
+    }
+
+    @Override
+    public void connected()
+    {
+      super.connected();
+      synchronized (messages) {
+        messages.notifyAll();
+      }
+    }
+
+    /**
+     * Feed the stream to the client as if it was read from the socket in chunks of random size.
+     */
+    void feed(byte[] stream, Random random)
+    {
+      int position = 0;
+      while (position < stream.length) {
+        ByteBuffer[] buffers = buffers();
+        if (buffers == null) {
+          buffers = new ByteBuffer[] {buffer()};
+        }
+
+        int len = Math.min(1 + random.nextInt(37), stream.length - position);
+        int read = 0;
+        for (ByteBuffer bb : buffers) {
+          int n = Math.min(len - read, bb.remaining());
+          bb.put(stream, position + read, n);
+          read += n;
+        }
+        position += read;
+        read(read);
+      }
+    }
+
+  }
+
+  static class BatchFramingClient extends FramingClient implements BatchMessagesProcessor
+  {
+    int batches;
+
+    BatchFramingClient(FrameDecoder decoder, FrameEncoder encoder, int readBufferSize)
+    {
+      super(decoder, encoder, readBufferSize);
+    }
+
+    @Override
+    public void onMessage(byte[] buffer, int offset, int size)
+    {
+      Assert.fail("onMessage should not be called for the batch processor");
+    }
+
+    @Override
+    public void onMessages(byte[] buffer, int[] offsets, int[] lengths, int count)
+    {
+      batches++;
+      for (int i = 0; i < count; i++) {
+        messages.add(Arrays.copyOfRange(buffer, offsets[i], offsets[i] + lengths[i]));
+      }
+    }
+
+  }
+
+  static class ScatteringFramingClient extends FramingClient implements ScatteringMessagesProcessor
+  {
+    static final int THRESHOLD = 100;
+    int scattered;
+
+    ScatteringFramingClient(FrameDecoder decoder, FrameEncoder encoder)
+    {
+      super(decoder, encoder);
+    }
+
+    @Override
+    public ByteBuffer getPayloadBuffer(int length)
+    {
+      if (length < THRESHOLD) {
+        return null;
+      }
+
+      /* surround the payload with the data which should not be touched */
+      ByteBuffer destination = ByteBuffer.allocateDirect(length + 2);
+      destination.put((byte)-1).limit(length + 2);
+      return destination;
+    }
+
+    @Override
+    public void onPayload(ByteBuffer buffer, int length)
+    {
+      Assert.assertEquals("position", length + 1, buffer.position());
+      Assert.assertEquals("limit", length + 2, buffer.limit());
+      Assert.assertEquals("guard", -1, buffer.get(0));
+      scattered++;
+      byte[] message = new byte[length];
+      ((ByteBuffer)buffer.flip().position(1)).get(message);
+      synchronized (messages) {
+        messages.add(message);
+      }
+    }
+
+  }
+
+  private static byte[] frame(FrameEncoder encoder, List<byte[]> messages)
+  {
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    byte[] header = new byte[encoder.getMaxHeaderSize()];
+    for (byte[] message : messages) {
+      stream.write(header, 0, encoder.writeHeader(message.length, header, 0));
+      stream.write(message, 0, message.length);
+      if (encoder.getTrailer() != null) {
+        stream.write(encoder.getTrailer(), 0, encoder.getTrailer().length);
+      }
+    }
+    return stream.toByteArray();
+  }
+
+  private static List<byte[]> messages(Random random, int count, int fixedSize, byte... excluded)
+  {
+    List<byte[]> messages = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] message = new byte[fixedSize > 0 ? fixedSize : random.nextInt(i % 10 == 0 ? 300 : 20)];
+      for (int j = 0; j < message.length; j++) {
+        byte b;
+        do {
+          b = (byte)random.nextInt();
+        }
+        while (Arrays.binarySearch(excluded, b) >= 0);
+        message[j] = b;
+      }
+      messages.add(message);
+    }
+    return messages;
+  }
+
+  private static void verify(FrameDecoder decoder, FrameEncoder encoder, List<byte[]> messages)
+  {
+    verify(new FramingClient(decoder, encoder), encoder, messages);
+  }
+
+  private static void verify(FramingClient client, FrameEncoder encoder, List<byte[]> messages)
+  {
+    Random random = new Random(0);
+    client.feed(frame(encoder, messages), random);
+    Assert.assertEquals("message count", messages.size(), client.messages.size());
+    for (int i = 0; i < messages.size(); i++) {
+      Assert.assertArrayEquals("message " + i, messages.get(i), client.messages.get(i));
+    }
+  }
+
+  @Test
+  public void testVarIntLengthFraming()
+  {
+    VarIntLengthFraming framing = new VarIntLengthFraming();
+    verify(framing, framing, messages(new Random(1), 500, 0));
+  }
+
+  @Test
+  public void testInt32LengthFraming()
+  {
+    verify(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE, messages(new Random(2), 500, 0));
+    byte[] header = new byte[4];
+    Int32LengthFraming.INSTANCE.writeHeader(0x01020304, header, 0);
+    Assert.assertArrayEquals(new byte[] {1, 2, 3, 4}, header);
+  }
+
+  @Test
+  public void testFixedSizeFraming()
+  {
+    FixedSizeFraming framing = new FixedSizeFraming(24);
+    verify(framing, framing, messages(new Random(3), 500, 24));
+
+    Slice frame = new Slice(null, 0, 0);
+    byte[] buffer = new byte[48];
+    Assert.assertEquals("header without data", -1, framing.decodeHeader(buffer, 24, 24, frame));
+    Assert.assertEquals("header", 0, framing.decodeHeader(buffer, 24, 25, frame));
+    Assert.assertEquals("payload offset", 24, frame.offset);
+    Assert.assertEquals("payload length", 24, frame.length);
+  }
+
+  @Test
+  public void testDelimiterFraming()
+  {
+    DelimiterFraming framing = new DelimiterFraming((byte)'\n');
+    verify(framing, framing, messages(new Random(4), 500, 0, (byte)'\n'));
+
+    /* the first byte of the delimiter is allowed in the payload as long as the whole delimiter is not */
+    framing = new DelimiterFraming((byte)'\r', (byte)'\n');
+    verify(framing, framing, messages(new Random(5), 500, 0, (byte)'\n'));
+  }
+
+  @Test
+  public void testBatchDelivery()
+  {
+    DelimiterFraming framing = new DelimiterFraming((byte)0);
+    verify(new BatchFramingClient(framing, framing, 16), framing, messages(new Random(7), 500, 0, (byte)0));
+
+    /* all the frames arrive with a single read and need more than one batch */
+    List<byte[]> messages = messages(new Random(8), 3000, 3);
+    VarIntLengthFraming lengthFraming = new VarIntLengthFraming();
+    byte[] stream = frame(lengthFraming, messages);
+    BatchFramingClient client = new BatchFramingClient(lengthFraming, lengthFraming, stream.length);
+    client.buffer().put(stream);
+    client.read(stream.length);
+    Assert.assertEquals("batches", 3, client.batches);
+    Assert.assertEquals("message count", messages.size(), client.messages.size());
+    for (int i = 0; i < messages.size(); i++) {
+      Assert.assertArrayEquals("message " + i, messages.get(i), client.messages.get(i));
+    }
+  }
+
+  @Test
+  public void testDiscardInBatch()
+  {
+    DelimiterFraming framing = new DelimiterFraming((byte)0);
+    BatchFramingClient client = new BatchFramingClient(framing, framing, 64)
+    {
+      @Override
+      public void onMessages(byte[] buffer, int[] offsets, int[] lengths, int count)
+      {
+        super.onMessages(buffer, offsets, lengths, count);
+        discardReadBuffer();
+      }
+
+    };
+
+    /* the partial frame following the batch is scanned before it's discarded */
+    byte[] stream = "first\0partial frame".getBytes();
+    client.buffer().put(stream);
+    client.read(stream.length);
+
+    stream = "next\0".getBytes();
+    client.buffer().put(stream);
+    client.read(stream.length);
+    Assert.assertEquals("message count", 2, client.messages.size());
+    Assert.assertArrayEquals("first".getBytes(), client.messages.get(0));
+    Assert.assertArrayEquals("next".getBytes(), client.messages.get(1));
+  }
+
+  @Test
+  public void testScatteringRead()
+  {
+    VarIntLengthFraming framing = new VarIntLengthFraming();
+    ScatteringFramingClient client = new ScatteringFramingClient(framing, framing);
+    verify(client, framing, messages(new Random(10), 500, 0));
+    Assert.assertTrue("scattered", client.scattered > 0);
+
+    client = new ScatteringFramingClient(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE);
+    verify(client, Int32LengthFraming.INSTANCE, messages(new Random(11), 500, 0));
+    Assert.assertTrue("scattered", client.scattered > 0);
+
+    FixedSizeFraming fixedSizeFraming = new FixedSizeFraming(ScatteringFramingClient.THRESHOLD);
+    client = new ScatteringFramingClient(fixedSizeFraming, fixedSizeFraming);
+    verify(client, fixedSizeFraming, messages(new Random(12), 100, ScatteringFramingClient.THRESHOLD));
+    Assert.assertEquals("scattered", 100, client.scattered);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testScatteringReadNeedsHeaderDecoder()
+  {
+    DelimiterFraming framing = new DelimiterFraming((byte)0);
+    new ScatteringFramingClient(framing, framing);
+  }
+
+  @Test
+  public void testBatchWrite() throws Exception
+  {
+    echo(new FramingClient(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE),
+         messages(new Random(9), 2000, 0));
+  }
+
+  @Test
+  public void testScatteringReadFromSocket() throws Exception
+  {
+    ScatteringFramingClient client = new ScatteringFramingClient(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE);
+    echo(client, messages(new Random(13), 2000, 0));
+    Assert.assertTrue("scattered", client.scattered > 0);
+  }
+
+  @Test
+  public void testPooledSliceWrite() throws Exception
+  {
+    final FramingClient client = new FramingClient(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE);
+    final List<byte[]> messages = messages(new Random(17), 500, 0);
+    final SlicePool pool = new SlicePool(16, 256, 4, 16, true);
+    final List<PooledSlice> slices = new ArrayList<>();
+    echo(client, messages, () -> {
+      for (byte[] message : messages) {
+        PooledSlice slice = pool.allocate(message.length);
+        System.arraycopy(message, 0, slice.buffer, 0, message.length);
+        slices.add(slice);
+        Assert.assertTrue("slice written", client.write(slice));
+      }
+    });
+
+    for (PooledSlice slice : slices) {
+      Assert.assertEquals("released " + slice, 0, slice.references());
+    }
+  }
+
+  @Test
+  public void testPlainSliceWrite() throws Exception
+  {
+    final FramingClient client = new FramingClient(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE);
+    final List<byte[]> messages = messages(new Random(19), 500, 0);
+    final List<Slice> slices = new ArrayList<>();
+    echo(client, messages, () -> {
+      for (byte[] message : messages) {
+        Slice slice = new Slice(message);
+        slices.add(slice);
+        Assert.assertTrue("slice written", client.write(slice));
+      }
+    });
+
+    for (int i = 0; i < slices.size(); i++) {
+      Slice slice = slices.get(i);
+      Assert.assertSame("buffer " + i, messages.get(i), slice.buffer);
+      Assert.assertEquals("offset " + i, 0, slice.offset);
+      Assert.assertEquals("length " + i, messages.get(i).length, slice.length);
+    }
+  }
+
+  @Test
+  public void testUnregisteredReleasesSlices()
+  {
+    final FramingClient client = new FramingClient(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE);
+    final SlicePool pool = new SlicePool(16, 256, 4, 16, true);
+    final List<PooledSlice> slices = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      PooledSlice slice = pool.allocate(32);
+      slices.add(slice);
+      Assert.assertTrue("slice written", client.write(slice));
+    }
+
+    client.unregistered(null);
+    for (PooledSlice slice : slices) {
+      Assert.assertEquals("released " + slice, 0, slice.references());
+    }
+    Assert.assertTrue("nothing queued", client.sendBuffer4Offers.isEmpty());
+  }
+
+  /**
+   * Write the messages in two batches to an echo server and verify that they are received back.
+   */
+  private static void echo(final FramingClient client, final List<byte[]> messages) throws Exception
+  {
+    final byte[][] array = messages.toArray(new byte[messages.size()][]);
+    echo(client, messages, () -> {
+      int half = array.length / 2;
+      Assert.assertTrue("array batch", client.write(array, 0, half));
+      Assert.assertTrue("collection batch", client.write(messages.subList(half, array.length)));
+    });
+  }
+
+  /**
+   * Write the messages to an echo server using the given writer and verify that they are received back.
+   */
+  private static void echo(FramingClient client, List<byte[]> messages, Runnable writer) throws Exception
+  {
+    DefaultEventLoop el = DefaultEventLoop.createEventLoop("test");
+    el.start();
+    ServerTest.ServerImpl si = new ServerTest.ServerImpl();
+    el.start(new InetSocketAddress("localhost", 0), si);
+    el.connect(si.getBoundAddress().get(), client);
+    try {
+      synchronized (client.messages) {
+        while (!client.isConnected()) {
+          client.messages.wait(100);
+        }
+      }
+
+      writer.run();
+
+      long deadline = System.currentTimeMillis() + 10000;
+      synchronized (client.messages) {
+        while (client.messages.size() < messages.size() && System.currentTimeMillis() < deadline) {
+          client.messages.wait(10);
+        }
+      }
+    }
+    finally {
+      el.disconnect(client);
+      el.stop(si);
+      el.stop();
+    }
+
+    Assert.assertEquals("message count", messages.size(), client.messages.size());
+    for (int i = 0; i < messages.size(); i++) {
+      Assert.assertArrayEquals("message " + i, messages.get(i), client.messages.get(i));
+    }
+  }
+
+  @Test
+  public void testBatchWriteAllOrNothing()
+  {
+    FramingClient client = new FramingClient(new VarIntLengthFraming(), new VarIntLengthFraming());
+    Assert.assertFalse(client.write(new byte[AbstractClient.MAX_SENDBUFFER_SIZE][]));
+    Assert.assertTrue("nothing queued", client.sendBuffer4Offers.isEmpty());
+
+    FixedSizeFraming framing = new FixedSizeFraming(4);
+    client = new FramingClient(framing, framing);
+    try {
+      client.write(new byte[][] {new byte[4], new byte[5]});
+      Assert.fail("message of the wrong size should be rejected");
+    }
+    catch (IllegalArgumentException ex) {
+      Assert.assertTrue("nothing queued", client.sendBuffer4Offers.isEmpty());
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testInvalidVarInt()
+  {
+    FramingClient client = new FramingClient(new VarIntLengthFraming(), new VarIntLengthFraming());
+    client.feed(new byte[] {-1, -1, -1, -1, -1, 1}, new Random(6));
+  }
+
+}
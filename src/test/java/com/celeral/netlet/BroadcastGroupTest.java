@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.celeral.netlet.AbstractFramingClientTest.FramingClient;
+import com.celeral.netlet.framing.Int32LengthFraming;
+import com.celeral.netlet.util.ReferenceCountedSlice;
+import com.celeral.netlet.util.Releasable;
+import com.celeral.netlet.util.Slice;
+
+public class BroadcastGroupTest
+{
+  static class Message extends ReferenceCountedSlice
+  {
+    final AtomicInteger deallocated;
+
+    Message(byte[] array, AtomicInteger deallocated)
+    {
+      super(array);
+      this.deallocated = deallocated;
+    }
+
+    @Override
+    protected void deallocate()
+    {
+      deallocated.incrementAndGet();
+    }
+
+    private static final long serialVersionUID = 202610191202L;
+  }
+
+  /**
+   * Pretend that the event loop wrote everything queued on the client.
+   */
+  private static void drain(AbstractClient client)
+  {
+    Slice slice;
+    while ((slice = client.sendBuffer4Polls.poll()) != null) {
+      if (slice instanceof Releasable) {
+        ((Releasable)slice).release();
+      }
+    }
+  }
+
+  @Test
+  public void testLagging()
+  {
+    AtomicInteger deallocated = new AtomicInteger();
+    FramingClient fast = new FramingClient(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE);
+    FramingClient slow = new FramingClient(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE);
+
+    BroadcastGroup group = new BroadcastGroup(Int32LengthFraming.INSTANCE, 2, BroadcastGroup.LagPolicy.MARK);
+    Assert.assertTrue(group.add(fast));
+    Assert.assertTrue(group.add(slow));
+    Assert.assertFalse("already a member", group.add(slow));
+
+    for (int i = 0; i < 2; i++) {
+      Assert.assertEquals(2, group.broadcast(new Message(new byte[] {(byte)i}, deallocated)));
+      drain(fast);
+    }
+    Assert.assertEquals("header and payload per message", 4, slow.sendBuffer4Offers.size());
+
+    Assert.assertEquals("slow member lags", 1, group.broadcast(new Message(new byte[] {2}, deallocated)));
+    drain(fast);
+    Assert.assertTrue(group.isLagging(slow));
+    Assert.assertEquals(2, group.getPending(slow));
+
+    drain(slow);
+    Assert.assertEquals("all the messages released", 3, deallocated.get());
+    Assert.assertEquals("caught up", 2, group.broadcast(new Message(new byte[] {3}, deallocated)));
+    Assert.assertFalse(group.isLagging(slow));
+    drain(fast);
+    drain(slow);
+    Assert.assertEquals(4, deallocated.get());
+
+    group = new BroadcastGroup(Int32LengthFraming.INSTANCE, 1, BroadcastGroup.LagPolicy.DROP);
+    group.add(fast);
+    group.add(slow);
+    group.broadcast(new Message(new byte[] {4}, deallocated));
+    drain(fast);
+    Assert.assertEquals(1, group.broadcast(new Message(new byte[] {5}, deallocated)));
+    Assert.assertEquals("slow member dropped", 1, group.size());
+    Assert.assertEquals(-1, group.getPending(slow));
+  }
+
+  @Test
+  public void testBroadcast() throws Exception
+  {
+    final int clientCount = 16;
+    final int messageCount = 200;
+    AtomicInteger deallocated = new AtomicInteger();
+
+    DefaultEventLoop el = DefaultEventLoop.createEventLoop("broadcast");
+    el.start();
+    ServerTest.ServerImpl si = new ServerTest.ServerImpl();
+    el.start(new InetSocketAddress("localhost", 0), si);
+
+    BroadcastGroup group = new BroadcastGroup(Int32LengthFraming.INSTANCE, messageCount, BroadcastGroup.LagPolicy.DROP);
+    List<FramingClient> clients = new ArrayList<>();
+    try {
+      for (int i = 0; i < clientCount; i++) {
+        FramingClient client = new FramingClient(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE);
+        clients.add(client);
+        el.connect(si.getBoundAddress().get(), client);
+        synchronized (client.messages) {
+          while (!client.isConnected()) {
+            client.messages.wait(100);
+          }
+        }
+        group.add(client);
+      }
+
+      for (int i = 0; i < messageCount; i++) {
+        Assert.assertEquals(clientCount, group.broadcast(new Message(("message " + i).getBytes(), deallocated)));
+      }
+
+      long deadline = System.currentTimeMillis() + 10000;
+      for (FramingClient client : clients) {
+        synchronized (client.messages) {
+          while (client.messages.size() < messageCount && System.currentTimeMillis() < deadline) {
+            client.messages.wait(10);
+          }
+        }
+      }
+    }
+    finally {
+      for (FramingClient client : clients) {
+        el.disconnect(client);
+      }
+      el.stop(si);
+      el.stop();
+    }
+
+    for (FramingClient client : clients) {
+      Assert.assertEquals("message count", messageCount, client.messages.size());
+      for (int i = 0; i < messageCount; i++) {
+        Assert.assertArrayEquals(("message " + i).getBytes(), client.messages.get(i));
+      }
+    }
+    Assert.assertEquals("all the messages released", messageCount, deallocated.get());
+  }
+
+}
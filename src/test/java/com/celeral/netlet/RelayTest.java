@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.celeral.netlet.Listener.ClientListener;
+
+public class RelayTest
+{
+  static class RelayServer extends AbstractServer
+  {
+    final EventLoop eventloop;
+    final SocketAddress destination;
+
+    RelayServer(EventLoop eventloop, SocketAddress destination)
+    {
+      this.eventloop = eventloop;
+      this.destination = destination;
+    }
+
+    @Override
+    public ClientListener getClientConnection(SocketChannel sc, ServerSocketChannel ssc)
+    {
+      Relay relay = new Relay(1024);
+      eventloop.connect(destination, relay.getOutbound());
+      return relay.getInbound();
+    }
+
+  }
+
+  @Test
+  public void testRelayToEchoServer() throws Exception
+  {
+    final byte[] stream = new byte[1024 * 1024];
+    new Random(1).nextBytes(stream);
+
+    DefaultEventLoop el = DefaultEventLoop.createEventLoop("relay");
+    el.start();
+    ServerTest.ServerImpl echo = new ServerTest.ServerImpl();
+    el.start(new InetSocketAddress("localhost", 0), echo);
+    RelayServer relay = new RelayServer(el, echo.getBoundAddress().get());
+    el.start(new InetSocketAddress("localhost", 0), relay);
+
+    try (final Socket socket = new Socket()) {
+      socket.connect(relay.getBoundAddress().get());
+      socket.setSoTimeout(10000);
+      Thread writer = new Thread()
+      {
+        @Override
+        public void run()
+        {
+          try {
+            OutputStream os = socket.getOutputStream();
+            for (int i = 0; i < stream.length; i += 1000) {
+              os.write(stream, i, Math.min(1000, stream.length - i));
+            }
+          }
+          catch (Exception ex) {
+            throw new RuntimeException(ex);
+          }
+        }
+
+      };
+      writer.start();
+
+      ByteArrayOutputStream received = new ByteArrayOutputStream();
+      InputStream is = socket.getInputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while (received.size() < stream.length && (read = is.read(buffer)) != -1) {
+        received.write(buffer, 0, read);
+      }
+      writer.join();
+      Assert.assertArrayEquals("relayed stream", stream, received.toByteArray());
+
+      /*
+       * the echo server drops what it has not sent yet when it reads the end of the stream, so the output is shut
+       * down only after everything is echoed. The echo server then closes the connection, which makes its way back
+       * through the relay.
+       */
+      socket.shutdownOutput();
+      Assert.assertEquals("end of stream", -1, is.read());
+    }
+    finally {
+      el.stop(relay);
+      el.stop(echo);
+      el.stop();
+    }
+  }
+
+}
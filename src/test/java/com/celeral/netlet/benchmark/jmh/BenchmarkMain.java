@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.NoBenchmarksException;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks the command line includes and writes all their results in a single file, which is JSON unless
+ * the command line asks for another format. {@link QueueBenchmark} is repeated with each combination of the producer
+ * and the consumer counts in {@link QueueBenchmark#THREADS}; the others run once as they are annotated.
+ *
+ * The <code>jmh</code> benchmark profile runs it by default:
+ * <code>mvn -Dbenchmark=jmh test-compile exec:exec</code>
+ *
+ * @since 2.0.0
+ */
+public class BenchmarkMain
+{
+  private static final String QUEUE_BENCHMARK = QueueBenchmark.class.getName().replace(".", "\\.") + "\\.";
+
+  /**
+   * @param args JMH command line options; the result file and format options apply to the combined results.
+   * @throws Exception if the command line cannot be parsed or if the benchmarks cannot be run.
+   */
+  public static void main(String[] args) throws Exception
+  {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+
+    /* each run writes its results into the result file, which the combined results overwrite in the end */
+    List<RunResult> results = new ArrayList<>();
+    try {
+      results.addAll(new Runner(new OptionsBuilder()
+              .parent(commandLine)
+              .exclude(QUEUE_BENCHMARK)
+              .build()).run());
+    }
+    catch (NoBenchmarksException ex) {
+      /* the queues are the only ones included */
+    }
+
+    if (isIncluded(commandLine, QueueBenchmark.class.getName() + ".handoff")) {
+      for (int producers : QueueBenchmark.THREADS) {
+        for (int consumers : QueueBenchmark.THREADS) {
+          results.addAll(new Runner(new OptionsBuilder()
+                  .parent(commandLine)
+                  .include(QUEUE_BENCHMARK)
+                  .exclude("^(?!" + QUEUE_BENCHMARK + ")")
+                  .threadGroups(producers, consumers)
+                  .build()).run());
+        }
+      }
+    }
+
+    ResultFormatFactory.getInstance(commandLine.getResultFormat().orElse(ResultFormatType.JSON),
+                                    commandLine.getResult().orElse("jmh-result.json")).writeOut(results);
+  }
+
+  /**
+   * Tell if the benchmark is selected by the command line the same way JMH selects them.
+   */
+  private static boolean isIncluded(CommandLineOptions commandLine, String benchmark)
+  {
+    for (String exclude : commandLine.getExcludes()) {
+      if (Pattern.compile(exclude).matcher(benchmark).find()) {
+        return false;
+      }
+    }
+
+    List<String> includes = commandLine.getIncludes();
+    if (includes.isEmpty()) {
+      return true;
+    }
+    for (String include : includes) {
+      if (Pattern.compile(include).matcher(benchmark).find()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
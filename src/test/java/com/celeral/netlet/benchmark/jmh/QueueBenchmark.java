@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.benchmark.jmh;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Control;
+
+import com.celeral.netlet.util.CircularBuffers;
+import com.celeral.netlet.util.SynchronizedCircularBuffer;
+
+/**
+ * Measures the throughput and the latency of handing the objects over from the producers to the consumers through
+ * the netlet buffers and through the JDK queues.
+ *
+ * The annotations run 1 producer against 1 consumer. {@link BenchmarkMain}, which the <code>jmh</code> benchmark
+ * profile runs, repeats it with each combination of the producer and the consumer counts in {@link #THREADS}:
+ * <code>mvn -Dbenchmark=jmh -Dbenchmark.jmh.include=QueueBenchmark test-compile exec:exec</code>
+ *
+ * @since 2.0.0
+ */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark
+{
+  public static final int CAPACITY = 1024;
+  public static final int[] THREADS = {1, 2, 4, 8};
+  private static final Integer ELEMENT = 42;
+
+  /**
+   * The buffer created by {@link CircularBuffers} is the one which is safe for the number of the producers and the
+   * consumers benchmarked, so it's the padded single producer single consumer buffer in the 1 to 1 case.
+   */
+  @Param({"CircularBuffers", "SynchronizedCircularBuffer", "ArrayBlockingQueue", "ConcurrentLinkedQueue"})
+  public String queueType;
+
+  private Queue<Integer> queue;
+
+  @Setup
+  public void setup(BenchmarkParams params)
+  {
+    int[] threadGroups = params.getThreadGroups();
+    switch (queueType) {
+      case "CircularBuffers":
+        queue = CircularBuffers.newBuffer(CAPACITY, 0, threadGroups[0] > 1, threadGroups[1] > 1);
+        break;
+
+      case "SynchronizedCircularBuffer":
+        queue = new SynchronizedCircularBuffer<>(CAPACITY, 0);
+        break;
+
+      case "ArrayBlockingQueue":
+        queue = new ArrayBlockingQueue<>(CAPACITY);
+        break;
+
+      case "ConcurrentLinkedQueue":
+        queue = new ConcurrentLinkedQueue<>();
+        break;
+
+      default:
+        throw new IllegalArgumentException("Unknown queue type " + queueType);
+    }
+  }
+
+  @Benchmark
+  @Group("handoff")
+  @GroupThreads(1)
+  public boolean offer(Control control)
+  {
+    while (!queue.offer(ELEMENT)) {
+      if (control.stopMeasurement) {
+        return false;
+      }
+      Thread.yield();
+    }
+    return true;
+  }
+
+  @Benchmark
+  @Group("handoff")
+  @GroupThreads(1)
+  public Integer poll(Control control)
+  {
+    Integer element;
+    while ((element = queue.poll()) == null) {
+      if (control.stopMeasurement) {
+        return null;
+      }
+      Thread.yield();
+    }
+    return element;
+  }
+
+}
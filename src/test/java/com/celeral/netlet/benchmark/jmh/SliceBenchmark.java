@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.benchmark.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.celeral.netlet.util.Slice;
+import com.celeral.netlet.util.SliceKey;
+
+/**
+ * Measures the cost of using {@link Slice} as a key. The slices compared are equal but sit at different offsets of
+ * different arrays so that neither the identity nor the array shortcuts the comparison. The keys compute their hash
+ * once and cache it.
+ *
+ * Run with <code>mvn -Dbenchmark=jmh -Dbenchmark.jmh.include=SliceBenchmark test-compile exec:exec</code>
+ *
+ * @since 2.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SliceBenchmark
+{
+  @Param({"8", "64", "1024"})
+  public int length;
+
+  private Slice slice;
+  private Slice equal;
+  private Slice differentFirst;
+  private SliceKey key;
+  private SliceKey equalKey;
+
+  @Setup
+  public void setup()
+  {
+    byte[] bytes = new byte[length];
+    new Random(length).nextBytes(bytes);
+
+    byte[] array = new byte[length + 3];
+    System.arraycopy(bytes, 0, array, 3, length);
+    slice = new Slice(array, 3, length);
+
+    array = new byte[length + 5];
+    System.arraycopy(bytes, 0, array, 5, length);
+    equal = new Slice(array, 5, length);
+
+    array = new byte[length + 7];
+    System.arraycopy(bytes, 0, array, 7, length);
+    array[7]++;
+    differentFirst = new Slice(array, 7, length);
+
+    key = new SliceKey(slice);
+    equalKey = new SliceKey(equal);
+  }
+
+  @Benchmark
+  public int hash()
+  {
+    return slice.hashCode();
+  }
+
+  @Benchmark
+  public boolean equal()
+  {
+    return slice.equals(equal);
+  }
+
+  @Benchmark
+  public boolean notEqual()
+  {
+    return slice.equals(differentFirst);
+  }
+
+  @Benchmark
+  public int keyHash()
+  {
+    return key.hashCode();
+  }
+
+  @Benchmark
+  public boolean keyEqual()
+  {
+    return key.equals(equalKey);
+  }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.benchmark.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.celeral.netlet.util.VarInt;
+
+/**
+ * Compares the byte at a time varint codec, which the length prepending clients use, against the one which loads
+ * 8 bytes at a time and against the bulk codec. The legacy benchmarks measure the loop based sizing VarInt used to have.
+ *
+ * Run with <code>mvn -Dbenchmark=jmh -Dbenchmark.jmh.include=VarIntBenchmark test-compile exec:exec</code>
+ *
+ * @since 2.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VarIntBenchmark
+{
+  public static final int COUNT = 1024;
+
+  /**
+   * Number of the bits in the values encoded; 7 bit values make 1 byte varints and 32 bit values
+   * mostly make 5 byte varints.
+   */
+  @Param({"7", "14", "32", "64"})
+  public int bits;
+
+  private int[] ints;
+  private long[] longs;
+  private byte[] intStream;
+  private byte[] longStream;
+  private ByteBuffer intBuffer;
+  private ByteBuffer longBuffer;
+  private int intLimit;
+  private int longLimit;
+  private final VarInt.MutableInt newOffset = new VarInt.MutableInt();
+
+  @Setup
+  public void setup()
+  {
+    Random random = new Random(bits);
+    ints = new int[COUNT];
+    longs = new long[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      longs[i] = bits == 64 ? random.nextLong() : random.nextLong() & ((1L << bits) - 1);
+      ints[i] = (int)longs[i];
+    }
+
+    intStream = new byte[COUNT * 5];
+    intLimit = VarInt.write(ints, 0, COUNT, intStream, 0);
+    intBuffer = ByteBuffer.wrap(intStream);
+
+    longStream = new byte[COUNT * 10];
+    longLimit = VarInt.write(longs, 0, COUNT, longStream, 0);
+    longBuffer = ByteBuffer.wrap(longStream);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void read(Blackhole blackhole)
+  {
+    int offset = 0;
+    while (offset < intLimit) {
+      blackhole.consume(VarInt.read(intStream, offset, intLimit, newOffset));
+      offset = newOffset.integer;
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void readByteBuffer(Blackhole blackhole)
+  {
+    int offset = 0;
+    while (offset < intLimit) {
+      blackhole.consume(VarInt.read(intBuffer, offset, intLimit, newOffset));
+      offset = newOffset.integer;
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int readBulk()
+  {
+    return VarInt.read(intBuffer, 0, intLimit, ints, 0, COUNT, newOffset);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void readLong(Blackhole blackhole)
+  {
+    int offset = 0;
+    while (offset < longLimit) {
+      blackhole.consume(VarInt.readLong(longStream, offset, longLimit, newOffset));
+      offset = newOffset.integer;
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void readLongByteBuffer(Blackhole blackhole)
+  {
+    int offset = 0;
+    while (offset < longLimit) {
+      blackhole.consume(VarInt.readLong(longBuffer, offset, longLimit, newOffset));
+      offset = newOffset.integer;
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int write()
+  {
+    return VarInt.write(ints, 0, COUNT, intStream, 0);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void legacyGetSize(Blackhole blackhole)
+  {
+    for (int value : ints) {
+      blackhole.consume(legacyGetSize(value));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public void getSize(Blackhole blackhole)
+  {
+    for (int value : ints) {
+      blackhole.consume(VarInt.getSize(value));
+    }
+  }
+
+  private static int legacyGetSize(int value)
+  {
+    int offset = 0;
+    while (true) {
+      if ((value & ~0x7F) == 0) {
+        return ++offset;
+      }
+      else {
+        ++offset;
+        value >>>= 7;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.celeral.netlet.codec.DefaultStatefulStreamCodecTest.Message;
+import com.celeral.netlet.codec.StatefulStreamCodec.DataStatePair;
+import com.celeral.netlet.util.PooledSlice;
+import com.celeral.netlet.util.Slice;
+import com.celeral.netlet.util.SlicePool;
+
+public class AeadStatefulStreamCodecTest
+{
+  private final SlicePool pool = new SlicePool(16, 1 << 20, 4, 16, false);
+  private final byte[] secret = CipherStatefulStreamCodec.getRandomBytes(32);
+
+  private AeadStatefulStreamCodec<Object> newCodec(boolean initiator)
+  {
+    DefaultStatefulStreamCodec<Object> codec = new DefaultStatefulStreamCodec<>();
+    codec.setSlicePool(pool);
+    AeadStatefulStreamCodec<Object> aead = new AeadStatefulStreamCodec<>(codec, pool);
+    aead.initSession(secret, initiator);
+    return aead;
+  }
+
+  /**
+   * Copy the slice the way it'd be read off the wire, releasing the pooled one the way the writer would.
+   */
+  private static Slice transmit(Slice slice)
+  {
+    if (slice == null) {
+      return null;
+    }
+
+    Assert.assertTrue("pooled " + slice, slice instanceof PooledSlice);
+    Slice copy = new Slice(slice.toByteArray());
+    ((PooledSlice)slice).release();
+    return copy;
+  }
+
+  private static DataStatePair transmit(DataStatePair pair)
+  {
+    DataStatePair copy = new DataStatePair();
+    copy.state = transmit(pair.state);
+    copy.data = transmit(pair.data);
+    return copy;
+  }
+
+  @Test
+  public void testBothDirections()
+  {
+    AeadStatefulStreamCodec<Object> initiator = newCodec(true);
+    AeadStatefulStreamCodec<Object> responder = newCodec(false);
+
+    for (int size = 0; size < 100000; size = size * 3 + 1) {
+      DataStatePair request = transmit(initiator.toDataStatePair(new Message("request", size)));
+      Assert.assertEquals("request", ((Message)responder.fromDataStatePair(request)).text);
+
+      DataStatePair response = transmit(responder.toDataStatePair(new Message("response", size)));
+      Message message = (Message)initiator.fromDataStatePair(response);
+      Assert.assertEquals("response", message.text);
+      Assert.assertArrayEquals(new Message("response", size).bytes, message.bytes);
+    }
+  }
+
+  @Test
+  public void testOutOfOrderAndReplay()
+  {
+    AeadStatefulStreamCodec<Object> initiator = newCodec(true);
+    AeadStatefulStreamCodec<Object> responder = newCodec(false);
+
+    DataStatePair first = transmit(initiator.toDataStatePair(new Message("first", 1)));
+    DataStatePair second = transmit(initiator.toDataStatePair(new Message("second", 2)));
+    Slice replayed = new Slice(second.data.toByteArray());
+
+    /* the state of the first message is needed to decode the second one */
+    DataStatePair state = new DataStatePair();
+    state.data = second.data;
+    state.state = first.state;
+    first.state = null;
+
+    Assert.assertEquals("second", ((Message)responder.fromDataStatePair(state)).text);
+    Assert.assertEquals("first", ((Message)responder.fromDataStatePair(first)).text);
+
+    DataStatePair replay = new DataStatePair();
+    replay.data = replayed;
+    try {
+      responder.fromDataStatePair(replay);
+      Assert.fail("replayed message accepted");
+    }
+    catch (RuntimeException ex) {
+      /* expected */
+    }
+  }
+
+  @Test
+  public void testTamperedMessage()
+  {
+    AeadStatefulStreamCodec<Object> initiator = newCodec(true);
+    AeadStatefulStreamCodec<Object> responder = newCodec(false);
+
+    DataStatePair pair = transmit(initiator.toDataStatePair(new Message("tampered", 10)));
+    pair.data.buffer[pair.data.offset + pair.data.length / 2] ^= 1;
+    try {
+      responder.fromDataStatePair(pair);
+      Assert.fail("tampered message accepted");
+    }
+    catch (Exception ex) {
+      /* expected */
+    }
+
+    /* a codec cannot decrypt its own messages as the directions use different keys */
+    DataStatePair own = transmit(initiator.toDataStatePair(new Message("own", 10)));
+    try {
+      initiator.fromDataStatePair(own);
+      Assert.fail("message of the same direction accepted");
+    }
+    catch (Exception ex) {
+      /* expected */
+    }
+  }
+
+}
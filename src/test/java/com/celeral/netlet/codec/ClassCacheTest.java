@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClassCacheTest
+{
+  @Test
+  public void testForName() throws ClassNotFoundException
+  {
+    ClassLoader loader = ClassCacheTest.class.getClassLoader();
+    Assert.assertSame(ClassCacheTest.class, ClassCache.forName(ClassCacheTest.class.getName(), loader));
+    Assert.assertSame("cached", ClassCacheTest.class, ClassCache.forName(ClassCacheTest.class.getName(), loader));
+    Assert.assertSame("bootstrap", String.class, ClassCache.forName(String.class.getName(), null));
+
+    try {
+      ClassCache.forName("com.celeral.netlet.codec.Missing", loader);
+      Assert.fail("missing class found");
+    }
+    catch (ClassNotFoundException ex) {
+      /* expected */
+    }
+  }
+
+  @Test
+  public void testLoaders() throws ClassNotFoundException
+  {
+    ClassLoader loader = ClassCacheTest.class.getClassLoader();
+    /* a loader which delegates to the class path loader, and another one which does not know about this class */
+    ClassLoader child = new URLClassLoader(new URL[0], loader);
+    ClassLoader stranger = new URLClassLoader(new URL[0], null);
+
+    Assert.assertSame(ClassCacheTest.class, ClassCache.forName(ClassCacheTest.class.getName(), loader));
+    Assert.assertSame(ClassCacheTest.class, ClassCache.forName(ClassCacheTest.class.getName(), child));
+    try {
+      ClassCache.forName(ClassCacheTest.class.getName(), stranger);
+      Assert.fail("class found by the loader which cannot load it");
+    }
+    catch (ClassNotFoundException ex) {
+      /* expected */
+    }
+    Assert.assertSame(ClassCacheTest.class, ClassCache.forName(ClassCacheTest.class.getName(), loader));
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.celeral.netlet.codec.DefaultStatefulStreamCodecTest.Message;
+import com.celeral.netlet.codec.StatefulStreamCodec.DataStatePair;
+import com.celeral.netlet.util.Slice;
+
+public class ClassRegistryTest
+{
+  public static class Unregistered
+  {
+    int value;
+  }
+
+  private static final ClassRegistry registry = new ClassRegistry(Message.class, byte[].class);
+
+  private static DefaultStatefulStreamCodec<Object> newCodec(ClassRegistry registry)
+  {
+    DefaultStatefulStreamCodec<Object> codec = new DefaultStatefulStreamCodec<>();
+    codec.register(registry);
+    return codec;
+  }
+
+  private static DataStatePair copy(DataStatePair pair)
+  {
+    DataStatePair copy = new DataStatePair();
+    copy.data = new Slice(pair.data.toByteArray());
+    copy.state = pair.state == null ? null : new Slice(pair.state.toByteArray());
+    pair.release();
+    return copy;
+  }
+
+  private static boolean contains(Slice slice, Class<?> type)
+  {
+    /* kryo marks the last character of the ascii strings */
+    String name = type.getName();
+    return new String(slice.toByteArray(), StandardCharsets.ISO_8859_1).contains(name.substring(0, name.length() - 1));
+  }
+
+  @Test
+  public void testRegisteredClasses()
+  {
+    DefaultStatefulStreamCodec<Object> serializer = newCodec(registry);
+    DefaultStatefulStreamCodec<Object> deserializer = newCodec(registry);
+
+    for (int reset = 0; reset < 2; reset++) {
+      DataStatePair pair = copy(serializer.toDataStatePair(new Message("first", 3)));
+      Assert.assertNotNull("fingerprint sent", pair.state);
+      Assert.assertFalse("registration sent", contains(pair.state, Message.class));
+      Assert.assertEquals("first", ((Message)deserializer.fromDataStatePair(pair)).text);
+
+      pair = copy(serializer.toDataStatePair(new Message("second", 3)));
+      Assert.assertNull(pair.state);
+      Assert.assertEquals("second", ((Message)deserializer.fromDataStatePair(pair)).text);
+
+      pair = copy(serializer.toDataStatePair(new Unregistered()));
+      Assert.assertTrue("registration sent", contains(pair.state, Unregistered.class));
+      Assert.assertSame(Unregistered.class, deserializer.fromDataStatePair(pair).getClass());
+
+      serializer.resetState();
+      deserializer.resetState();
+    }
+  }
+
+  @Test
+  public void testMismatchedRegistry()
+  {
+    DefaultStatefulStreamCodec<Object> serializer = newCodec(registry);
+    DefaultStatefulStreamCodec<Object> deserializer = newCodec(new ClassRegistry(byte[].class, Message.class));
+
+    try {
+      deserializer.fromDataStatePair(copy(serializer.toDataStatePair(new Message("mismatched", 1))));
+      Assert.fail("mismatched registry accepted");
+    }
+    catch (RuntimeException ex) {
+      /* expected */
+    }
+
+    try {
+      newCodec(registry).fromDataStatePair(copy(new DefaultStatefulStreamCodec<>().toDataStatePair(new Message("missing", 1))));
+      Assert.fail("missing registry accepted");
+    }
+    catch (RuntimeException ex) {
+      /* expected */
+    }
+  }
+
+  @Test
+  public void testThreadLocalCodecs()
+  {
+    ThreadLocalStatefulStreamCodec<Object> serializer = new ThreadLocalStatefulStreamCodec<>(() -> newCodec(registry));
+    ThreadLocalStatefulStreamCodec<Object> deserializer = new ThreadLocalStatefulStreamCodec<>(() -> newCodec(registry));
+
+    DataStatePair pair = copy(serializer.toDataStatePair(new Message("first", 3)));
+    Assert.assertNotNull("fingerprint sent", pair.state);
+    Assert.assertFalse("registration sent", contains(pair.state, Message.class));
+    Assert.assertEquals("first", ((Message)deserializer.fromDataStatePair(pair)).text);
+
+    pair = copy(serializer.toDataStatePair(new Message("second", 3)));
+    Assert.assertNull(pair.state);
+    Assert.assertEquals("second", ((Message)deserializer.fromDataStatePair(pair)).text);
+  }
+
+}
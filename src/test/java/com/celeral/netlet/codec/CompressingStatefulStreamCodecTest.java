@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.celeral.netlet.codec.StatefulStreamCodec.DataStatePair;
+import com.celeral.netlet.codec.StatefulStreamCodec.MessageType;
+import com.celeral.netlet.util.Slice;
+import com.celeral.netlet.util.SlicePool;
+
+public class CompressingStatefulStreamCodecTest
+{
+  public static class Record
+  {
+    String name;
+    String description;
+    int[] values;
+
+    public Record()
+    {
+    }
+
+    Record(int id, int size)
+    {
+      this.name = "record-" + id;
+      this.description = "a record of the series of the records which look alike except for their identifiers";
+      this.values = new int[size];
+      Arrays.fill(values, id);
+    }
+
+  }
+
+  private final SlicePool pool = new SlicePool(16, 1 << 20, 4, 16, false);
+
+  private CompressingStatefulStreamCodec<Object> newCodec(int threshold, byte[] dictionary)
+  {
+    return new CompressingStatefulStreamCodec<>(new DefaultStatefulStreamCodec<>(), threshold, Deflater.DEFAULT_COMPRESSION, dictionary, pool);
+  }
+
+  private static DataStatePair copy(DataStatePair pair)
+  {
+    DataStatePair copy = new DataStatePair();
+    copy.data = new Slice(pair.data.toByteArray());
+    copy.state = pair.state == null ? null : new Slice(pair.state.toByteArray());
+    pair.release();
+    return copy;
+  }
+
+  private static void assertRecord(Record expected, Object actual)
+  {
+    Record record = (Record)actual;
+    Assert.assertEquals(expected.name, record.name);
+    Assert.assertEquals(expected.description, record.description);
+    Assert.assertArrayEquals(expected.values, record.values);
+  }
+
+  @Test
+  public void testThreshold()
+  {
+    CompressingStatefulStreamCodec<Object> serializer = newCodec(256, null);
+    CompressingStatefulStreamCodec<Object> deserializer = newCodec(256, null);
+
+    Record small = new Record(1, 4);
+    DataStatePair pair = copy(serializer.toDataStatePair(small));
+    Assert.assertEquals("state left as it is", MessageType.STATE.getByte(), pair.state.buffer[0]);
+    Assert.assertEquals("small data left as it is", MessageType.DATA.getByte(), pair.data.buffer[0]);
+    assertRecord(small, deserializer.fromDataStatePair(pair));
+
+    Record large = new Record(2, 1000);
+    pair = copy(serializer.toDataStatePair(large));
+    Assert.assertNull(pair.state);
+    Assert.assertEquals("large data compressed", MessageType.DATA.getByte() | MessageType.COMPRESSED, pair.data.buffer[0]);
+    Assert.assertEquals(MessageType.DATA, MessageType.valueOf(pair.data.buffer[0]));
+    Assert.assertTrue("compressed size " + pair.data.length, pair.data.length < 100);
+    assertRecord(large, deserializer.fromDataStatePair(pair));
+  }
+
+  private static void assertRejected(CompressingStatefulStreamCodec<Object> codec, byte[] data)
+  {
+    DataStatePair pair = new DataStatePair();
+    pair.data = new Slice(data);
+    try {
+      codec.fromDataStatePair(pair);
+      Assert.fail("malformed message accepted");
+    }
+    catch (IllegalArgumentException ex) {
+      Assert.assertTrue(String.valueOf(ex.getCause()), ex.getCause() instanceof DataFormatException);
+    }
+  }
+
+  @Test
+  public void testMalformed()
+  {
+    CompressingStatefulStreamCodec<Object> serializer = newCodec(256, null);
+    CompressingStatefulStreamCodec<Object> deserializer = newCodec(256, null);
+    deserializer.setMaxMessageSize(8192);
+
+    Record record = new Record(3, 1000);
+    DataStatePair pair = copy(serializer.toDataStatePair(record));
+    byte[] compressed = pair.data.toByteArray();
+    assertRecord(record, deserializer.fromDataStatePair(pair));
+
+    /* the length claimed by the peer is checked before anything is allocated */
+    byte[] huge = {(byte)(MessageType.DATA.getByte() | MessageType.COMPRESSED), (byte)0xff, (byte)0xff, (byte)0xff, (byte)0xff, 0x07};
+    assertRejected(deserializer, huge);
+
+    assertRejected(deserializer, Arrays.copyOf(compressed, compressed.length - 1));
+    assertRejected(deserializer, Arrays.copyOf(compressed, compressed.length + 1));
+  }
+
+  @Test
+  public void testDictionary()
+  {
+    DefaultStatefulStreamCodec<Object> sampler = new DefaultStatefulStreamCodec<>();
+    List<Slice> samples = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      samples.add(new Slice(sampler.toDataStatePair(new Record(i, 8)).data.toByteArray()));
+    }
+    byte[] dictionary = CompressingStatefulStreamCodec.newDictionary(samples, 1024);
+
+    CompressingStatefulStreamCodec<Object> plain = newCodec(64, null);
+    CompressingStatefulStreamCodec<Object> serializer = newCodec(64, dictionary);
+    CompressingStatefulStreamCodec<Object> deserializer = newCodec(64, dictionary);
+
+    /* warm up the class registrations so that only the data is compared */
+    deserializer.fromDataStatePair(copy(serializer.toDataStatePair(new Record(0, 8))));
+    plain.toDataStatePair(new Record(0, 8)).release();
+
+    Record record = new Record(42, 8);
+    DataStatePair withoutDictionary = copy(plain.toDataStatePair(record));
+    DataStatePair withDictionary = copy(serializer.toDataStatePair(record));
+    Assert.assertEquals(MessageType.DATA.getByte() | MessageType.COMPRESSED, withDictionary.data.buffer[0]);
+    Assert.assertTrue(withDictionary.data.length + " < " + withoutDictionary.data.length,
+                      withDictionary.data.length < withoutDictionary.data.length);
+    assertRecord(record, deserializer.fromDataStatePair(withDictionary));
+  }
+
+  @Test
+  public void testCompressedAndEncrypted()
+  {
+    byte[] secret = CipherStatefulStreamCodec.getRandomBytes(32);
+    AeadStatefulStreamCodec<Object> serializer = new AeadStatefulStreamCodec<>(newCodec(64, null), pool);
+    serializer.initSession(secret, true);
+    AeadStatefulStreamCodec<Object> deserializer = new AeadStatefulStreamCodec<>(newCodec(64, null), pool);
+    deserializer.initSession(secret, false);
+
+    for (int size = 1; size < 10000; size *= 10) {
+      Record record = new Record(size, size);
+      DataStatePair pair = copy(serializer.toDataStatePair(record));
+      Assert.assertEquals(MessageType.DATA, MessageType.valueOf(pair.data.buffer[0]));
+      assertRecord(record, deserializer.fromDataStatePair(pair));
+    }
+  }
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.celeral.netlet.codec.StatefulStreamCodec.DataStatePair;
+import com.celeral.netlet.codec.StatefulStreamCodec.MessageType;
+import com.celeral.netlet.framing.FrameDecoder;
+import com.celeral.netlet.framing.FrameEncoder;
+import com.celeral.netlet.framing.Int32LengthFraming;
+import com.celeral.netlet.framing.VarIntLengthFraming;
+import com.celeral.netlet.util.PooledSlice;
+import com.celeral.netlet.util.Slice;
+import com.celeral.netlet.util.SlicePool;
+
+public class DefaultStatefulStreamCodecTest
+{
+  public static class Message
+  {
+    String text;
+    byte[] bytes;
+
+    public Message()
+    {
+    }
+
+    Message(String text, int size)
+    {
+      this.text = text;
+      this.bytes = new byte[size];
+      Arrays.fill(bytes, (byte)size);
+    }
+
+  }
+
+  @DefaultSerializer(FailingSerializer.class)
+  public static class Unserializable
+  {
+  }
+
+  public static class FailingSerializer extends Serializer<Unserializable>
+  {
+    @Override
+    public void write(Kryo kryo, Output output, Unserializable object)
+    {
+      output.writeBytes(new byte[4096]);
+      throw new KryoException("Failing after the bytes are written!");
+    }
+
+    @Override
+    public Unserializable read(Kryo kryo, Input input, Class<Unserializable> type)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+  }
+
+  @Test
+  public void testVarIntFrames()
+  {
+    VarIntLengthFraming framing = new VarIntLengthFraming();
+    verifyFrames(framing, framing);
+  }
+
+  @Test
+  public void testInt32Frames()
+  {
+    verifyFrames(Int32LengthFraming.INSTANCE, Int32LengthFraming.INSTANCE);
+  }
+
+  /**
+   * Serialize the messages of growing sizes into frames, some of which outgrow the slices they start in, and
+   * deserialize them from the frames.
+   */
+  private static void verifyFrames(FrameDecoder decoder, FrameEncoder encoder)
+  {
+    SlicePool pool = new SlicePool(16, 1 << 20, 4, 16, false);
+    DefaultStatefulStreamCodec<Object> serializer = new DefaultStatefulStreamCodec<>();
+    serializer.setSlicePool(pool);
+    DefaultStatefulStreamCodec<Object> deserializer = new DefaultStatefulStreamCodec<>();
+
+    List<PooledSlice> slices = new ArrayList<>();
+    int states = 0;
+    for (int size = 0; size < 100000; size = size * 3 + 1) {
+      DataStatePair frames = serializer.toFramedDataStatePair(new Message("message", size), encoder);
+      DataStatePair pair = new DataStatePair();
+      pair.data = payload(decoder, frames.data);
+      if (frames.state != null) {
+        pair.state = payload(decoder, frames.state);
+        slices.add((PooledSlice)frames.state);
+        states++;
+      }
+      slices.add((PooledSlice)frames.data);
+
+      Message message = (Message)deserializer.fromDataStatePair(pair);
+      Assert.assertEquals("message", message.text);
+      Assert.assertArrayEquals(new Message("message", size).bytes, message.bytes);
+      frames.release();
+    }
+
+    Assert.assertEquals("state written with the first message", 1, states);
+    for (PooledSlice slice : slices) {
+      Assert.assertEquals("released " + slice, 0, slice.references());
+    }
+  }
+
+  @Test
+  public void testChunks() throws Exception
+  {
+    SlicePool pool = new SlicePool(16, 1 << 20, 4, 16, false);
+    DefaultStatefulStreamCodec<Object> serializer = new DefaultStatefulStreamCodec<>();
+    serializer.setSlicePool(pool);
+    DefaultStatefulStreamCodec<Object> deserializer = new DefaultStatefulStreamCodec<>();
+
+    AtomicInteger suspended = new AtomicInteger();
+    AtomicInteger resumed = new AtomicInteger();
+    ChunkQueue chunks = new ChunkQueue(16 * 1024, suspended::incrementAndGet, resumed::incrementAndGet);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Object> future = executor.submit(() -> deserializer.fromChunks(chunks));
+
+      List<Slice> written = new ArrayList<>();
+      serializer.toChunks(new Message("large", 1 << 20), 4096, chunk -> {
+        written.add(chunk);
+        Assert.assertTrue("chunk size " + chunk.length, chunk.length <= 4097);
+        Slice copy = new Slice(chunk.toByteArray());
+        ((PooledSlice)chunk).release();
+        chunks.offer(copy);
+      });
+
+      Message message = (Message)future.get(10, TimeUnit.SECONDS);
+      Assert.assertEquals("large", message.text);
+      Assert.assertArrayEquals(new Message("large", 1 << 20).bytes, message.bytes);
+      Assert.assertTrue("chunks " + written.size(), written.size() > 256);
+      Assert.assertTrue("suspended " + suspended, suspended.get() > 0);
+      Assert.assertEquals(suspended.get(), resumed.get());
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public static class Shared
+  {
+    String name;
+
+    public Shared()
+    {
+    }
+
+    Shared(String name)
+    {
+      this.name = name;
+    }
+
+  }
+
+  public static class Late
+  {
+    Shared shared;
+    Object self;
+  }
+
+  /**
+   * Graph in which the same objects are referenced more than once, with a class first seen after the given filler.
+   */
+  private static ArrayList<Object> newGraph(int filler)
+  {
+    Shared shared = new Shared("shared");
+    Late late = new Late();
+    late.shared = shared;
+    late.self = late;
+
+    ArrayList<Object> graph = new ArrayList<>();
+    graph.add(shared);
+    graph.add(new Message("filler", filler));
+    graph.add(shared);
+    graph.add(late);
+    graph.add(late);
+    graph.add(shared);
+    return graph;
+  }
+
+  private static void assertGraph(Object object)
+  {
+    @SuppressWarnings("unchecked")
+    List<Object> graph = (List<Object>)object;
+    Assert.assertEquals(6, graph.size());
+    Shared shared = (Shared)graph.get(0);
+    Assert.assertEquals("shared", shared.name);
+    Assert.assertSame(shared, graph.get(2));
+    Late late = (Late)graph.get(3);
+    Assert.assertSame(late, graph.get(4));
+    Assert.assertSame(late, late.self);
+    Assert.assertSame(shared, late.shared);
+    Assert.assertSame(shared, graph.get(5));
+  }
+
+  @Test
+  public void testChunkedReferences()
+  {
+    for (int chunkSize : new int[] {64, 128, 4096}) {
+      DefaultStatefulStreamCodec<Object> serializer = new DefaultStatefulStreamCodec<>();
+      DefaultStatefulStreamCodec<Object> deserializer = new DefaultStatefulStreamCodec<>();
+      for (int round = 0; round < 2; round++) {
+        ChunkQueue chunks = new ChunkQueue(1 << 20, () -> { }, () -> { });
+        List<MessageType> types = new ArrayList<>();
+        serializer.toChunks(newGraph(200), chunkSize, chunk -> {
+          types.add(MessageType.valueOf(chunk.buffer[chunk.offset]));
+          chunks.offer(new Slice(chunk.toByteArray()));
+        });
+        /* the class of the late object is registered with a state of its own once the first chunk is full */
+        Assert.assertEquals(types.toString(), round == 0 ? chunkSize < 200 ? 2 : 1 : 0,
+                            Collections.frequency(types, MessageType.STATE));
+        assertGraph(deserializer.fromChunks(chunks));
+      }
+    }
+  }
+
+  @Test
+  public void testSingleChunk()
+  {
+    DefaultStatefulStreamCodec<Object> chunked = new DefaultStatefulStreamCodec<>();
+    DefaultStatefulStreamCodec<Object> whole = new DefaultStatefulStreamCodec<>();
+    DefaultStatefulStreamCodec<Object> deserializer = new DefaultStatefulStreamCodec<>();
+
+    /* the object which fits in a chunk is received the same way as the whole one */
+    List<byte[]> chunks = new ArrayList<>();
+    chunked.toChunks(newGraph(10), 4096, chunk -> chunks.add(chunk.toByteArray()));
+    Assert.assertEquals(2, chunks.size());
+    Assert.assertArrayEquals(whole.toDataStatePair(newGraph(10)).data.toByteArray(), chunks.get(1));
+
+    DataStatePair pair = new DataStatePair();
+    pair.state = new Slice(chunks.get(0));
+    pair.data = new Slice(chunks.get(1));
+    assertGraph(deserializer.fromDataStatePair(pair));
+  }
+
+  @Test
+  public void testAbortedChunks()
+  {
+    DefaultStatefulStreamCodec<Object> serializer = new DefaultStatefulStreamCodec<>();
+    DefaultStatefulStreamCodec<Object> deserializer = new DefaultStatefulStreamCodec<>();
+    ChunkQueue chunks = new ChunkQueue(1 << 20, () -> { }, () -> { });
+
+    Object[] objects = {new Message("first", 1000), new Unserializable()};
+    try {
+      serializer.toChunks(objects, 256, chunk -> chunks.offer(new Slice(chunk.toByteArray())));
+      Assert.fail("unserializable object serialized");
+    }
+    catch (RuntimeException ex) {
+      /* expected */
+    }
+
+    try {
+      deserializer.fromChunks(chunks);
+      Assert.fail("aborted object deserialized");
+    }
+    catch (RuntimeException ex) {
+      /* expected */
+    }
+  }
+
+  private static Slice payload(FrameDecoder decoder, Slice frame)
+  {
+    Slice payload = new Slice(null, 0, 0);
+    Assert.assertEquals("frame size", frame.length, decoder.decode(frame.buffer, frame.offset, frame.offset + frame.length, payload));
+    return payload;
+  }
+
+}
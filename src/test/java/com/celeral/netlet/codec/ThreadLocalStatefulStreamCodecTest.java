@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.celeral.netlet.codec.StatefulStreamCodec.DataStatePair;
+
+public class ThreadLocalStatefulStreamCodecTest
+{
+  public static class A
+  {
+    int value;
+  }
+
+  public static class B extends A
+  {
+  }
+
+  public static class C extends A
+  {
+  }
+
+  public static class D extends A
+  {
+  }
+
+  public static class Envelope
+  {
+    A payload;
+  }
+
+  private static final Class<?>[] TYPES = {A.class, B.class, C.class, D.class};
+
+  /**
+   * Several threads serialize the objects of the classes none of them has seen before and a single codec
+   * deserializes them in the order they are sequenced.
+   */
+  @Test
+  public void testParallelEncoding() throws Exception
+  {
+    final ThreadLocalStatefulStreamCodec<Object> codec = new ThreadLocalStatefulStreamCodec<>(DefaultStatefulStreamCodec::new);
+    final List<DataStatePair> wire = new ArrayList<>();
+    final List<Envelope> sent = new ArrayList<>();
+
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      final Random random = new Random(i);
+      threads[i] = new Thread("encoder-" + i)
+      {
+        @Override
+        public void run()
+        {
+          try {
+            for (int j = 0; j < 1000; j++) {
+              Envelope envelope = new Envelope();
+              envelope.payload = (A)TYPES[random.nextInt(TYPES.length)].newInstance();
+              envelope.payload.value = random.nextInt();
+
+              DataStatePair pair = codec.encode(envelope, null);
+              synchronized (wire) {
+                codec.sequence(pair);
+                wire.add(pair);
+                sent.add(envelope);
+              }
+            }
+          }
+          catch (InstantiationException | IllegalAccessException ex) {
+            throw new RuntimeException(ex);
+          }
+        }
+
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    DefaultStatefulStreamCodec<Object> decoder = new DefaultStatefulStreamCodec<>();
+    int states = 0;
+    for (int i = 0; i < wire.size(); i++) {
+      DataStatePair pair = wire.get(i);
+      if (pair.state != null) {
+        states++;
+      }
+      Envelope received = (Envelope)decoder.fromDataStatePair(pair);
+      Envelope expected = sent.get(i);
+      Assert.assertSame("class of " + i, expected.payload.getClass(), received.payload.getClass());
+      Assert.assertEquals("value of " + i, expected.payload.value, received.payload.value);
+    }
+    Assert.assertTrue("registrations sent with " + states + " pairs", states > 0 && states <= TYPES.length + 1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSequenceBeforeEncodingAgain()
+  {
+    ThreadLocalStatefulStreamCodec<Object> codec = new ThreadLocalStatefulStreamCodec<>(DefaultStatefulStreamCodec::new);
+    codec.encode(new A(), null);
+    codec.encode(new A(), null);
+  }
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.rpc;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.celeral.netlet.AbstractServer;
+import com.celeral.netlet.DefaultEventLoop;
+import com.celeral.netlet.Listener.ClientListener;
+import com.celeral.netlet.codec.DefaultStatefulStreamCodec;
+import com.celeral.netlet.codec.StatefulStreamCodec.DataStatePair;
+import com.celeral.netlet.codec.ThreadLocalStatefulStreamCodec;
+import com.celeral.netlet.util.Slice;
+
+public class ClientTest
+{
+  public static class Small
+  {
+    int sequence;
+  }
+
+  public static class Large
+  {
+    int sequence;
+    long[] values;
+  }
+
+  /**
+   * Fails with an error instead of an exception when it's deserialized.
+   */
+  public static class Poison implements KryoSerializable
+  {
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+      output.writeInt(0);
+    }
+
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+      throw new AssertionError("poison");
+    }
+
+  }
+
+  static class CollectingClient extends Client<Object>
+  {
+    final List<Object> messages = new ArrayList<>();
+
+    CollectingClient(ExecutorService executor)
+    {
+      this(executor, true);
+    }
+
+    CollectingClient(Executor executor, boolean parallel)
+    {
+      super(executor, parallel);
+    }
+
+    @Override
+    public void onMessage(Object message)
+    {
+      synchronized (messages) {
+        messages.add(message);
+      }
+    }
+
+  }
+
+  /**
+   * The messages following the one which failed to decode with an error are still delivered in order.
+   */
+  @Test
+  public void testOrderedDeliveryAfterError() throws InterruptedException
+  {
+    ThreadLocalStatefulStreamCodec<Object> peer = new ThreadLocalStatefulStreamCodec<>(Client::newCodec);
+    List<Slice> frames = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Object message;
+      if (i == 1) {
+        message = new Poison();
+      }
+      else {
+        Small small = new Small();
+        small.sequence = i;
+        message = small;
+      }
+
+      DataStatePair pair = peer.toDataStatePair(message);
+      if (pair.state != null) {
+        frames.add(pair.state);
+      }
+      frames.add(pair.data);
+    }
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CollectingClient client = new CollectingClient(executor);
+    client.setOrderedDelivery(true);
+    try {
+      for (Slice frame : frames) {
+        client.onMessage(frame.buffer, frame.offset, frame.length);
+      }
+    }
+    finally {
+      executor.shutdown();
+      Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    Assert.assertEquals(2, client.messages.size());
+    Assert.assertEquals(0, ((Small)client.messages.get(0)).sequence);
+    Assert.assertEquals(2, ((Small)client.messages.get(1)).sequence);
+  }
+
+  /**
+   * The chunks of the object streamed by the peer are deserialized once they are all queued if the executor runs the
+   * receiver on the event loop, which is then not suspended either.
+   */
+  @Test
+  public void testChunksWithDirectExecutor()
+  {
+    DefaultStatefulStreamCodec<Object> peer = Client.newCodec();
+    Large large = new Large();
+    large.sequence = 7;
+    large.values = new long[300000];
+    Arrays.fill(large.values, 7);
+    List<byte[]> frames = new ArrayList<>();
+    peer.toChunks(large, 4096, chunk -> frames.add(chunk.toByteArray()));
+
+    CollectingClient client = new CollectingClient(Runnable::run, false);
+    for (byte[] frame : frames) {
+      Assert.assertTrue("received before the last chunk", client.messages.isEmpty());
+      client.onMessage(frame, 0, frame.length);
+    }
+
+    Assert.assertEquals(1, client.messages.size());
+    Large received = (Large)client.messages.get(0);
+    Assert.assertEquals(7, received.sequence);
+    Assert.assertArrayEquals(large.values, received.values);
+  }
+
+  /**
+   * The object streamed over a connection is received although the reads are suspended, and resumed by the event loop,
+   * several times while it's queued.
+   */
+  @Test
+  public void testChunksOverConnection() throws Exception
+  {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final ExecutorService senders = Executors.newSingleThreadExecutor();
+    final CountDownLatch suspended = new CountDownLatch(1);
+    final AtomicInteger resumed = new AtomicInteger();
+    final CollectingClient receiver = new CollectingClient(executor, false)
+    {
+      @Override
+      public boolean suspendRead()
+      {
+        suspended.countDown();
+        return super.suspendRead();
+      }
+
+      @Override
+      public boolean resumeRead()
+      {
+        resumed.incrementAndGet();
+        return super.resumeRead();
+      }
+
+    };
+    final CollectingClient sender = new CollectingClient(senders, false);
+    sender.setChunkSize(4096);
+
+    /* keep the executor from receiving the object until the queued chunks suspend the reads */
+    executor.execute(() -> {
+      try {
+        suspended.await(10, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    AbstractServer server = new AbstractServer()
+    {
+      @Override
+      public ClientListener getClientConnection(SocketChannel client, ServerSocketChannel server)
+      {
+        return receiver;
+      }
+
+    };
+
+    Large large = new Large();
+    large.sequence = 11;
+    large.values = new long[1 << 20];
+    Arrays.fill(large.values, 11);
+
+    DefaultEventLoop el = DefaultEventLoop.createEventLoop("chunks");
+    el.start();
+    el.start(new InetSocketAddress("localhost", 0), server);
+    el.connect(server.getBoundAddress().get(), sender);
+    try {
+      long deadline = System.currentTimeMillis() + 30000;
+      while (!sender.isConnected() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      sender.send(large);
+
+      synchronized (receiver.messages) {
+        while (receiver.messages.isEmpty() && System.currentTimeMillis() < deadline) {
+          receiver.messages.wait(10);
+        }
+      }
+    }
+    finally {
+      el.disconnect(sender);
+      el.stop(server);
+      el.stop();
+      executor.shutdownNow();
+      senders.shutdownNow();
+    }
+
+    Assert.assertEquals("suspended", 0, suspended.getCount());
+    Assert.assertTrue("resumed", resumed.get() > 0);
+    Assert.assertEquals(1, receiver.messages.size());
+    Large received = (Large)receiver.messages.get(0);
+    Assert.assertEquals(11, received.sequence);
+    Assert.assertArrayEquals(large.values, received.values);
+  }
+
+  /**
+   * The object streamed by the peer is given up on once more of it is queued on the event loop than allowed.
+   */
+  @Test
+  public void testDeferredChunksLimit()
+  {
+    DefaultStatefulStreamCodec<Object> peer = Client.newCodec();
+    Large large = new Large();
+    large.values = new long[300000];
+    List<byte[]> frames = new ArrayList<>();
+    peer.toChunks(large, 4096, chunk -> frames.add(chunk.toByteArray()));
+
+    CollectingClient client = new CollectingClient(Runnable::run, false);
+    client.maxDeferredSize = 64 * 1024;
+    int offered = 0;
+    try {
+      for (byte[] frame : frames) {
+        client.onMessage(frame, 0, frame.length);
+        offered++;
+      }
+      Assert.fail("object longer than the limit received");
+    }
+    catch (Exception ex) {
+      Assert.assertTrue(String.valueOf(ex), ex instanceof IOException);
+    }
+    Assert.assertTrue("given up on past the limit, not at " + offered, offered * 4096 <= 2 * client.maxDeferredSize);
+    Assert.assertTrue("nothing received", client.messages.isEmpty());
+  }
+
+  /**
+   * The messages of different sizes, some of them accompanied by the class registrations, are decoded by a pool and
+   * delivered in the order they were received.
+   */
+  @Test
+  public void testOrderedParallelDecoding() throws InterruptedException
+  {
+    ThreadLocalStatefulStreamCodec<Object> peer = new ThreadLocalStatefulStreamCodec<>(Client::newCodec);
+    List<Slice> frames = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      Object message;
+      if (i % 3 == 0) {
+        Large large = new Large();
+        large.sequence = i;
+        large.values = new long[i];
+        message = large;
+      }
+      else {
+        Small small = new Small();
+        small.sequence = i;
+        message = small;
+      }
+
+      DataStatePair pair = peer.toDataStatePair(message);
+      if (pair.state != null) {
+        frames.add(pair.state);
+      }
+      frames.add(pair.data);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    CollectingClient client = new CollectingClient(executor);
+    client.setOrderedDelivery(true);
+    try {
+      for (Slice frame : frames) {
+        client.onMessage(frame.buffer, frame.offset, frame.length);
+      }
+    }
+    finally {
+      executor.shutdown();
+      Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    Assert.assertEquals(2000, client.messages.size());
+    for (int i = 0; i < 2000; i++) {
+      Object message = client.messages.get(i);
+      Assert.assertEquals("message " + i, i, message instanceof Large ? ((Large)message).sequence : ((Small)message).sequence);
+    }
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.rpc;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.celeral.netlet.codec.DefaultStatefulStreamCodec;
+import com.celeral.netlet.codec.StatefulStreamCodec.DataStatePair;
+import com.celeral.netlet.rpc.Client.Ack;
+import com.celeral.netlet.rpc.Client.ExtendedRPC;
+import com.celeral.netlet.rpc.Client.RPC;
+import com.celeral.netlet.rpc.Client.RR;
+import com.celeral.netlet.util.Slice;
+
+public class EnvelopeSerializersTest
+{
+  public static class CodedException extends Exception
+  {
+    final int code;
+
+    public CodedException(int code)
+    {
+      super("code " + code);
+      this.code = code;
+    }
+
+    private static final long serialVersionUID = 202610191900L;
+  }
+
+  private final DefaultStatefulStreamCodec<Object> serializer = Client.newCodec();
+  private final DefaultStatefulStreamCodec<Object> deserializer = Client.newCodec();
+
+  @SuppressWarnings("unchecked")
+  private <T> T transmit(T object)
+  {
+    DataStatePair pair = serializer.toDataStatePair(object);
+    DataStatePair copy = new DataStatePair();
+    copy.data = new Slice(pair.data.toByteArray());
+    copy.state = pair.state == null ? null : new Slice(pair.state.toByteArray());
+    pair.release();
+    return (T)deserializer.fromDataStatePair(copy);
+  }
+
+  @Test
+  public void testCalls()
+  {
+    Ack ack = transmit(new Ack(7));
+    Assert.assertEquals(new Ack(7), ack);
+
+    RPC rpc = new RPC(8, 3, "identifier", new Object[]{1, "two", null});
+    rpc.setDeletedIdentifiers(new Object[]{"deleted"});
+    RPC received = transmit(rpc);
+    Assert.assertSame(RPC.class, received.getClass());
+    Assert.assertEquals(8, received.id);
+    Assert.assertEquals(3, received.methodId);
+    Assert.assertEquals("identifier", received.identifier);
+    Assert.assertArrayEquals(rpc.args, received.args);
+    Assert.assertArrayEquals(rpc.deletedIdentifiers, received.deletedIdentifiers);
+
+    ExtendedRPC extended = transmit(new ExtendedRPC(9, "method", 4, null, null));
+    Assert.assertEquals(9, extended.id);
+    Assert.assertEquals(4, extended.methodId);
+    Assert.assertEquals("method", extended.serializableMethod);
+    Assert.assertNull(extended.identifier);
+    Assert.assertNull(extended.args);
+    Assert.assertNull(extended.deletedIdentifiers);
+  }
+
+  @Test
+  public void testResponses()
+  {
+    RR rr = new RR(10, "response");
+    rr.removedIdentifiers = new Object[]{11L};
+    RR received = transmit(rr);
+    Assert.assertEquals(10, received.id);
+    Assert.assertEquals("response", received.response);
+    Assert.assertArrayEquals(rr.removedIdentifiers, received.removedIdentifiers);
+    Assert.assertNull(received.exception);
+
+    IOException exception = new IOException("outer", new IllegalStateException("inner"));
+    received = transmit(new RR(12, null, exception));
+    Assert.assertSame(IOException.class, received.exception.getClass());
+    Assert.assertEquals("outer", received.exception.getMessage());
+    Assert.assertSame(IllegalStateException.class, received.exception.getCause().getClass());
+    Assert.assertEquals("inner", received.exception.getCause().getMessage());
+
+    StackTraceElement[] stack = received.exception.getStackTrace();
+    Assert.assertEquals(Math.min(exception.getStackTrace().length, EnvelopeSerializers.DEFAULT_STACK_DEPTH), stack.length);
+    Assert.assertEquals(exception.getStackTrace()[0].toString(), stack[0].toString());
+  }
+
+  @Test
+  public void testUnrecreatableException()
+  {
+    RR received = transmit(new RR(13, null, new CodedException(42)));
+    Assert.assertSame(EnvelopeSerializers.RemoteException.class, received.exception.getClass());
+    Assert.assertEquals(CodedException.class.getName(), ((EnvelopeSerializers.RemoteException)received.exception).getClassName());
+    Assert.assertEquals("code 42", received.exception.getMessage());
+  }
+
+}
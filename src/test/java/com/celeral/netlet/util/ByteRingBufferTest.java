@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ByteRingBufferTest
+{
+  private static byte[] bytes(int from, int length)
+  {
+    byte[] array = new byte[length];
+    for (int i = 0; i < length; i++) {
+      array[i] = (byte)(from + i);
+    }
+    return array;
+  }
+
+  @Test
+  public void testOfferAndPoll()
+  {
+    ByteRingBuffer ring = new ByteRingBuffer(10);
+    Assert.assertEquals(16, ring.capacity());
+    Assert.assertTrue(ring.isEmpty());
+
+    Assert.assertTrue(ring.offer(bytes(0, 10), 0, 10));
+    Assert.assertFalse("all or nothing", ring.offer(bytes(10, 7), 0, 7));
+    Assert.assertEquals(10, ring.size());
+
+    byte[] array = new byte[8];
+    Assert.assertEquals(8, ring.poll(array, 0, 8));
+    Assert.assertArrayEquals(bytes(0, 8), array);
+
+    /* wraps around the end of the backing memory */
+    Assert.assertTrue(ring.offer(ByteBuffer.wrap(bytes(10, 12))));
+    Assert.assertEquals(14, ring.size());
+    Assert.assertEquals(2, ring.remainingCapacity());
+
+    array = new byte[20];
+    Assert.assertEquals(14, ring.poll(array, 0, 20));
+    Assert.assertArrayEquals(bytes(8, 14), Arrays.copyOf(array, 14));
+    Assert.assertTrue(ring.isEmpty());
+    Assert.assertEquals(22, ring.head());
+    Assert.assertEquals(22, ring.tail());
+  }
+
+  @Test
+  public void testRegion()
+  {
+    ByteBuffer region = ByteBuffer.allocate(40);
+    region.position(4).limit(36);
+    ByteRingBuffer ring = new ByteRingBuffer(region);
+    Assert.assertEquals(32, ring.capacity());
+    Assert.assertTrue(ring.offer(bytes(1, 3), 0, 3));
+    Assert.assertEquals(1, region.get(4));
+    Assert.assertEquals(4, region.position());
+
+    try {
+      new ByteRingBuffer(ByteBuffer.allocate(24));
+      Assert.fail("expected the size to be rejected");
+    }
+    catch (IllegalArgumentException ex) {
+      Assert.assertEquals(0, ring.tail());
+    }
+  }
+
+  @Test
+  public void testWriteTo() throws IOException
+  {
+    ByteRingBuffer ring = new ByteRingBuffer(16);
+    Pipe pipe = Pipe.open();
+    try {
+      Assert.assertTrue(ring.offer(bytes(0, 12), 0, 12));
+      Assert.assertEquals(12, ring.poll(new byte[12], 0, 12));
+      Assert.assertTrue(ring.offer(bytes(12, 10), 0, 10));
+
+      /* the bytes up to the limit wrap around, and go out with a single gathering write */
+      Assert.assertEquals(8, ring.writeTo(pipe.sink(), 20));
+      Assert.assertEquals(0, ring.writeTo(pipe.sink(), 20));
+      Assert.assertEquals(2, ring.writeTo(pipe.sink(), Long.MAX_VALUE));
+      Assert.assertTrue(ring.isEmpty());
+
+      ByteBuffer received = ByteBuffer.allocate(10);
+      while (received.hasRemaining()) {
+        pipe.source().read(received);
+      }
+      Assert.assertArrayEquals(bytes(12, 10), received.array());
+    }
+    finally {
+      pipe.sink().close();
+      pipe.source().close();
+    }
+  }
+
+}
@@ -0,0 +1,593 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CircularBuffersTest
+{
+  private static final int COUNT = 200000;
+
+  private static void testSingleThreaded(UnsafeBlockingQueue<Integer> queue) throws InterruptedException
+  {
+    Assert.assertTrue(queue.isEmpty());
+    Assert.assertNull(queue.poll());
+    Assert.assertNull(queue.peek());
+    Assert.assertEquals(8, queue.remainingCapacity());
+
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 8; i++) {
+        Assert.assertTrue(queue.offer(i));
+      }
+      Assert.assertFalse("full", queue.offer(8));
+      Assert.assertFalse("full", queue.offer(8, 1, TimeUnit.MILLISECONDS));
+      Assert.assertEquals(8, queue.size());
+      Assert.assertEquals(0, queue.remainingCapacity());
+
+      Assert.assertEquals(Integer.valueOf(0), queue.peekUnsafe());
+      Assert.assertEquals(Integer.valueOf(0), queue.pollUnsafe());
+      Assert.assertEquals(Integer.valueOf(1), queue.peek());
+      Assert.assertEquals(Integer.valueOf(1), queue.take());
+      List<Integer> drained = new ArrayList<>();
+      Assert.assertEquals(6, queue.drainTo(drained));
+      for (int i = 0; i < 6; i++) {
+        Assert.assertEquals(Integer.valueOf(i + 2), drained.get(i));
+      }
+      Assert.assertTrue(queue.isEmpty());
+      Assert.assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+    }
+  }
+
+  @Test
+  public void testSingleThreaded() throws InterruptedException
+  {
+    testSingleThreaded(new PaddedCircularBuffer<Integer>(5));
+    testSingleThreaded(new MpscCircularBuffer<Integer>(5));
+    testSingleThreaded(new MpmcCircularBuffer<Integer>(5));
+  }
+
+  private static void testIterator(UnsafeBlockingQueue<Integer> queue)
+  {
+    Assert.assertFalse(queue.iterator().hasNext());
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 6; i++) {
+        queue.add(i);
+      }
+      queue.poll();
+
+      Iterator<Integer> iterator = queue.iterator();
+      Assert.assertEquals(Integer.valueOf(1), iterator.next());
+      Assert.assertEquals(Integer.valueOf(2), iterator.next());
+      /* the consumed elements are skipped */
+      queue.poll();
+      queue.poll();
+      queue.poll();
+      Assert.assertEquals(Integer.valueOf(4), iterator.next());
+      Assert.assertEquals(Integer.valueOf(5), iterator.next());
+      Assert.assertFalse(iterator.hasNext());
+
+      Assert.assertTrue(queue.contains(5));
+      Assert.assertFalse(queue.contains(3));
+      Assert.assertArrayEquals(new Object[] {4, 5}, queue.toArray());
+      queue.clear();
+    }
+  }
+
+  @Test
+  public void testIterator()
+  {
+    testIterator(new PaddedCircularBuffer<Integer>(8));
+    testIterator(new MpscCircularBuffer<Integer>(8));
+    testIterator(new MpmcCircularBuffer<Integer>(8));
+  }
+
+  @Test
+  public void testFactory()
+  {
+    Assert.assertTrue(CircularBuffers.newBuffer(8, 1, false, false) instanceof PaddedCircularBuffer);
+    Assert.assertTrue(CircularBuffers.newBuffer(8, 1, true, false) instanceof MpscCircularBuffer);
+    Assert.assertTrue(CircularBuffers.newBuffer(8, 1, true, true) instanceof MpmcCircularBuffer);
+    Assert.assertTrue(CircularBuffers.newBuffer(8, 1, false, true) instanceof MpmcCircularBuffer);
+  }
+
+  /**
+   * Every producer offers the values which encode its id in the low bits and a running sequence in the high bits.
+   * The consumers verify that the values from each producer arrive in order when there is a single consumer and
+   * all the values arrive exactly once in any case.
+   */
+  private static void testConcurrent(final UnsafeBlockingQueue<Long> queue, final int producers, final int consumers)
+    throws InterruptedException
+  {
+    final AtomicLong sum = new AtomicLong();
+    final AtomicLong count = new AtomicLong();
+    final List<Throwable> failures = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      final int id = p;
+      threads.add(new Thread("producer-" + p)
+      {
+        @Override
+        public void run()
+        {
+          try {
+            for (long i = 0; i < COUNT; i++) {
+              queue.put(i << 8 | id);
+            }
+          }
+          catch (Throwable th) {
+            synchronized (failures) {
+              failures.add(th);
+            }
+          }
+        }
+
+      });
+    }
+
+    final long total = (long)producers * COUNT;
+    for (int c = 0; c < consumers; c++) {
+      threads.add(new Thread("consumer-" + c)
+      {
+        @Override
+        public void run()
+        {
+          long[] expected = new long[producers];
+          try {
+            while (count.get() < total) {
+              Long value = consumers == 1 && !queue.isEmpty() ? queue.pollUnsafe() : queue.poll(1, TimeUnit.MILLISECONDS);
+              if (value == null) {
+                continue;
+              }
+              if (consumers == 1) {
+                int id = (int)(value & 0xff);
+                Assert.assertEquals("order of producer " + id, expected[id]++, value >>> 8);
+              }
+              sum.addAndGet(value >>> 8);
+              count.incrementAndGet();
+            }
+          }
+          catch (Throwable th) {
+            synchronized (failures) {
+              failures.add(th);
+            }
+          }
+        }
+
+      });
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join(60000);
+    }
+
+    Assert.assertEquals("failures " + failures, 0, failures.size());
+    Assert.assertEquals(total, count.get());
+    Assert.assertEquals(producers * ((long)COUNT * (COUNT - 1) / 2), sum.get());
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testSpsc() throws InterruptedException
+  {
+    testConcurrent(new PaddedCircularBuffer<Long>(1024, 0), 1, 1);
+  }
+
+  @Test
+  public void testMpsc() throws InterruptedException
+  {
+    testConcurrent(new MpscCircularBuffer<Long>(1024, 0), 4, 1);
+  }
+
+  @Test
+  public void testMpmc() throws InterruptedException
+  {
+    testConcurrent(new MpmcCircularBuffer<Long>(1024, 0), 4, 4);
+  }
+
+  /**
+   * Pass the values through a small buffer using only the blocking operations so that both the producers and
+   * the consumers keep waiting on each other.
+   */
+  private static void testBlocking(final UnsafeBlockingQueue<Long> queue, final int producers, final int consumers)
+    throws InterruptedException
+  {
+    final AtomicLong sum = new AtomicLong();
+    final List<Throwable> failures = new ArrayList<>();
+    final int count = COUNT / 4;
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      threads.add(new Thread("producer-" + p)
+      {
+        @Override
+        public void run()
+        {
+          try {
+            for (long i = 0; i < count; i++) {
+              if ((i & 1) == 0) {
+                queue.put(i);
+              }
+              else {
+                Assert.assertTrue(queue.offer(i, 10, TimeUnit.SECONDS));
+              }
+            }
+          }
+          catch (Throwable th) {
+            synchronized (failures) {
+              failures.add(th);
+            }
+          }
+        }
+
+      });
+    }
+
+    for (int c = 0; c < consumers; c++) {
+      threads.add(new Thread("consumer-" + c)
+      {
+        @Override
+        public void run()
+        {
+          try {
+            for (long i = 0; i < (long)count * producers / consumers; i++) {
+              Long value = (i & 1) == 0 ? queue.take() : queue.poll(10, TimeUnit.SECONDS);
+              sum.addAndGet(value);
+            }
+          }
+          catch (Throwable th) {
+            synchronized (failures) {
+              failures.add(th);
+            }
+          }
+        }
+
+      });
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join(60000);
+      Assert.assertFalse(thread.getName() + " is stuck", thread.isAlive());
+    }
+
+    Assert.assertEquals("failures " + failures, 0, failures.size());
+    Assert.assertEquals(producers * ((long)count * (count - 1) / 2), sum.get());
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testWaitStrategies() throws InterruptedException
+  {
+    WaitStrategy[] strategies = {
+      new ParkingWaitStrategy(), new ParkingWaitStrategy(), new ParkingWaitStrategy(10, 10), new ParkingWaitStrategy(10, 10),
+      new YieldingWaitStrategy(), new YieldingWaitStrategy(), new SleepingWaitStrategy(0), new SleepingWaitStrategy(0)
+    };
+    for (int i = 0; i < strategies.length; i += 2) {
+      testBlocking(new CircularBuffer<Long>(16, strategies[i], strategies[i + 1]), 1, 1);
+      testBlocking(new PaddedCircularBuffer<Long>(16, strategies[i], strategies[i + 1]), 1, 1);
+      testBlocking(new MpscCircularBuffer<Long>(16, strategies[i], strategies[i + 1]), 4, 1);
+      testBlocking(new MpmcCircularBuffer<Long>(16, strategies[i], strategies[i + 1]), 4, 2);
+    }
+  }
+
+  @Test
+  public void testParkingSignal() throws InterruptedException
+  {
+    final ParkingWaitStrategy strategy = new ParkingWaitStrategy();
+    final long ticket = strategy.prepare();
+    strategy.signal();
+    Assert.assertEquals("signal without waiters", ticket, strategy.prepare());
+
+    final CircularBuffer<Long> queue = new CircularBuffer<>(1, strategy, new ParkingWaitStrategy());
+    final AtomicLong taken = new AtomicLong();
+    Thread consumer = new Thread()
+    {
+      @Override
+      public void run()
+      {
+        try {
+          taken.set(queue.take());
+        }
+        catch (InterruptedException ex) {
+          throw new RuntimeException(ex);
+        }
+      }
+
+    };
+    consumer.start();
+    while (consumer.getState() != Thread.State.WAITING) {
+      Thread.sleep(1);
+    }
+
+    queue.add(42L);
+    consumer.join(TimeUnit.SECONDS.toMillis(5));
+    Assert.assertFalse("consumer woken", consumer.isAlive());
+    Assert.assertEquals(42L, taken.get());
+    Assert.assertNotEquals("signal with a waiter", ticket, strategy.prepare());
+  }
+
+  @Test
+  public void testTimeout() throws InterruptedException
+  {
+    final long timeout = TimeUnit.MILLISECONDS.toNanos(50);
+    for (UnsafeBlockingQueue<Integer> queue : Arrays.<UnsafeBlockingQueue<Integer>>asList(
+      new CircularBuffer<Integer>(1, new ParkingWaitStrategy(), new ParkingWaitStrategy()),
+      new MpmcCircularBuffer<Integer>(2, new ParkingWaitStrategy(), new ParkingWaitStrategy()),
+      new CircularBuffer<Integer>(1, 10))) {
+      long start = System.nanoTime();
+      Assert.assertNull(queue.poll(timeout, TimeUnit.NANOSECONDS));
+      long elapsed = System.nanoTime() - start;
+      Assert.assertTrue("waited " + elapsed, elapsed >= timeout && elapsed < timeout * 4);
+
+      while (queue.remainingCapacity() > 0) {
+        queue.add(1);
+      }
+      start = System.nanoTime();
+      Assert.assertFalse(queue.offer(2, timeout, TimeUnit.NANOSECONDS));
+      elapsed = System.nanoTime() - start;
+      Assert.assertTrue("waited " + elapsed, elapsed >= timeout && elapsed < timeout * 4);
+    }
+  }
+
+  @Test
+  public void testHandoff() throws InterruptedException
+  {
+    final PaddedCircularBuffer<Long> queue = new PaddedCircularBuffer<>(1, new ParkingWaitStrategy(), new ParkingWaitStrategy());
+    Thread producer = new Thread("producer")
+    {
+      @Override
+      public void run()
+      {
+        try {
+          sleep(50);
+          queue.put(System.nanoTime());
+        }
+        catch (InterruptedException ex) {
+          throw new RuntimeException(ex);
+        }
+      }
+
+    };
+    producer.start();
+
+    /* the consumer is unparked by the producer instead of noticing the element on its own */
+    long sent = queue.take();
+    long latency = System.nanoTime() - sent;
+    producer.join();
+    Assert.assertTrue("latency " + latency, latency < TimeUnit.MILLISECONDS.toNanos(20));
+  }
+
+  private static void testDrain(UnsafeBlockingQueue<Integer> queue)
+  {
+    for (int i = 0; i < 6; i++) {
+      queue.add(i);
+    }
+
+    final List<Integer> drained = new ArrayList<>();
+    Assert.assertEquals(2, queue.drain(new Consumer<Integer>()
+    {
+      @Override
+      public void accept(Integer t)
+      {
+        drained.add(t);
+      }
+
+    }, 2));
+    Assert.assertEquals(Arrays.asList(0, 1), drained);
+    Assert.assertEquals(4, queue.size());
+
+    Integer[] array = new Integer[8];
+    Assert.assertEquals(3, queue.drain(array, 1, 3));
+    Assert.assertArrayEquals(new Integer[] {null, 2, 3, 4, null, null, null, null}, array);
+
+    /* the element passed to the failing consumer is removed along with the ones before it */
+    for (int i = 6; i < 9; i++) {
+      queue.add(i);
+    }
+    drained.clear();
+    try {
+      queue.drain(new Consumer<Integer>()
+      {
+        @Override
+        public void accept(Integer t)
+        {
+          if (drained.add(t) && t == 6) {
+            throw new IllegalStateException();
+          }
+        }
+
+      }, Integer.MAX_VALUE);
+      Assert.fail("expected the exception from the consumer");
+    }
+    catch (IllegalStateException ex) {
+      Assert.assertEquals(Arrays.asList(5, 6), drained);
+    }
+    Assert.assertEquals(2, queue.size());
+    Assert.assertEquals(Integer.valueOf(7), queue.peek());
+
+    drained.clear();
+    Assert.assertEquals(2, queue.drainTo(drained));
+    Assert.assertEquals(Arrays.asList(7, 8), drained);
+    Assert.assertTrue(queue.isEmpty());
+    Assert.assertEquals(0, queue.drain(array, 0, 8));
+    Assert.assertEquals(8, queue.remainingCapacity());
+  }
+
+  @Test
+  public void testDrain()
+  {
+    testDrain(new CircularBuffer<Integer>(8));
+    testDrain(new PaddedCircularBuffer<Integer>(8));
+    testDrain(new MpscCircularBuffer<Integer>(8));
+    testDrain(new MpmcCircularBuffer<Integer>(8));
+  }
+
+  @Test
+  public void testPeekAndDiscard()
+  {
+    CircularBuffer<Integer> queue = new CircularBuffer<>(4);
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 3; i++) {
+        queue.add(i);
+      }
+
+      Integer[] array = new Integer[4];
+      Assert.assertEquals(3, queue.peek(array, 0, 4));
+      Assert.assertArrayEquals(new Integer[] {0, 1, 2, null}, array);
+      Assert.assertEquals(3, queue.size());
+
+      queue.discard(2);
+      Assert.assertEquals(1, queue.size());
+      Assert.assertEquals(Integer.valueOf(2), queue.poll());
+    }
+  }
+
+  @Test
+  public void testBatchPublishesOnce() throws InterruptedException
+  {
+    final AtomicLong signals = new AtomicLong();
+    WaitStrategy counting = new SleepingWaitStrategy(0)
+    {
+      @Override
+      public void signal()
+      {
+        signals.incrementAndGet();
+      }
+
+    };
+
+    for (UnsafeBlockingQueue<Integer> queue : Arrays.<UnsafeBlockingQueue<Integer>>asList(
+      new CircularBuffer<Integer>(16, new SleepingWaitStrategy(0), counting),
+      new PaddedCircularBuffer<Integer>(16, new SleepingWaitStrategy(0), counting),
+      new MpscCircularBuffer<Integer>(16, new SleepingWaitStrategy(0), counting))) {
+      for (int i = 0; i < 16; i++) {
+        queue.add(i);
+      }
+      signals.set(0);
+      Assert.assertEquals(10, queue.drain(new Integer[16], 0, 10));
+      Assert.assertEquals(6, queue.drainTo(new ArrayList<Integer>()));
+      Assert.assertEquals("consumer index published once per batch", 2, signals.get());
+    }
+  }
+
+  @Test
+  public void testLongCircularBuffer() throws InterruptedException
+  {
+    final LongCircularBuffer queue = new LongCircularBuffer(5, new ParkingWaitStrategy(), new ParkingWaitStrategy());
+    Assert.assertEquals(8, queue.capacity());
+    Assert.assertTrue(queue.isEmpty());
+    try {
+      queue.remove();
+      Assert.fail("expected the buffer to be empty");
+    }
+    catch (IllegalStateException ex) {
+      Assert.assertEquals(0, queue.size());
+    }
+
+    for (long i = 0; i < 8; i++) {
+      queue.add(Long.MAX_VALUE - i);
+    }
+    Assert.assertFalse(queue.offer(0));
+    Assert.assertEquals(Long.MAX_VALUE, queue.element());
+    Assert.assertEquals(Long.MAX_VALUE, queue.pollUnsafe());
+    Assert.assertEquals(Long.MAX_VALUE - 1, queue.remove());
+    Assert.assertTrue(queue.offer(-1));
+    Assert.assertTrue(queue.offer(-2));
+
+    /* the run wraps around the end of the storage */
+    long[] array = new long[10];
+    Assert.assertEquals(8, queue.drain(array, 1, 10));
+    Assert.assertArrayEquals(new long[] {0, Long.MAX_VALUE - 2, Long.MAX_VALUE - 3, Long.MAX_VALUE - 4, Long.MAX_VALUE - 5,
+                                         Long.MAX_VALUE - 6, Long.MAX_VALUE - 7, -1, -2, 0}, array);
+    Assert.assertTrue(queue.isEmpty());
+
+    final int count = COUNT;
+    Thread producer = new Thread("producer")
+    {
+      @Override
+      public void run()
+      {
+        try {
+          for (long i = 0; i < count; i++) {
+            queue.put(i);
+          }
+        }
+        catch (InterruptedException ex) {
+          throw new RuntimeException(ex);
+        }
+      }
+
+    };
+    producer.start();
+
+    final long[] expected = {0};
+    while (expected[0] < count) {
+      if ((expected[0] & 1) == 0) {
+        Assert.assertEquals(expected[0]++, queue.take());
+      }
+      else {
+        queue.drain(new LongConsumer()
+        {
+          @Override
+          public void accept(long value)
+          {
+            Assert.assertEquals(expected[0]++, value);
+          }
+
+        }, 3);
+      }
+    }
+    producer.join();
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testIntCircularBuffer() throws InterruptedException
+  {
+    IntCircularBuffer queue = new IntCircularBuffer(4, 0);
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 4; i++) {
+        queue.put(round * 4 + i);
+      }
+      Assert.assertFalse(queue.offer(-1, 1, TimeUnit.MILLISECONDS));
+      Assert.assertEquals(0, queue.remainingCapacity());
+      Assert.assertEquals(round * 4, queue.peekUnsafe());
+      Assert.assertEquals(round * 4, queue.take());
+
+      int[] array = new int[2];
+      Assert.assertEquals(2, queue.drain(array, 0, 2));
+      Assert.assertArrayEquals(new int[] {round * 4 + 1, round * 4 + 2}, array);
+      queue.clear();
+      Assert.assertTrue(queue.isEmpty());
+      Assert.assertEquals(4, queue.remainingCapacity());
+    }
+  }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ElasticBufferTest
+{
+  @Test
+  public void testGrowAcrossChunks()
+  {
+    ElasticBuffer<Integer> buffer = new ElasticBuffer<>(3, 20);
+    Assert.assertEquals(4, buffer.getChunkSize());
+    Assert.assertEquals(20, buffer.capacity());
+
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 20; i++) {
+        Assert.assertTrue(buffer.offer(i));
+      }
+      Assert.assertFalse("full", buffer.offer(20));
+      Assert.assertEquals(0, buffer.remainingCapacity());
+
+      Integer[] array = new Integer[7];
+      Assert.assertEquals(7, buffer.peek(array, 0, 7));
+      for (int i = 0; i < 7; i++) {
+        Assert.assertEquals(Integer.valueOf(i), array[i]);
+      }
+      Assert.assertEquals(20, buffer.size());
+
+      buffer.discard(5);
+      Assert.assertEquals(Integer.valueOf(5), buffer.peek());
+      Assert.assertEquals(Integer.valueOf(5), buffer.pollUnsafe());
+      Assert.assertEquals(Integer.valueOf(6), buffer.remove());
+
+      List<Integer> drained = new ArrayList<>();
+      Assert.assertEquals(13, buffer.drainTo(drained));
+      for (int i = 0; i < 13; i++) {
+        Assert.assertEquals(Integer.valueOf(i + 7), drained.get(i));
+      }
+      Assert.assertTrue(buffer.isEmpty());
+      Assert.assertNull(buffer.poll());
+    }
+  }
+
+  @Test
+  public void testIterators()
+  {
+    ElasticBuffer<Integer> buffer = new ElasticBuffer<>(4, 20);
+    for (int i = 0; i < 10; i++) {
+      buffer.add(i);
+    }
+    buffer.discard(2);
+
+    /* the frozen iterable walks across the chunks without removing the elements */
+    Iterable<Integer> frozen = buffer.getFrozenIterable();
+    for (int pass = 0; pass < 2; pass++) {
+      int expected = 2;
+      for (Integer i : frozen) {
+        Assert.assertEquals(Integer.valueOf(expected++), i);
+      }
+      Assert.assertEquals(10, expected);
+    }
+    Assert.assertEquals(8, buffer.size());
+
+    CircularBuffer<Integer> whitehole = buffer.getWhitehole("closed");
+    Assert.assertFalse(whitehole.offer(10));
+    Assert.assertEquals(0, whitehole.remainingCapacity());
+    try {
+      whitehole.add(10);
+      Assert.fail("whitehole accepted an element");
+    }
+    catch (IllegalStateException ex) {
+      Assert.assertEquals("closed", ex.getMessage());
+    }
+    Assert.assertEquals(8, whitehole.size());
+    Assert.assertEquals(Integer.valueOf(2), whitehole.poll());
+
+    /* the consumer drains the rest through the whitehole which stands in for the buffer */
+    int expected = 3;
+    Iterator<Integer> iterator = whitehole.iterator();
+    while (iterator.hasNext()) {
+      Assert.assertEquals(Integer.valueOf(expected++), iterator.next());
+    }
+    Assert.assertEquals(10, expected);
+    Assert.assertTrue(whitehole.isEmpty());
+  }
+
+  @Test
+  public void testConcurrent() throws InterruptedException
+  {
+    final ElasticBuffer<Long> buffer = new ElasticBuffer<>(16, 1 << 16, 2, new ParkingWaitStrategy(100, 10), new ParkingWaitStrategy(100, 10));
+    final long count = 1000000;
+    Thread producer = new Thread("producer")
+    {
+      @Override
+      public void run()
+      {
+        try {
+          for (long i = 0; i < count; i++) {
+            buffer.put(i);
+          }
+        }
+        catch (InterruptedException ex) {
+          throw new RuntimeException(ex);
+        }
+      }
+
+    };
+    producer.start();
+
+    Long[] array = new Long[100];
+    long expected = 0;
+    while (expected < count) {
+      if ((expected & 1) == 0) {
+        Assert.assertEquals(expected++, buffer.take().longValue());
+      }
+      else {
+        int drained = buffer.drain(array, 0, array.length);
+        for (int i = 0; i < drained; i++) {
+          Assert.assertEquals(expected++, array[i].longValue());
+        }
+      }
+    }
+    producer.join();
+    Assert.assertTrue(buffer.isEmpty());
+  }
+
+}
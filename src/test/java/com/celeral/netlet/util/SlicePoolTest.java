@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlicePoolTest
+{
+  @Test
+  public void testSizeClasses()
+  {
+    SlicePool pool = new SlicePool(64, 1024, 4, 16, false);
+
+    PooledSlice slice = pool.allocate(0);
+    Assert.assertEquals(0, slice.length);
+    Assert.assertEquals(64, slice.capacity());
+    slice.release();
+
+    slice = pool.allocate(65);
+    Assert.assertEquals(65, slice.length);
+    Assert.assertEquals(128, slice.capacity());
+    slice.release();
+
+    slice = pool.allocate(1025);
+    Assert.assertEquals(1025, slice.capacity());
+    slice.release();
+  }
+
+  @Test
+  public void testReuse()
+  {
+    SlicePool pool = new SlicePool(64, 1024, 4, 16, false);
+    PooledSlice slice = pool.allocate(100);
+    slice.offset = 10;
+    slice.buffer = new byte[0];
+    slice.release();
+
+    PooledSlice reused = pool.allocate(120);
+    Assert.assertSame(slice, reused);
+    Assert.assertEquals(1, reused.references());
+    Assert.assertEquals(0, reused.offset);
+    Assert.assertEquals(120, reused.length);
+    Assert.assertEquals(128, reused.buffer.length);
+
+    Assert.assertNotSame(reused, pool.allocate(64));
+    reused.release();
+    try {
+      reused.release();
+      Assert.fail("released twice");
+    }
+    catch (IllegalStateException ex) {
+      Assert.assertSame("pooled once", reused, pool.allocate(100));
+      Assert.assertNotSame(reused, pool.allocate(100));
+    }
+  }
+
+  @Test
+  public void testSharedArena() throws InterruptedException
+  {
+    final SlicePool pool = new SlicePool(64, 1024, 4, 16, false);
+    final List<PooledSlice> slices = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      slices.add(pool.allocate(64));
+    }
+
+    /* the slices released by another thread overflow its cache into the arena */
+    Thread releaser = new Thread("releaser")
+    {
+      @Override
+      public void run()
+      {
+        for (PooledSlice slice : slices) {
+          slice.release();
+        }
+      }
+
+    };
+    releaser.start();
+    releaser.join();
+
+    int reused = 0;
+    for (int i = 0; i < 8; i++) {
+      PooledSlice slice = pool.allocate(64);
+      for (PooledSlice released : slices) {
+        if (slice == released) {
+          reused++;
+        }
+      }
+    }
+    Assert.assertEquals("slices in the arena", 4, reused);
+  }
+
+  @Test
+  public void testRetainedBytes() throws InterruptedException
+  {
+    /* 2 slices of 1024 bytes fit in the cache and as many in the arena, although both of them take many more */
+    final SlicePool pool = new SlicePool(64, 1024, 4, 1024, 2048, 2048, false);
+    final List<PooledSlice> slices = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      slices.add(pool.allocate(1024));
+    }
+
+    Thread releaser = new Thread("releaser")
+    {
+      @Override
+      public void run()
+      {
+        for (PooledSlice slice : slices) {
+          slice.release();
+        }
+      }
+
+    };
+    releaser.start();
+    releaser.join();
+
+    int reused = 0;
+    for (int i = 0; i < 16; i++) {
+      PooledSlice slice = pool.allocate(1024);
+      for (PooledSlice released : slices) {
+        if (slice == released) {
+          reused++;
+        }
+      }
+    }
+    Assert.assertEquals("slices in the arena", 2, reused);
+  }
+
+  @Test
+  @SuppressWarnings({"UnusedAssignment", "CallToSystemGC", "SleepWhileInLoop"})
+  public void testLeakDetection() throws InterruptedException
+  {
+    SlicePool pool = new SlicePool(64, 1024, 4, 16, true);
+    Assert.assertTrue(pool.isLeakDetectionEnabled());
+
+    pool.allocate(64).release();
+    PooledSlice leaked = pool.allocate(64);
+    leaked = null;
+
+    long deadline = System.currentTimeMillis() + 10000;
+    while (pool.getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+      System.gc();
+      Thread.sleep(10);
+      pool.allocate(100).release();
+    }
+    Assert.assertEquals("leaks", 1, pool.getLeakCount());
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SliceTest
+{
+  @Test
+  public void testEqualsAtDifferentOffsets()
+  {
+    Slice slice = new Slice(new byte[]{0, 1, 2, 3, 4}, 1, 3);
+    Slice equal = new Slice(new byte[]{1, 2, 3});
+    Assert.assertEquals(slice, equal);
+    Assert.assertEquals(slice.hashCode(), equal.hashCode());
+    Assert.assertNotEquals(slice, new Slice(new byte[]{1, 2, 4}));
+    Assert.assertNotEquals(slice, new Slice(new byte[]{1, 2}));
+  }
+
+  @Test
+  public void testKey()
+  {
+    byte[] bytes = new byte[]{9, 1, 2, 3, 9};
+    for (Slice.HashFunction function : new Slice.HashFunction[]{Slice.HashFunction.MURMUR, Slice.HashFunction.POLYNOMIAL}) {
+      Map<SliceKey, String> map = new HashMap<>();
+      map.put(new SliceKey(bytes, 1, 3, function), "123");
+      map.put(new SliceKey(bytes, 0, 2, function), "91");
+
+      Assert.assertEquals("123", map.get(new SliceKey(new byte[]{1, 2, 3}, 0, 3, function)));
+      Assert.assertEquals("91", map.get(new SliceKey(new byte[]{0, 9, 1}, 1, 2, function)));
+      Assert.assertNull(map.get(new SliceKey(new byte[]{1, 2, 4}, 0, 3, function)));
+    }
+
+    SliceKey key = SliceKey.copyOf(new Slice(bytes, 1, 3));
+    bytes[1] = 0;
+    Assert.assertTrue(key.contentEquals(new byte[]{1, 2, 3}, 0, 3));
+    Assert.assertEquals(new SliceKey(new byte[]{1, 2, 3}), key);
+    Assert.assertEquals(new Slice(new byte[]{1, 2, 3}), key.toSlice());
+    Assert.assertEquals(3, key.byteAt(2));
+  }
+
+  @Test
+  public void testKeyHashFunctions()
+  {
+    SliceKey murmur = new SliceKey(new byte[]{1, 2, 3}, 0, 3, Slice.HashFunction.MURMUR);
+    SliceKey polynomial = new SliceKey(new byte[]{1, 2, 3}, 0, 3, Slice.HashFunction.POLYNOMIAL);
+    Assert.assertNotEquals(murmur, polynomial);
+    Assert.assertNotEquals(polynomial, murmur);
+
+    Map<SliceKey, String> map = new HashMap<>();
+    map.put(murmur, "murmur");
+    map.put(polynomial, "polynomial");
+    Assert.assertEquals(2, map.size());
+    Assert.assertEquals("murmur", map.get(new SliceKey(new byte[]{1, 2, 3})));
+    Assert.assertEquals("polynomial", map.get(new SliceKey(new byte[]{1, 2, 3}, 0, 3, Slice.HashFunction.POLYNOMIAL)));
+  }
+
+  @Test
+  public void testKeySerialization() throws Exception
+  {
+    SliceKey key = new SliceKey(new byte[]{1, 2, 3}, 0, 3, Slice.HashFunction.POLYNOMIAL);
+    int hash = key.hashCode();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+      oos.writeObject(key);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      SliceKey copy = (SliceKey)ois.readObject();
+      Assert.assertEquals(key, copy);
+      Assert.assertEquals(hash, copy.hashCode());
+    }
+  }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.netlet.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VarIntTest
+{
+  private static final int[] INTS = {0, 1, 127, 128, 16383, 16384, 2097151, 2097152, 268435455, 268435456,
+                                     Integer.MAX_VALUE, Integer.MIN_VALUE, -1};
+  private static final long[] LONGS = {0, 1, 127, 128, 1L << 35, (1L << 49) - 1, 1L << 49, (1L << 56) - 1, 1L << 56,
+                                       (1L << 63) - 1, Long.MIN_VALUE, -1};
+
+  @Test
+  public void testInts()
+  {
+    VarInt.MutableInt newOffset = new VarInt.MutableInt();
+    byte[] array = new byte[16];
+    for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.wrap(array), ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN)}) {
+      for (int value : INTS) {
+        int size = VarInt.write(value, array, 3) - 3;
+        Assert.assertEquals("size of " + value, size, VarInt.getSize(value));
+
+        Assert.assertEquals(value, VarInt.read(array, 3, 3 + size, newOffset));
+        Assert.assertEquals(3 + size, newOffset.integer);
+
+        Assert.assertEquals("fast path for " + value, value, VarInt.read(buffer, 3, array.length, newOffset));
+        Assert.assertEquals(3 + size, newOffset.integer);
+
+        Assert.assertEquals("slow path for " + value, value, VarInt.read(buffer, 3, 3 + size, newOffset));
+        Assert.assertEquals(3 + size, newOffset.integer);
+
+        VarInt.read(buffer, 3, 3 + size - 1, newOffset);
+        Assert.assertEquals("incomplete " + value, 1 - size, newOffset.integer);
+      }
+    }
+  }
+
+  @Test
+  public void testLongs()
+  {
+    VarInt.MutableInt newOffset = new VarInt.MutableInt();
+    byte[] array = new byte[16];
+    ByteBuffer buffer = ByteBuffer.wrap(array);
+    for (long value : LONGS) {
+      int size = VarInt.writeLong(value, array, 1) - 1;
+      Assert.assertEquals("size of " + value, size, VarInt.getLongSize(value));
+
+      Assert.assertEquals(value, VarInt.readLong(array, 1, 1 + size, newOffset));
+      Assert.assertEquals(1 + size, newOffset.integer);
+
+      Assert.assertEquals("fast path for " + value, value, VarInt.readLong(buffer, 1, array.length, newOffset));
+      Assert.assertEquals(1 + size, newOffset.integer);
+
+      Assert.assertEquals("slow path for " + value, value, VarInt.readLong(buffer, 1, 1 + size, newOffset));
+      Assert.assertEquals(1 + size, newOffset.integer);
+
+      VarInt.readLong(buffer, 1, size, newOffset);
+      Assert.assertEquals("incomplete " + value, 1 - size, newOffset.integer);
+    }
+  }
+
+  @Test
+  public void testInvalid()
+  {
+    VarInt.MutableInt newOffset = new VarInt.MutableInt();
+    byte[] array = new byte[12];
+    Arrays.fill(array, (byte)-1);
+    VarInt.read(array, 0, array.length, newOffset);
+    Assert.assertEquals(-5, newOffset.integer);
+    VarInt.read(ByteBuffer.wrap(array), 0, array.length, newOffset);
+    Assert.assertEquals(-5, newOffset.integer);
+    VarInt.read(ByteBuffer.wrap(array), 0, 5, newOffset);
+    Assert.assertEquals(-5, newOffset.integer);
+    VarInt.readLong(array, 0, array.length, newOffset);
+    Assert.assertEquals(-10, newOffset.integer);
+    VarInt.readLong(ByteBuffer.wrap(array), 0, array.length, newOffset);
+    Assert.assertEquals(-10, newOffset.integer);
+  }
+
+  @Test
+  public void testBulk()
+  {
+    Random random = new Random(1);
+    int[] ints = new int[1000];
+    long[] longs = new long[ints.length];
+    for (int i = 0; i < ints.length; i++) {
+      longs[i] = random.nextLong() >>> random.nextInt(64);
+      ints[i] = (int)longs[i];
+    }
+
+    VarInt.MutableInt newOffset = new VarInt.MutableInt();
+    byte[] array = new byte[ints.length * 10];
+    ByteBuffer buffer = ByteBuffer.wrap(array);
+
+    int limit = VarInt.write(ints, 0, ints.length, array, 0);
+    int[] decodedInts = new int[ints.length];
+    Assert.assertEquals(ints.length - 1, VarInt.read(buffer, 0, limit - 1, decodedInts, 0, ints.length, newOffset));
+    Assert.assertEquals(limit - VarInt.getSize(ints[ints.length - 1]), newOffset.integer);
+    Assert.assertEquals(1, VarInt.read(buffer, newOffset.integer, limit, decodedInts, ints.length - 1, 1, newOffset));
+    Assert.assertEquals(limit, newOffset.integer);
+    Assert.assertArrayEquals(ints, decodedInts);
+
+    limit = VarInt.write(longs, 0, longs.length, array, 0);
+    long[] decodedLongs = new long[longs.length];
+    Assert.assertEquals(longs.length, VarInt.read(buffer, 0, limit, decodedLongs, 0, longs.length, newOffset));
+    Assert.assertEquals(limit, newOffset.integer);
+    Assert.assertArrayEquals(longs, decodedLongs);
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testBulkInvalid()
+  {
+    byte[] array = {1, 2, -1, -1, -1, -1, -1, 0, 0, 0};
+    VarInt.read(ByteBuffer.wrap(array), 0, array.length, new int[4], 0, 4, new VarInt.MutableInt());
+  }
+
+}